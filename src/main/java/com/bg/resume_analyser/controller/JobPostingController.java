@@ -0,0 +1,64 @@
+package com.bg.resume_analyser.controller;
+
+import com.bg.resume_analyser.model.JobPosting;
+import com.bg.resume_analyser.model.request.JobDescriptionRequest;
+import com.bg.resume_analyser.service.JobDescriptionService;
+import com.bg.resume_analyser.service.JobPostingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobPostingController {
+
+    private final JobPostingService jobPostingService;
+    private final JobDescriptionService jobDescriptionService;
+    private final int maxPostings;
+
+    public JobPostingController(JobPostingService jobPostingService,
+                                JobDescriptionService jobDescriptionService,
+                                @Value("${job-postings.max-per-request:500}") int maxPostings) {
+        this.jobPostingService = jobPostingService;
+        this.jobDescriptionService = jobDescriptionService;
+        this.maxPostings = maxPostings;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> addPostings(@RequestBody List<JobDescriptionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At least one job posting is required."));
+        }
+        if (requests.size() > maxPostings) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + maxPostings + " job postings can be added per request."));
+        }
+        if (!jobPostingService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Job postings need embeddings; OPENAI_API_KEY is not configured."));
+        }
+
+        List<JobPosting> saved = new ArrayList<>();
+        List<Map<String, Object>> failed = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            JobDescriptionRequest request = requests.get(i);
+            try {
+                String text = request.getJobDescription();
+                if (text == null || text.isBlank()) {
+                    if (request.getVacancyUrl() == null || request.getVacancyUrl().isBlank()) {
+                        throw new IllegalArgumentException("Either vacancyUrl or jobDescription is required.");
+                    }
+                    text = jobDescriptionService.getJobDescriptionFromUrl(request.getVacancyUrl());
+                }
+                saved.add(jobPostingService.submit(request.getVacancyUrl(), text));
+            } catch (Exception e) {
+                System.err.println("[FAIL] Could not add job posting " + i + ": " + e.getMessage());
+                failed.add(Map.of("index", i, "error", String.valueOf(e.getMessage())));
+            }
+        }
+        return ResponseEntity.ok(Map.of("postings", jobPostingService.summarise(saved), "failed", failed));
+    }
+}
@@ -1,44 +1,85 @@
 package com.bg.resume_analyser.controller;
 
+import com.bg.resume_analyser.model.JobPosting;
 import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.TailoringJob;
+import com.bg.resume_analyser.model.request.JobDescriptionRequest;
+import com.bg.resume_analyser.model.request.RankRequest;
 import com.bg.resume_analyser.model.request.TailorRequest;
 import com.bg.resume_analyser.repository.ResumeRepository;
 import com.bg.resume_analyser.service.*;
-import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.tika.Tika;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/resumes")
 public class ResumeController {
 
+    private static final String DOCX_MEDIA_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
     private final ResumeRepository resumeRepository;
     private final Tika tika = new Tika();
-    private final ImproveService improveService;
+    private final TailoringJobService tailoringJobService;
+    private final BulkTailoringService bulkTailoringService;
+    private final EditPlanCache editPlanCache;
+    private final LlmClient llmClient;
+    private final EmbeddingService embeddingService;
+    private final ResumeRankingService resumeRankingService;
+    private final JobPostingService jobPostingService;
+    private final ResumeIndexService resumeIndexService;
+    private final KeywordExtractor keywordExtractor;
     private final DocxService docxService;
-    private final StorageService storageService;
-    private final JobDescriptionService jobDescriptionService;
+    private final TemplateCache templateCache;
+    private final ArtifactService artifactService;
 
     @Autowired
     public ResumeController(ResumeRepository resumeRepository,
-                           ImproveService improveService,
+                           TailoringJobService tailoringJobService,
+                           BulkTailoringService bulkTailoringService,
+                           EditPlanCache editPlanCache,
+                           LlmClient llmClient,
+                           EmbeddingService embeddingService,
+                           ResumeRankingService resumeRankingService,
+                           JobPostingService jobPostingService,
+                           ResumeIndexService resumeIndexService,
+                           KeywordExtractor keywordExtractor,
                            DocxService docxService,
-                           StorageService storageService,
-                           JobDescriptionService jobDescriptionService) {
+                           TemplateCache templateCache,
+                           ArtifactService artifactService) {
         this.resumeRepository = resumeRepository;
-        this.improveService = improveService;
+        this.tailoringJobService = tailoringJobService;
+        this.bulkTailoringService = bulkTailoringService;
+        this.editPlanCache = editPlanCache;
+        this.llmClient = llmClient;
+        this.embeddingService = embeddingService;
+        this.resumeRankingService = resumeRankingService;
+        this.jobPostingService = jobPostingService;
+        this.resumeIndexService = resumeIndexService;
+        this.keywordExtractor = keywordExtractor;
         this.docxService = docxService;
-        this.storageService = storageService;
-        this.jobDescriptionService = jobDescriptionService;
+        this.templateCache = templateCache;
+        this.artifactService = artifactService;
     }
 
     @PostMapping("/upload")
@@ -66,6 +107,7 @@ public class ResumeController {
                 try (var inputStream = file.getInputStream()) {
                     java.nio.file.Files.copy(inputStream, destPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
                 }
+                templateCache.invalidate(destPath);
                 System.out.println("[ResumeController] DOCX file saved to: " + destPath);
             } catch (IOException e) {
                 System.err.println("[FAIL] Could not save DOCX template: " + e.getMessage());
@@ -75,6 +117,15 @@ public class ResumeController {
 
         try {
             Resume r = new Resume(filename, text);
+            resumeIndexService.index(r);
+            if (filename != null && filename.toLowerCase().endsWith(".docx")) {
+                try {
+                    docxService.compileTemplate(r);
+                } catch (Exception e) {
+                    // Tailoring compiles the map itself when none is stored
+                    System.err.println("[ResumeController] Could not compile DOCX template map: " + e.getMessage());
+                }
+            }
             Resume saved = resumeRepository.save(r);
             System.out.println("\u001B[1m[SUCCESS]\u001B[0m Resume file uploaded and parsed.");
             return ResponseEntity.ok(Map.of("id", saved.getId(), "filename", saved.getFilename()));
@@ -86,69 +137,222 @@ public class ResumeController {
 
     @PostMapping("/tailor/{id}")
     public ResponseEntity<?> tailorResume(@PathVariable Long id, @RequestBody TailorRequest tailorRequest) {
-        System.out.println("[IN-PROGRESS] Starting resume tailoring...");
         Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
         if (optionalResume.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
         }
-        Resume resume = optionalResume.get();
+        if (!TailoringService.hasJobSource(tailorRequest)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Either vacancyUrl or jobDescription is required."));
+        }
+
+        try {
+            TailoringJob job = tailoringJobService.submit(optionalResume.get(), tailorRequest);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "jobId", job.getId(),
+                    "status", job.getStatus().name(),
+                    "queueDepth", tailoringJobService.getQueueDepth(),
+                    "eventsUrl", "/api/resumes/tailor/jobs/" + job.getId() + "/events"
+            ));
+        } catch (RejectedExecutionException e) {
+            System.err.println("[FAIL] Tailoring queue is full: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                    "error", "Tailoring queue is full, please retry later.",
+                    "queueDepth", tailoringJobService.getQueueDepth()
+            ));
+        }
+    }
+
+    @PostMapping("/tailor/{id}/bulk")
+    public ResponseEntity<?> tailorResumeBulk(@PathVariable Long id, @RequestBody List<TailorRequest> tailorRequests) {
+        Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
+        if (optionalResume.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
+        }
+        if (tailorRequests == null || tailorRequests.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At least one vacancy is required."));
+        }
+        if (tailorRequests.size() > bulkTailoringService.getMaxVacancies()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + bulkTailoringService.getMaxVacancies() + " vacancies can be tailored per request."));
+        }
+
+        ResponseBodyEmitter emitter = bulkTailoringService.tailorAll(optionalResume.get(), tailorRequests);
+        return ResponseEntity.ok().contentType(BulkTailoringService.APPLICATION_NDJSON_UTF8).body(emitter);
+    }
+
+    @PostMapping("/rank")
+    public ResponseEntity<?> rankResumes(@RequestBody RankRequest rankRequest) {
+        if ((rankRequest.getJobDescription() == null || rankRequest.getJobDescription().isBlank())
+                && (rankRequest.getVacancyUrl() == null || rankRequest.getVacancyUrl().isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Either vacancyUrl or jobDescription is required."));
+        }
+        if (!resumeRankingService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Ranking needs embeddings; OPENAI_API_KEY is not configured."));
+        }
 
         try {
-            String jobText;
-            String vacancyUrl = tailorRequest.getVacancyUrl();
-            String jobDescription = tailorRequest.getJobDescription();
-
-            if (vacancyUrl != null && !vacancyUrl.isBlank()) {
-                System.out.println("[IN-PROGRESS] Fetching job description from URL: " + vacancyUrl);
-                jobText = jobDescriptionService.getJobDescriptionFromUrl(vacancyUrl);
-                resume.setVacancyUrl(vacancyUrl);
-            } else if (jobDescription != null && !jobDescription.isBlank()) {
-                System.out.println("[IN-PROGRESS] Using provided job description text.");
-                jobText = jobDescription;
-            } else {
-                return ResponseEntity.badRequest().body(Map.of("error", "Either vacancyUrl or jobDescription is required."));
+            return ResponseEntity.ok(resumeRankingService.rank(rankRequest));
+        } catch (Exception e) {
+            System.err.println("[FAIL] Resume ranking failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Resume ranking failed: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/jobs")
+    public ResponseEntity<?> rankJobPostings(@PathVariable Long id, @RequestParam(defaultValue = "10") int topK) {
+        Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
+        if (optionalResume.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
+        }
+        if (!jobPostingService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Ranking needs embeddings; OPENAI_API_KEY is not configured."));
+        }
+
+        try {
+            return ResponseEntity.ok(jobPostingService.rankForResume(optionalResume.get(), Math.max(1, Math.min(topK, resumeRankingService.getMaxTopK()))));
+        } catch (Exception e) {
+            System.err.println("[FAIL] Job posting ranking failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Job posting ranking failed: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/score")
+    public ResponseEntity<?> scoreResume(@PathVariable Long id, @RequestBody JobDescriptionRequest request) {
+        Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
+        if (optionalResume.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
+        }
+
+        try {
+            JobPosting posting = jobPostingService.resolve(request);
+            return ResponseEntity.ok(jobPostingService.scoreResume(optionalResume.get(), posting));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("[FAIL] Scoring failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Scoring failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * The latest tailored DOCX of a resume. Supports Range requests, and If-None-Match against the
+     * content-hash ETag answers 304 without reading the file.
+     */
+    @GetMapping("/{id}/tailored")
+    public ResponseEntity<?> downloadTailored(@PathVariable Long id) {
+        Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
+        if (optionalResume.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
+        }
+        try {
+            Optional<Path> document = artifactService.latestTailoredDocument(optionalResume.get());
+            if (document.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume " + id + " has not been tailored yet."));
             }
+            return download(document.get());
+        } catch (IOException e) {
+            System.err.println("[FAIL] Tailored resume download failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Download failed: " + e.getMessage()));
+        }
+    }
 
-            System.out.println("[IN-PROGRESS] Generating AI edit plan...");
-            Map<String, Object> aiResult = improveService.generateEditPlan(resume.getOriginalText(), jobText);
-            String companyName = (String) aiResult.get("company_name");
-            String positionTitle = (String) aiResult.get("position_title");
-            String contactPerson = (String) aiResult.get("contact_person");
-            JsonNode editPlan = (JsonNode) aiResult.get("edit_plan");
-            JsonNode skillsToAdd = (JsonNode) aiResult.get("skills_to_add");
-
-            System.out.println("[DEBUG] Extracted Company: " + companyName);
-            System.out.println("[DEBUG] Extracted Position: " + positionTitle);
-            System.out.println("[DEBUG] Extracted Contact: " + contactPerson);
-            System.out.println("[DEBUG] Generated Edit Plan: " + (editPlan != null ? editPlan.toString() : "[]"));
-            System.out.println("[DEBUG] Generated Skills to Add: " + (skillsToAdd != null ? skillsToAdd.toString() : "{}"));
-
-            System.out.println("[IN-PROGRESS] Creating application-specific folder and metadata...");
-            Path appFolder = storageService.createApplicationFolder(companyName, positionTitle);
-            storageService.writeMetadata(appFolder, companyName, positionTitle, contactPerson, resume.getVacancyUrl(), editPlan, skillsToAdd);
-            System.out.println("[IN-PROGRESS] Application folder and metadata.txt created at: " + appFolder);
-
-            System.out.println("[IN-PROGRESS] Updating DOCX file based on the edit plan...");
-            Path tailoredDocxPath = docxService.updateDocx(resume.getFilename(), editPlan, skillsToAdd, appFolder);
-            System.out.println("[IN-PROGRESS] DOCX file update complete.");
-
-            System.out.println("[IN-PROGRESS] Saving tailored resume path...");
-            resume.setTailoredPath(tailoredDocxPath.toString());
-            resumeRepository.save(resume);
-            System.out.println("[IN-PROGRESS] Tailored resume path saved.");
-
-            System.out.println("\u001B[1m[SUCCESS]\u001B[0m Resume tailored successfully.");
-            return ResponseEntity.ok(Map.of(
-                    "message", "Resume tailored successfully",
-                    "tailoredPath", tailoredDocxPath.toString()
-            ));
+    /**
+     * The tailored DOCX written to one application folder.
+     */
+    @GetMapping("/{id}/tailored/{folder}")
+    public ResponseEntity<?> downloadTailored(@PathVariable Long id, @PathVariable String folder) {
+        Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
+        if (optionalResume.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
+        }
+        try {
+            Optional<Path> document = artifactService.tailoredDocument(optionalResume.get(), folder);
+            if (document.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No tailored resume in folder: " + folder));
+            }
+            return download(document.get());
         } catch (IOException e) {
-            System.err.println("[FAIL] Error during tailoring: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "Failed to process request. " + e.getMessage()));
-        } catch (Exception e) {
-            System.err.println("[FAIL] Resume tailoring failed unexpectedly: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "An unexpected error occurred: " + e.getMessage()));
+            System.err.println("[FAIL] Tailored resume download failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Download failed: " + e.getMessage()));
         }
     }
+
+    /**
+     * Every tailored DOCX of a resume with its metadata, streamed as one ZIP.
+     */
+    @GetMapping("/{id}/tailored.zip")
+    public ResponseEntity<?> downloadAllTailored(@PathVariable Long id) {
+        Optional<Resume> optionalResume = resumeRepository.findById(java.util.Objects.requireNonNull(id));
+        if (optionalResume.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Resume not found with ID: " + id));
+        }
+        Resume resume = optionalResume.get();
+        StreamingResponseBody body = out -> artifactService.writeZip(resume, out);
+        String name = resume.getFilename() != null ? resume.getFilename().replaceFirst("\\.docx$", "") : "resume-" + id;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(name + "_tailored.zip"))
+                .body(body);
+    }
+
+    private ResponseEntity<Resource> download(Path document) throws IOException {
+        // Spring answers 304 for a matching If-None-Match and serves Range requests as 206 regions
+        return ResponseEntity.ok()
+                .eTag(artifactService.etag(document))
+                .lastModified(Files.getLastModifiedTime(document).toMillis())
+                .contentType(MediaType.parseMediaType(DOCX_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(document.getFileName().toString()))
+                .body(new FileSystemResource(document));
+    }
+
+    private static String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString();
+    }
+
+    @GetMapping("/tailor/jobs/{jobId}")
+    public ResponseEntity<?> getTailoringJob(@PathVariable String jobId) {
+        Optional<TailoringJob> job = tailoringJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Tailoring job not found with ID: " + jobId));
+        }
+        Map<String, Object> body = job.get().toSummary();
+        body.put("queueDepth", tailoringJobService.getQueueDepth());
+        body.put("activeJobs", tailoringJobService.getActiveCount());
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(value = "/tailor/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamTailoringJobEvents(@PathVariable String jobId) {
+        Optional<TailoringJob> job = tailoringJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            // The client expects an event stream, so a JSON error body cannot be negotiated here
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        SseEmitter emitter = tailoringJobService.subscribe(job.get());
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/cache/edit-plans")
+    public ResponseEntity<?> getEditPlanCacheStats() {
+        return ResponseEntity.ok(editPlanCache.getStats());
+    }
+
+    @GetMapping("/cache/embeddings")
+    public ResponseEntity<?> getEmbeddingCacheStats() {
+        return ResponseEntity.ok(embeddingService.getStats());
+    }
+
+    @GetMapping("/cache/keywords")
+    public ResponseEntity<?> getKeywordCacheStats() {
+        return ResponseEntity.ok(keywordExtractor.getStats());
+    }
+
+    @GetMapping("/cache/templates")
+    public ResponseEntity<?> getTemplateCacheStats() {
+        return ResponseEntity.ok(templateCache.getStats());
+    }
+
+    @GetMapping("/llm/stats")
+    public ResponseEntity<?> getLlmClientStats() {
+        return ResponseEntity.ok(llmClient.getStats());
+    }
 }
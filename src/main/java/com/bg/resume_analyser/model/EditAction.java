@@ -0,0 +1,89 @@
+package com.bg.resume_analyser.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Set;
+
+/**
+ * One entry of an edit plan: replace {@code originalText} in a resume section with {@code newText}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EditAction {
+
+    public static final String REPLACE = "REPLACE";
+    public static final Set<String> EDITABLE_SECTIONS = Set.of("Personal Summary", "Experience");
+
+    @JsonProperty("action")
+    private String action;
+    @JsonProperty("section")
+    private String section;
+    @JsonProperty("original_text")
+    private String originalText;
+    @JsonProperty("new_text")
+    private String newText;
+
+    public EditAction() {
+    }
+
+    public EditAction(String action, String section, String originalText, String newText) {
+        this.action = action;
+        this.section = section;
+        this.originalText = originalText;
+        this.newText = newText;
+    }
+
+    /**
+     * Returns why this action cannot be applied, or null if it is valid.
+     */
+    public String validate() {
+        if (action != null && !REPLACE.equalsIgnoreCase(action.trim())) return "unsupported action '" + action + "'";
+        if (section != null && !EDITABLE_SECTIONS.contains(section.trim())) return "section '" + section + "' is not editable";
+        if (originalText == null || originalText.isBlank()) return "original_text is missing";
+        if (newText == null || newText.isBlank()) return "new_text is missing";
+        if (originalText.trim().equals(newText.trim())) return "new_text is identical to original_text";
+        return null;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public void setSection(String section) {
+        this.section = section;
+    }
+
+    public String getOriginalText() {
+        return originalText;
+    }
+
+    public void setOriginalText(String originalText) {
+        this.originalText = originalText;
+    }
+
+    public String getNewText() {
+        return newText;
+    }
+
+    public void setNewText(String newText) {
+        this.newText = newText;
+    }
+
+    @Override
+    public String toString() {
+        return "EditAction{section='" + section + "', originalText='" + abbreviate(originalText) + "'}";
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null) return null;
+        return text.length() <= 50 ? text : text.substring(0, 50) + "...";
+    }
+}
@@ -0,0 +1,122 @@
+package com.bg.resume_analyser.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The LLM's plan for tailoring a resume: the extracted vacancy details, the text replacements and
+ * the skills to add. Serialises to the same JSON shape the model produces, which is also the shape
+ * stored in the edit plan cache. {@code error} and the prompt statistics describe how the plan was
+ * obtained and are not serialised.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EditPlan {
+
+    @JsonProperty("company_name")
+    private String companyName = "N/A";
+    @JsonProperty("position_title")
+    private String positionTitle = "N/A";
+    @JsonProperty("contact_person")
+    private String contactPerson = "";
+    @JsonProperty("edit_plan")
+    private List<EditAction> editActions = new ArrayList<>();
+    @JsonProperty("skills_to_add")
+    private SkillsToAdd skillsToAdd = new SkillsToAdd();
+
+    @JsonIgnore
+    private String error;
+    @JsonIgnore
+    private Integer promptTokens;
+    @JsonIgnore
+    private Integer promptTokensSaved;
+
+    public static EditPlan failed(String error) {
+        EditPlan plan = new EditPlan();
+        plan.error = error;
+        return plan;
+    }
+
+    /**
+     * Returns a copy carrying the given prompt statistics. Plans may be shared between callers, so
+     * they are not modified in place.
+     */
+    public EditPlan withPromptStats(int tokens, int tokensSaved) {
+        EditPlan copy = new EditPlan();
+        copy.companyName = companyName;
+        copy.positionTitle = positionTitle;
+        copy.contactPerson = contactPerson;
+        copy.editActions = editActions;
+        copy.skillsToAdd = skillsToAdd;
+        copy.error = error;
+        copy.promptTokens = tokens;
+        copy.promptTokensSaved = tokensSaved;
+        return copy;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public void setCompanyName(String companyName) {
+        this.companyName = companyName == null || companyName.isBlank() ? "N/A" : companyName;
+    }
+
+    public String getPositionTitle() {
+        return positionTitle;
+    }
+
+    public void setPositionTitle(String positionTitle) {
+        this.positionTitle = positionTitle == null || positionTitle.isBlank() ? "N/A" : positionTitle;
+    }
+
+    public String getContactPerson() {
+        return contactPerson;
+    }
+
+    public void setContactPerson(String contactPerson) {
+        this.contactPerson = contactPerson == null ? "" : contactPerson;
+    }
+
+    public List<EditAction> getEditActions() {
+        return editActions;
+    }
+
+    public void setEditActions(List<EditAction> editActions) {
+        this.editActions = editActions == null ? new ArrayList<>() : editActions;
+    }
+
+    public SkillsToAdd getSkillsToAdd() {
+        return skillsToAdd;
+    }
+
+    public void setSkillsToAdd(SkillsToAdd skillsToAdd) {
+        this.skillsToAdd = skillsToAdd == null ? new SkillsToAdd() : skillsToAdd;
+    }
+
+    @JsonIgnore
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Integer getPromptTokens() {
+        return promptTokens;
+    }
+
+    public Integer getPromptTokensSaved() {
+        return promptTokensSaved;
+    }
+
+    @Override
+    public String toString() {
+        return "EditPlan{company='" + companyName + "', position='" + positionTitle + "', edits=" + editActions.size()
+                + ", skillCategories=" + skillsToAdd.size() + (error != null ? ", error='" + error + "'" : "") + "}";
+    }
+}
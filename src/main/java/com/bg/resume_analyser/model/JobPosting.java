@@ -0,0 +1,213 @@
+package com.bg.resume_analyser.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A job description kept after it was fetched or submitted, with the requirements extracted from
+ * it and its embedding, so stored postings can be ranked against a resume. The requirements form
+ * the posting's profile: extracted once per distinct text and reused by every score against it.
+ */
+@Entity
+@Table(name = "job_postings")
+public class JobPosting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String vacancyUrl;
+
+    @Lob
+    private String text;
+
+    @Column(unique = true, length = 64)
+    private String contentHash;
+
+    private String positionTitle;
+
+    private Integer yearsRequired;
+
+    // Comma-separated, lower case
+    @Lob
+    private String keywords;
+
+    // Comma-separated, lower case
+    @Lob
+    private String technicalSkills;
+
+    // Comma-separated, lower case
+    @Lob
+    private String softSkills;
+
+    // Comma-separated, lower case
+    @Lob
+    private String mainFunctions;
+
+    // float32 little-endian, L2-normalised
+    @Lob
+    private byte[] embedding;
+
+    private Instant createdAt = Instant.now();
+
+    public JobPosting() {
+    }
+
+    public JobPosting(String vacancyUrl, String text, String contentHash) {
+        this.vacancyUrl = vacancyUrl;
+        this.text = text;
+        this.contentHash = contentHash;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getVacancyUrl() {
+        return vacancyUrl;
+    }
+
+    public void setVacancyUrl(String vacancyUrl) {
+        this.vacancyUrl = vacancyUrl;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getPositionTitle() {
+        return positionTitle;
+    }
+
+    public void setPositionTitle(String positionTitle) {
+        this.positionTitle = positionTitle;
+    }
+
+    public Integer getYearsRequired() {
+        return yearsRequired;
+    }
+
+    public void setYearsRequired(Integer yearsRequired) {
+        this.yearsRequired = yearsRequired;
+    }
+
+    public String getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(String keywords) {
+        this.keywords = keywords;
+    }
+
+    @Transient
+    public List<String> getKeywordList() {
+        return split(keywords);
+    }
+
+    public String getTechnicalSkills() {
+        return technicalSkills;
+    }
+
+    public void setTechnicalSkills(String technicalSkills) {
+        this.technicalSkills = technicalSkills;
+    }
+
+    @Transient
+    public List<String> getTechnicalSkillList() {
+        return split(technicalSkills);
+    }
+
+    public String getSoftSkills() {
+        return softSkills;
+    }
+
+    public void setSoftSkills(String softSkills) {
+        this.softSkills = softSkills;
+    }
+
+    @Transient
+    public List<String> getSoftSkillList() {
+        return split(softSkills);
+    }
+
+    public String getMainFunctions() {
+        return mainFunctions;
+    }
+
+    public void setMainFunctions(String mainFunctions) {
+        this.mainFunctions = mainFunctions;
+    }
+
+    @Transient
+    public List<String> getMainFunctionList() {
+        return split(mainFunctions);
+    }
+
+    @Transient
+    public boolean hasRequirements() {
+        return keywords != null && technicalSkills != null;
+    }
+
+    private static List<String> split(String values) {
+        if (values == null || values.isBlank()) return List.of();
+        return Arrays.asList(values.split(","));
+    }
+
+    public byte[] getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(byte[] embedding) {
+        this.embedding = embedding;
+    }
+
+    @Transient
+    public float[] getEmbeddingVector() {
+        if (embedding == null) return null;
+        float[] vector = new float[embedding.length / Float.BYTES];
+        ByteBuffer.wrap(embedding).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public void setEmbeddingVector(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        this.embedding = buffer.array();
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
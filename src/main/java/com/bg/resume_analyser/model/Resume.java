@@ -1,5 +1,6 @@
 package com.bg.resume_analyser.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -45,6 +46,16 @@ public class Resume {
 
     private String tailoredPath;
 
+    // Serialised ResumeIndex, computed at upload
+    @Lob
+    @JsonIgnore
+    private byte[] indexData;
+
+    // Serialised TemplateMap of the uploaded DOCX, compiled at upload
+    @Lob
+    @JsonIgnore
+    private byte[] templateData;
+
     public String getTailoredPath() {
         return tailoredPath;
     }
@@ -53,6 +64,22 @@ public class Resume {
         this.tailoredPath = tailoredPath;
     }
 
+    public byte[] getIndexData() {
+        return indexData;
+    }
+
+    public void setIndexData(byte[] indexData) {
+        this.indexData = indexData;
+    }
+
+    public byte[] getTemplateData() {
+        return templateData;
+    }
+
+    public void setTemplateData(byte[] templateData) {
+        this.templateData = templateData;
+    }
+
     public Resume() {
     }
 
@@ -0,0 +1,255 @@
+package com.bg.resume_analyser.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Facts derived once from a resume's text: its lines with the editable section each belongs to,
+ * the lower-cased text for keyword scans, the normalised token stream (as ids into a per-resume vocabulary, with per-line offsets), the
+ * experience bullets and the years of experience. Stored on the {@link Resume} as a compressed
+ * binary blob of primitive arrays and reused by scoring and prompt building.
+ */
+public final class ResumeIndex {
+
+    private static final int FORMAT_VERSION = 2;
+
+    /** Line belongs to no editable section. */
+    public static final byte NO_SECTION = -1;
+    /** Added to a section ordinal to mark that section's heading line. */
+    public static final byte HEADING = 16;
+
+    private final String[] lines;
+    private final String normalizedText;
+    private final byte[] lineSections;
+    private final String[] vocabulary;
+    private final int[] tokens;
+    private final int[] lineTokenStarts;
+    private final int[] bullets;
+    private final int yearsOfExperience;
+
+    private volatile String text;
+    private volatile Map<String, Integer> termFrequencies;
+
+    public ResumeIndex(String[] lines, String normalizedText, byte[] lineSections, String[] vocabulary, int[] tokens,
+                       int[] lineTokenStarts, int[] bullets, int yearsOfExperience) {
+        this.lines = lines;
+        this.normalizedText = normalizedText;
+        this.lineSections = lineSections;
+        this.vocabulary = vocabulary;
+        this.tokens = tokens;
+        this.lineTokenStarts = lineTokenStarts;
+        this.bullets = bullets;
+        this.yearsOfExperience = yearsOfExperience;
+    }
+
+    /**
+     * The original text, line endings normalised to {@code \n}.
+     */
+    public String text() {
+        String t = text;
+        if (t == null) {
+            t = String.join("\n", lines);
+            text = t;
+        }
+        return t;
+    }
+
+    /**
+     * The text lower-cased with {@link java.util.Locale#ROOT} when the index was built, for keyword scans.
+     */
+    public String normalizedText() {
+        return normalizedText;
+    }
+
+    public int lineCount() {
+        return lines.length;
+    }
+
+    public String line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * Section ordinal of a content line, {@code HEADING + ordinal} for a heading line, or {@link #NO_SECTION}.
+     */
+    public byte lineSection(int index) {
+        return lineSections[index];
+    }
+
+    /**
+     * True when at least one editable section heading was recognised.
+     */
+    public boolean hasSections() {
+        for (byte s : lineSections) {
+            if (s >= HEADING) return true;
+        }
+        return false;
+    }
+
+    /**
+     * True when the heading of the given section occurs.
+     */
+    public boolean hasSection(int ordinal) {
+        for (byte s : lineSections) {
+            if (s == HEADING + ordinal) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indexes of the non-blank content lines of a section, in order.
+     */
+    public List<Integer> sectionLines(int ordinal) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            if (lineSections[i] == ordinal && !lines[i].isBlank()) result.add(i);
+        }
+        return result;
+    }
+
+    /**
+     * Distinct normalised terms on one line.
+     */
+    public Set<String> lineTerms(int index) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (int t = lineTokenStarts[index]; t < lineTokenStarts[index + 1]; t++) {
+            terms.add(vocabulary[tokens[t]]);
+        }
+        return terms;
+    }
+
+    /**
+     * Term frequencies over the whole resume.
+     */
+    public Map<String, Integer> termFrequencies() {
+        Map<String, Integer> tf = termFrequencies;
+        if (tf == null) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int token : tokens) counts.merge(vocabulary[token], 1, Integer::sum);
+            tf = Collections.unmodifiableMap(counts);
+            termFrequencies = tf;
+        }
+        return tf;
+    }
+
+    public int tokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * Line indexes of the experience bullets.
+     */
+    public int[] bullets() {
+        return bullets.clone();
+    }
+
+    public boolean isBullet(int lineIndex) {
+        for (int b : bullets) {
+            if (b == lineIndex) return true;
+        }
+        return false;
+    }
+
+    public int yearsOfExperience() {
+        return yearsOfExperience;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(yearsOfExperience);
+            writeStrings(out, lines);
+            writeString(out, normalizedText);
+            out.writeInt(lineSections.length);
+            out.write(lineSections);
+            writeStrings(out, vocabulary);
+            writeInts(out, tokens);
+            writeInts(out, lineTokenStarts);
+            writeInts(out, bullets);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a blob written by {@link #toBytes()}; returns null for blobs in another format version.
+     */
+    public static ResumeIndex fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != FORMAT_VERSION) return null;
+            int years = in.readInt();
+            String[] lines = readStrings(in);
+            String normalizedText = readString(in);
+            byte[] lineSections = new byte[in.readInt()];
+            in.readFully(lineSections);
+            String[] vocabulary = readStrings(in);
+            int[] tokens = readInts(in);
+            int[] lineTokenStarts = readInts(in);
+            int[] bullets = readInts(in);
+            return new ResumeIndex(lines, normalizedText, lineSections, vocabulary, tokens, lineTokenStarts, bullets, years);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Shared with TemplateMap, which uses the same blob layout
+
+    static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) writeString(out, value);
+    }
+
+    static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = readString(in);
+        return values;
+    }
+
+    /**
+     * Length-prefixed UTF-8 rather than writeUTF, which caps each string at 64 KB; length -1 for null.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+        return values;
+    }
+}
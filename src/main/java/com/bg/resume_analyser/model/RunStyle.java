@@ -0,0 +1,19 @@
+package com.bg.resume_analyser.model;
+
+import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+
+/**
+ * Character formatting of one DOCX run, as read from a template and applied to new runs.
+ * {@code fontSize} is NaN and {@code fontFamily}, {@code underline} and {@code color} are null when
+ * the run does not set them.
+ */
+public record RunStyle(String fontFamily, double fontSize, boolean bold, boolean italic,
+                       UnderlinePatterns underline, String color, boolean strike) {
+
+    public static RunStyle of(XWPFRun run) {
+        Double fontSize = run.getFontSizeAsDouble();
+        return new RunStyle(run.getFontFamily(), fontSize != null ? fontSize : Double.NaN, run.isBold(), run.isItalic(),
+                run.getUnderline(), run.getColor(), run.isStrikeThrough());
+    }
+}
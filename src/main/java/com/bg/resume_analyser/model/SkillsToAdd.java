@@ -0,0 +1,70 @@
+package com.bg.resume_analyser.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Skills to append to the 'Skills & Abilities' section, grouped by category in the order the model
+ * listed them. Serialises as a plain JSON object of category to skill list.
+ */
+public class SkillsToAdd {
+
+    private final Map<String, List<String>> categories = new LinkedHashMap<>();
+
+    public SkillsToAdd() {
+    }
+
+    @JsonCreator
+    public SkillsToAdd(Map<String, List<String>> categories) {
+        if (categories != null) {
+            categories.forEach(this::add);
+        }
+    }
+
+    /**
+     * Adds a category, dropping blank and duplicate skills. Returns the skills that were kept.
+     */
+    public List<String> add(String category, List<String> skills) {
+        if (category == null || category.isBlank() || skills == null) return List.of();
+        Set<String> cleaned = new LinkedHashSet<>();
+        for (String skill : skills) {
+            if (skill != null && !skill.isBlank()) cleaned.add(skill.trim());
+        }
+        if (cleaned.isEmpty()) return List.of();
+        List<String> merged = categories.computeIfAbsent(category.trim(), k -> new ArrayList<>());
+        List<String> added = new ArrayList<>();
+        for (String skill : cleaned) {
+            if (!merged.contains(skill)) {
+                merged.add(skill);
+                added.add(skill);
+            }
+        }
+        return added;
+    }
+
+    @JsonValue
+    public Map<String, List<String>> getCategories() {
+        return Collections.unmodifiableMap(categories);
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty();
+    }
+
+    public int size() {
+        return categories.size();
+    }
+
+    @Override
+    public String toString() {
+        return categories.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.bg.resume_analyser.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory state of one asynchronous tailoring run: its status, the progress
+ * events emitted so far and, once finished, the result or error message.
+ */
+public class TailoringJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final String id;
+    private final Long resumeId;
+    private final Instant createdAt = Instant.now();
+    private final List<Map<String, Object>> events = new ArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+
+    public TailoringJob(String id, Long resumeId) {
+        this.id = id;
+        this.resumeId = resumeId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getResumeId() {
+        return resumeId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+        if (status == Status.SUCCEEDED || status == Status.FAILED) {
+            this.finishedAt = Instant.now();
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Map<String, Object> getResult() {
+        return result;
+    }
+
+    public void setResult(Map<String, Object> result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Appends a progress event and returns it. Callers synchronize on the job
+     * so that event history and live subscribers stay consistent.
+     */
+    public Map<String, Object> addEvent(String stage, String message) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("seq", events.size());
+        event.put("stage", stage);
+        event.put("message", message);
+        event.put("timestamp", Instant.now().toString());
+        events.add(event);
+        return event;
+    }
+
+    public List<Map<String, Object>> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jobId", id);
+        summary.put("resumeId", resumeId);
+        summary.put("status", status.name());
+        summary.put("createdAt", createdAt.toString());
+        if (finishedAt != null) summary.put("finishedAt", finishedAt.toString());
+        if (result != null) summary.put("result", result);
+        if (error != null) summary.put("error", error);
+        return summary;
+    }
+}
@@ -0,0 +1,196 @@
+package com.bg.resume_analyser.model;
+
+import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Positions in a resume's DOCX template, compiled once when it is uploaded: the paragraph range of
+ * each recognised section, the bullet paragraphs, the skills heading, the paragraph of each skill
+ * category and a snapshot of the first and last run style of every paragraph. Edits look paragraphs
+ * up by index instead of scanning the document. Stored on the {@link Resume} as a compressed blob,
+ * with the SHA-256 of the template file it was compiled from so a replaced file is detected.
+ */
+public final class TemplateMap {
+
+    private static final int FORMAT_VERSION = 3;
+
+    /**
+     * A section heading and the paragraphs up to the next heading.
+     *
+     * @param name  canonical section name for editable sections, otherwise null
+     * @param start paragraph index of the heading
+     * @param end   paragraph index of the next heading, or the paragraph count (exclusive)
+     */
+    public record Section(String heading, String name, int start, int end) {
+    }
+
+    private final String sourceHash;
+    private final int paragraphCount;
+    private final List<Section> sections;
+    private final int[] bullets;
+    private final int skillsHeading;
+    private final String[] categories;
+    private final int[] categoryParagraphs;
+    private final RunStyle[] styles;
+    private final int[] firstRunStyles;
+    private final int[] lastRunStyles;
+
+    /**
+     * @param sourceHash     SHA-256 of the template file's bytes, or null when compiled from a document of unknown origin
+     * @param styles         distinct run styles; paragraphs refer to them by position
+     * @param firstRunStyles per paragraph, the index into {@code styles} of its first run, or -1 without runs
+     * @param lastRunStyles  per paragraph, the index into {@code styles} of its last run, or -1 without runs
+     */
+    public TemplateMap(String sourceHash, int paragraphCount, List<Section> sections, int[] bullets, int skillsHeading,
+                       String[] categories, int[] categoryParagraphs, RunStyle[] styles,
+                       int[] firstRunStyles, int[] lastRunStyles) {
+        this.sourceHash = sourceHash;
+        this.paragraphCount = paragraphCount;
+        this.sections = List.copyOf(sections);
+        this.bullets = bullets;
+        this.skillsHeading = skillsHeading;
+        this.categories = categories;
+        this.categoryParagraphs = categoryParagraphs;
+        this.styles = styles;
+        this.firstRunStyles = firstRunStyles;
+        this.lastRunStyles = lastRunStyles;
+    }
+
+    public String sourceHash() {
+        return sourceHash;
+    }
+
+    public int paragraphCount() {
+        return paragraphCount;
+    }
+
+    public List<Section> sections() {
+        return sections;
+    }
+
+    /**
+     * The first section whose canonical name or heading text equals the given name, ignoring case.
+     */
+    public Section section(String name) {
+        for (Section section : sections) {
+            if (name.equalsIgnoreCase(section.name()) || name.equalsIgnoreCase(section.heading())) return section;
+        }
+        return null;
+    }
+
+    public boolean isBullet(int paragraph) {
+        return Arrays.binarySearch(bullets, paragraph) >= 0;
+    }
+
+    public int[] bullets() {
+        return bullets.clone();
+    }
+
+    /**
+     * Paragraph index of the skills heading, or -1.
+     */
+    public int skillsHeading() {
+        return skillsHeading;
+    }
+
+    /**
+     * Paragraph index of the skill category line starting with {@code category + ":"}, or -1.
+     */
+    public int categoryParagraph(String category) {
+        for (int i = 0; i < categories.length; i++) {
+            if (categories[i].equalsIgnoreCase(category.trim())) return categoryParagraphs[i];
+        }
+        return -1;
+    }
+
+    public RunStyle firstRunStyle(int paragraph) {
+        return style(firstRunStyles, paragraph);
+    }
+
+    public RunStyle lastRunStyle(int paragraph) {
+        return style(lastRunStyles, paragraph);
+    }
+
+    private RunStyle style(int[] refs, int paragraph) {
+        if (paragraph < 0 || paragraph >= refs.length || refs[paragraph] < 0) return null;
+        return styles[refs[paragraph]];
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(FORMAT_VERSION);
+            ResumeIndex.writeString(out, sourceHash);
+            out.writeInt(paragraphCount);
+            out.writeInt(sections.size());
+            for (Section section : sections) {
+                ResumeIndex.writeString(out, section.heading());
+                ResumeIndex.writeString(out, section.name());
+                out.writeInt(section.start());
+                out.writeInt(section.end());
+            }
+            ResumeIndex.writeInts(out, bullets);
+            out.writeInt(skillsHeading);
+            ResumeIndex.writeStrings(out, categories);
+            ResumeIndex.writeInts(out, categoryParagraphs);
+            out.writeInt(styles.length);
+            for (RunStyle style : styles) {
+                ResumeIndex.writeString(out, style.fontFamily());
+                out.writeDouble(style.fontSize());
+                out.writeBoolean(style.bold());
+                out.writeBoolean(style.italic());
+                ResumeIndex.writeString(out, style.underline() != null ? style.underline().name() : null);
+                ResumeIndex.writeString(out, style.color());
+                out.writeBoolean(style.strike());
+            }
+            ResumeIndex.writeInts(out, firstRunStyles);
+            ResumeIndex.writeInts(out, lastRunStyles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a blob written by {@link #toBytes()}; returns null for blobs in another format version.
+     */
+    public static TemplateMap fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != FORMAT_VERSION) return null;
+            String sourceHash = ResumeIndex.readString(in);
+            int paragraphCount = in.readInt();
+            Section[] sections = new Section[in.readInt()];
+            for (int i = 0; i < sections.length; i++) {
+                sections[i] = new Section(ResumeIndex.readString(in), ResumeIndex.readString(in), in.readInt(), in.readInt());
+            }
+            int[] bullets = ResumeIndex.readInts(in);
+            int skillsHeading = in.readInt();
+            String[] categories = ResumeIndex.readStrings(in);
+            int[] categoryParagraphs = ResumeIndex.readInts(in);
+            RunStyle[] styles = new RunStyle[in.readInt()];
+            for (int i = 0; i < styles.length; i++) {
+                String fontFamily = ResumeIndex.readString(in);
+                double fontSize = in.readDouble();
+                boolean bold = in.readBoolean();
+                boolean italic = in.readBoolean();
+                String underline = ResumeIndex.readString(in);
+                styles[i] = new RunStyle(fontFamily, fontSize, bold, italic,
+                        underline != null ? UnderlinePatterns.valueOf(underline) : null, ResumeIndex.readString(in), in.readBoolean());
+            }
+            return new TemplateMap(sourceHash, paragraphCount, Arrays.asList(sections), bullets, skillsHeading, categories,
+                    categoryParagraphs, styles, ResumeIndex.readInts(in), ResumeIndex.readInts(in));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bg.resume_analyser.model.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RankRequest {
+    private String jobDescription;
+    private String vacancyUrl;
+    private Integer topK;
+    private String jobPosition;
+    private Integer yearsRequired;
+    private List<String> requiredTechnicalSkills;
+    private List<String> requiredSoftSkills;
+    private List<String> mainFunctions;
+}
@@ -0,0 +1,20 @@
+package com.bg.resume_analyser.repository;
+
+import com.bg.resume_analyser.model.JobPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobPostingRepository extends JpaRepository<JobPosting, Long> {
+
+    Optional<JobPosting> findByContentHash(String contentHash);
+
+    Optional<JobPosting> findFirstByVacancyUrlOrderByIdDesc(String vacancyUrl);
+
+    @Query("select p.id from JobPosting p")
+    List<Long> findAllIds();
+}
@@ -2,8 +2,14 @@ package com.bg.resume_analyser.repository;
 
 import com.bg.resume_analyser.model.Resume;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ResumeRepository extends JpaRepository<Resume, Long> {
+
+    @Query("select r.id from Resume r")
+    List<Long> findAllIds();
 }
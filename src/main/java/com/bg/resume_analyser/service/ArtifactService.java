@@ -0,0 +1,145 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Finds the files tailoring wrote for a resume: one {@code <name>_<id>_tailored.docx} and its
+ * {@code metadata.txt} per application folder in the JA folder. Serves strong ETags from a
+ * SHA-256 of each file's content, recomputed only when the file's modification time or size
+ * changes, and streams all artifacts of a resume as one ZIP.
+ */
+@Service
+public class ArtifactService {
+
+    static final String METADATA = "metadata.txt";
+    private static final int MAX_ETAGS = 4096;
+
+    private final Path baseFolder;
+    private final Map<Path, Tag> etags = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Tag> eldest) {
+            return size() > MAX_ETAGS;
+        }
+    };
+
+    private record Tag(FileTime modified, long size, String etag) {
+    }
+
+    public ArtifactService(@Value("${storage.base-folder:${user.home}/Documents/JA}") String baseFolder) {
+        this.baseFolder = Paths.get(baseFolder).toAbsolutePath().normalize();
+    }
+
+    /**
+     * The resume's tailored documents, most recently written first.
+     */
+    public List<Path> tailoredDocuments(Resume resume) throws IOException {
+        if (resume.getId() == null || resume.getFilename() == null || !Files.isDirectory(baseFolder)) return List.of();
+        String tailoredFilename = DocxService.tailoredFilename(resume);
+        List<Path> documents = new ArrayList<>();
+        try (Stream<Path> folders = Files.list(baseFolder)) {
+            for (Path folder : folders.filter(Files::isDirectory).toList()) {
+                Path document = folder.resolve(tailoredFilename);
+                if (Files.isRegularFile(document)) documents.add(document);
+            }
+        }
+        documents.sort(Comparator.comparing(ArtifactService::lastModified).reversed());
+        return documents;
+    }
+
+    /**
+     * The document of the last tailoring saved on the resume, otherwise the most recent one found.
+     */
+    public Optional<Path> latestTailoredDocument(Resume resume) throws IOException {
+        if (resume.getTailoredPath() != null) {
+            Path saved = Paths.get(resume.getTailoredPath()).toAbsolutePath().normalize();
+            if (saved.startsWith(baseFolder) && Files.isRegularFile(saved)) return Optional.of(saved);
+        }
+        return tailoredDocuments(resume).stream().findFirst();
+    }
+
+    /**
+     * The tailored document in one application folder. The folder name is only compared against
+     * the folders found, never resolved as a path.
+     */
+    public Optional<Path> tailoredDocument(Resume resume, String folder) throws IOException {
+        return tailoredDocuments(resume).stream()
+                .filter(document -> document.getParent().getFileName().toString().equals(folder))
+                .findFirst();
+    }
+
+    /**
+     * A strong ETag, quoted, from the SHA-256 of the file's content.
+     */
+    public String etag(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Tag tag;
+        synchronized (etags) {
+            tag = etags.get(file);
+        }
+        if (tag != null && tag.modified().equals(attributes.lastModifiedTime()) && tag.size() == attributes.size()) {
+            return tag.etag();
+        }
+        String etag = "\"" + ContentHash.sha256(file) + "\"";
+        synchronized (etags) {
+            etags.put(file, new Tag(attributes.lastModifiedTime(), attributes.size(), etag));
+        }
+        return etag;
+    }
+
+    /**
+     * Writes every tailored document of the resume, with its folder's metadata, as
+     * {@code <folder>/<file>} entries. Files are copied in chunks straight into the ZIP; DOCX
+     * files are already compressed, so they are stored without compressing them again.
+     */
+    public void writeZip(Resume resume, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (Path document : tailoredDocuments(resume)) {
+            String folder = document.getParent().getFileName().toString();
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            addEntry(zip, folder + "/" + document.getFileName(), document);
+            Path metadata = document.resolveSibling(METADATA);
+            if (Files.isRegularFile(metadata)) {
+                zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+                addEntry(zip, folder + "/" + METADATA, metadata);
+            }
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, Path file) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setLastModifiedTime(lastModified(file));
+        zip.putNextEntry(entry);
+        Files.copy(file, zip);
+        zip.closeEntry();
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
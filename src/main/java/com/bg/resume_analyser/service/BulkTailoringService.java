@@ -0,0 +1,167 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.request.TailorRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tailors one resume against many vacancies at once. Each vacancy runs its own
+ * fetch, edit plan and DOCX stages on a shared pool, with a semaphore capping how
+ * many LLM calls are in flight. Results are streamed back as NDJSON, one line per
+ * vacancy in completion order, followed by a summary line.
+ */
+@Service
+public class BulkTailoringService {
+
+    public static final MediaType APPLICATION_NDJSON_UTF8 = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+
+    private final TailoringService tailoringService;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore llmPermits;
+    private final int maxVacancies;
+    private final long emitterTimeoutMs;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BulkTailoringService(TailoringService tailoringService,
+                                @Value("${tailoring.bulk.threads:16}") int threads,
+                                @Value("${tailoring.bulk.queue-capacity:500}") int queueCapacity,
+                                @Value("${tailoring.bulk.max-parallel-llm-calls:8}") int maxParallelLlmCalls,
+                                @Value("${tailoring.bulk.max-vacancies:100}") int maxVacancies,
+                                @Value("${tailoring.bulk.timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.tailoringService = tailoringService;
+        this.llmPermits = new Semaphore(maxParallelLlmCalls, true);
+        this.maxVacancies = maxVacancies;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bulk-tailoring-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public int getMaxVacancies() {
+        return maxVacancies;
+    }
+
+    /**
+     * Starts tailoring every request concurrently and returns the emitter that streams the results.
+     */
+    public ResponseBodyEmitter tailorAll(Resume resume, List<TailorRequest> tailorRequests) {
+        ResponseBodyEmitter emitter = createEmitter();
+        long startedAt = System.currentTimeMillis();
+        AtomicInteger succeeded = new AtomicInteger();
+        System.out.println("[BulkTailoringService] Tailoring resume " + resume.getId() + " against " + tailorRequests.size() + " vacancies.");
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < tailorRequests.size(); i++) {
+            int index = i;
+            TailorRequest tailorRequest = tailorRequests.get(i);
+            CompletableFuture<Void> future;
+            try {
+                future = CompletableFuture
+                        .supplyAsync(() -> tailorOne(resume, tailorRequest, index), executor)
+                        .thenAccept(line -> {
+                            if ("SUCCEEDED".equals(line.get("status"))) succeeded.incrementAndGet();
+                            send(emitter, line);
+                        });
+            } catch (RejectedExecutionException e) {
+                send(emitter, failureLine(index, tailorRequest, "Bulk tailoring queue is full, please retry later.", 0));
+                future = CompletableFuture.completedFuture(null);
+            }
+            futures.add(future);
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("summary", true);
+            summary.put("total", tailorRequests.size());
+            summary.put("succeeded", succeeded.get());
+            summary.put("failed", tailorRequests.size() - succeeded.get());
+            summary.put("elapsedMs", System.currentTimeMillis() - startedAt);
+            send(emitter, summary);
+            emitter.complete();
+            System.out.println("\u001B[1m[SUCCESS]\u001B[0m Bulk tailoring finished: " + succeeded.get() + "/" + tailorRequests.size() + " succeeded.");
+        });
+        return emitter;
+    }
+
+    ResponseBodyEmitter createEmitter() {
+        return new ResponseBodyEmitter(emitterTimeoutMs);
+    }
+
+    private Map<String, Object> tailorOne(Resume resume, TailorRequest tailorRequest, int index) {
+        long startedAt = System.currentTimeMillis();
+        String label = "[BulkTailoringService] #" + index + " ";
+        try {
+            String jobText = tailoringService.resolveJobText(tailorRequest, message -> System.out.println(label + message));
+
+            Map<String, Object> result = tailoringService.generateAndApplyEditPlan(resume, jobText, tailorRequest.getVacancyUrl(),
+                    message -> System.out.println(label + message), llmPermits);
+
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("index", index);
+            line.put("vacancyUrl", tailorRequest.getVacancyUrl());
+            line.put("status", "SUCCEEDED");
+            line.putAll(result);
+            line.put("elapsedMs", System.currentTimeMillis() - startedAt);
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failureLine(index, tailorRequest, "Interrupted while waiting for an LLM slot.", System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            System.err.println("[FAIL] " + label + "tailoring failed: " + e.getMessage());
+            return failureLine(index, tailorRequest, e.getMessage(), System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    private Map<String, Object> failureLine(int index, TailorRequest tailorRequest, String error, long elapsedMs) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("index", index);
+        line.put("vacancyUrl", tailorRequest != null ? tailorRequest.getVacancyUrl() : null);
+        line.put("status", "FAILED");
+        line.put("error", error != null ? error : "Unknown error");
+        line.put("elapsedMs", elapsedMs);
+        return line;
+    }
+
+    private void send(ResponseBodyEmitter emitter, Map<String, Object> line) {
+        try {
+            // One pre-serialized send per line keeps lines intact when vacancies finish concurrently
+            emitter.send(objectMapper.writeValueAsString(line) + "\n", APPLICATION_NDJSON_UTF8);
+        } catch (JsonProcessingException e) {
+            System.err.println("[BulkTailoringService] Could not serialize result line: " + e.getMessage());
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; remaining vacancies still finish and write their files
+            System.err.println("[BulkTailoringService] Could not stream result line: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
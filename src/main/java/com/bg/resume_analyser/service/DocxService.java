@@ -1,59 +1,73 @@
 package com.bg.resume_analyser.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.EditPlan;
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.RunStyle;
+import com.bg.resume_analyser.model.TemplateMap;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.poi.ooxml.POIXMLTypeLoader;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTDocument1;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.FileOutputStream;
+import javax.xml.namespace.QName;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class DocxService {
 
+    // A skill category line such as "Languages: Java, Kotlin", optionally after a bullet character
+    private static final Pattern SKILL_CATEGORY = Pattern.compile("^[\\s•*-]*([^:]{1,60}):");
+
+    private final TemplateCache templateCache;
+    private final boolean zipPatching;
+    // The package bytes each open template was parsed from, for ZIP-level patching on write
+    private final Map<XWPFDocument, byte[]> templateSources = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public DocxService(TemplateCache templateCache,
+                       @Value("${docx.zip-patching.enabled:true}") boolean zipPatching) {
+        this.templateCache = templateCache;
+        this.zipPatching = zipPatching;
+    }
+
     /**
      * Extracts all formatting and content elements from the original DOCX file.
      * Returns a structured representation of the document for use as a template.
      * This includes contact info, headings, sections, lines, bullets, font, alignment, spacing, etc.
      *
      * @param originalDocxBytes The original DOCX file as bytes
-     * @return A structured representation of the document (list of paragraphs with formatting)
+     * @return A structured representation of the document (paragraphs and runs with shared, typed styles)
      */
-    public List<java.util.Map<String, Object>> extractDocxStructure(byte[] originalDocxBytes) {
-        List<java.util.Map<String, Object>> docStructure = new java.util.ArrayList<>();
+    public DocxStructure extractDocxStructure(byte[] originalDocxBytes) {
         try (XWPFDocument doc = new XWPFDocument(new java.io.ByteArrayInputStream(originalDocxBytes))) {
-            for (XWPFParagraph para : doc.getParagraphs()) {
-                java.util.Map<String, Object> paraInfo = new java.util.HashMap<>();
-                paraInfo.put("text", para.getText());
-                paraInfo.put("style", para.getStyle());
-                paraInfo.put("alignment", para.getAlignment());
-                paraInfo.put("spacingBefore", para.getSpacingBefore());
-                paraInfo.put("spacingAfter", para.getSpacingAfter());
-                List<java.util.Map<String, Object>> runsInfo = new java.util.ArrayList<>();
-                for (XWPFRun run : para.getRuns()) {
-                    java.util.Map<String, Object> runInfo = new java.util.HashMap<>();
-                    runInfo.put("text", run.text());
-                    runInfo.put("fontFamily", run.getFontFamily());
-                    runInfo.put("bold", run.isBold());
-                    runInfo.put("italic", run.isItalic());
-                    runInfo.put("underline", run.getUnderline());
-                    runInfo.put("color", run.getColor());
-                    runsInfo.add(runInfo);
-                }
-                paraInfo.put("runs", runsInfo);
-                docStructure.add(paraInfo);
-            }
+            return DocxStructure.extract(doc);
         } catch (Exception e) {
             throw new RuntimeException("Failed to extract DOCX structure", e);
         }
-        return docStructure;
     }
 
     /**
@@ -126,64 +140,286 @@ public class DocxService {
         throw new UnsupportedOperationException("generateDocxFromMarkdown is not implemented. Restore implementation.");
     }
 
-    public Path updateDocx(String originalFilename, JsonNode editPlan, JsonNode skillsToAdd, Path appFolder) throws IOException {
+    /**
+     * @param editMatches receives one entry per edit action with the paragraph it matched and the score
+     */
+    public Path updateDocx(Resume resume, EditPlan plan, Path appFolder, List<Map<String, Object>> editMatches) throws IOException {
+        String originalFilename = resume.getFilename();
         System.out.println("[DocxService] Starting surgical update of " + originalFilename);
-        Path templatePath = Paths.get(System.getProperty("user.home"), "Documents", "JA", originalFilename);
-        if (!Files.exists(templatePath)) {
-            throw new IOException("Template file not found at: " + templatePath);
+        try (XWPFDocument doc = openTemplate(originalFilename)) {
+            TemplateMap template = templateMap(resume, doc);
+            System.out.println("[DocxService] Applying EDIT PLAN: " + plan.getEditActions().size() + " actions.");
+            applyEditActions(doc, indexParagraphs(doc), template, plan.getEditActions(), editMatches);
+
+            if (!plan.getSkillsToAdd().isEmpty()) {
+                System.out.println("[DocxService] Applying ADD SKILLS: " + plan.getSkillsToAdd().size() + " categories.");
+                plan.getSkillsToAdd().getCategories().forEach((category, skills) -> addSkillsCategory(doc, template, category, skills));
+            }
+
+            return writeTailored(doc, resume, appFolder);
         }
+    }
 
-        try (XWPFDocument doc = new XWPFDocument(Files.newInputStream(templatePath))) {
-            if (editPlan != null && editPlan.isArray()) {
-                System.out.println("[DocxService] Applying EDIT PLAN: " + editPlan.size() + " actions.");
-                for (JsonNode action : editPlan) {
-                    replaceTextInDocFuzzy(doc, action.get("original_text").asText(), action.get("new_text").asText());
-                }
+    /**
+     * Compiles the template map of the resume's uploaded DOCX and stores it on the entity; the caller saves it.
+     */
+    public TemplateMap compileTemplate(Resume resume) throws IOException {
+        try (XWPFDocument doc = openTemplate(resume.getFilename())) {
+            TemplateMap template = compileTemplate(doc);
+            resume.setTemplateData(template.toBytes());
+            return template;
+        }
+    }
+
+    /**
+     * The resume's stored template map when it was compiled from the same template bytes {@code doc} was
+     * opened from, otherwise one compiled from {@code doc}. A recompiled map is not stored: tailoring never
+     * modifies the resume entity.
+     */
+    public TemplateMap templateMap(Resume resume, XWPFDocument doc) {
+        String sourceHash = sourceHash(doc);
+        if (resume.getTemplateData() != null) {
+            TemplateMap stored = TemplateMap.fromBytes(resume.getTemplateData());
+            if (stored != null && sourceHash != null && sourceHash.equals(stored.sourceHash())) return stored;
+            System.out.println("[DocxService] Stored template map of " + resume.getFilename() + " is stale; recompiling.");
+        }
+        return compileTemplate(doc, sourceHash);
+    }
+
+    /**
+     * One pass over the paragraphs: section ranges, bullets, the skills heading, skill category
+     * anchors and the style of each paragraph's first and last run.
+     */
+    public TemplateMap compileTemplate(XWPFDocument doc) {
+        return compileTemplate(doc, sourceHash(doc));
+    }
+
+    private TemplateMap compileTemplate(XWPFDocument doc, String sourceHash) {
+        List<XWPFParagraph> paragraphs = doc.getParagraphs();
+        int count = paragraphs.size();
+        List<TemplateMap.Section> sections = new ArrayList<>();
+        List<Integer> bullets = new ArrayList<>();
+        Map<RunStyle, Integer> styleIds = new LinkedHashMap<>();
+        int[] firstRunStyles = new int[count];
+        int[] lastRunStyles = new int[count];
+        int skillsHeading = -1;
+
+        String heading = null;
+        String section = null;
+        int start = -1;
+        for (int i = 0; i < count; i++) {
+            XWPFParagraph paragraph = paragraphs.get(i);
+            String text = paragraph.getText();
+            if (ResumeIndexService.isHeading(text)) {
+                if (heading != null) sections.add(new TemplateMap.Section(heading, section, start, i));
+                heading = text.trim();
+                section = ResumeIndexService.sectionForHeading(text);
+                start = i;
+            } else if (paragraph.getNumID() != null || (EditPlanPromptBuilder.EXPERIENCE.equals(section)
+                    && !text.isBlank() && ExperienceBulletRanker.isBullet(text))) {
+                bullets.add(i);
             }
+            if (skillsHeading < 0 && text.contains(EditPlanPromptBuilder.SKILLS)) skillsHeading = i;
 
-            if (skillsToAdd != null && skillsToAdd.isObject()) {
-                System.out.println("[DocxService] Applying ADD SKILLS: " + skillsToAdd.toString());
-                addSkills(doc, skillsToAdd);
+            List<XWPFRun> runs = paragraph.getRuns();
+            firstRunStyles[i] = runs.isEmpty() ? -1 : styleId(styleIds, RunStyle.of(runs.get(0)));
+            lastRunStyles[i] = runs.isEmpty() ? -1 : styleId(styleIds, RunStyle.of(runs.get(runs.size() - 1)));
+        }
+        if (heading != null) sections.add(new TemplateMap.Section(heading, section, start, count));
+
+        // Category lines are looked for in the skills section, or anywhere when it has no recognised heading
+        int from = 0;
+        int to = count;
+        for (TemplateMap.Section s : sections) {
+            if (EditPlanPromptBuilder.SKILLS.equals(s.name())) {
+                from = s.start() + 1;
+                to = s.end();
+                break;
             }
+        }
+        List<String> categories = new ArrayList<>();
+        List<Integer> categoryParagraphs = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Matcher matcher = SKILL_CATEGORY.matcher(paragraphs.get(i).getText());
+            if (!matcher.find()) continue;
+            String category = matcher.group(1).trim();
+            if (category.isEmpty() || categories.stream().anyMatch(category::equalsIgnoreCase)) continue;
+            categories.add(category);
+            categoryParagraphs.add(i);
+        }
 
-            String tailoredFilename = originalFilename.replace(".docx", "_tailored.docx");
-            Path outputPath = appFolder.resolve(tailoredFilename);
-            try (FileOutputStream out = new FileOutputStream(outputPath.toFile())) {
-                doc.write(out);
+        return new TemplateMap(sourceHash, count, sections, bullets.stream().mapToInt(Integer::intValue).toArray(), skillsHeading,
+                categories.toArray(new String[0]), categoryParagraphs.stream().mapToInt(Integer::intValue).toArray(),
+                styleIds.keySet().toArray(new RunStyle[0]), firstRunStyles, lastRunStyles);
+    }
+
+    /**
+     * SHA-256 of the template bytes the document was opened from, or null when it was not opened by
+     * {@link #openTemplate}.
+     */
+    private String sourceHash(XWPFDocument doc) {
+        byte[] source = templateSources.get(doc);
+        return source != null ? ContentHash.sha256(source) : null;
+    }
+
+    private static int styleId(Map<RunStyle, Integer> styleIds, RunStyle style) {
+        Integer id = styleIds.get(style);
+        if (id == null) {
+            id = styleIds.size();
+            styleIds.put(style, id);
+        }
+        return id;
+    }
+
+    /**
+     * Opens the uploaded template from the JA folder, reading the file through the template cache.
+     * Each call returns a separately parsed document. Used directly when edits are applied
+     * one by one as they stream in, followed by {@link #writeTailored}.
+     */
+    public XWPFDocument openTemplate(String originalFilename) throws IOException {
+        return openTemplate(templatePath(originalFilename));
+    }
+
+    XWPFDocument openTemplate(Path templatePath) throws IOException {
+        if (!Files.exists(templatePath)) {
+            throw new IOException("Template file not found at: " + templatePath);
+        }
+        byte[] bytes = templateCache.read(templatePath);
+        XWPFDocument doc = new XWPFDocument(new ByteArrayInputStream(bytes));
+        templateSources.put(doc, bytes);
+        return doc;
+    }
+
+    /**
+     * The upload's name with the resume id and {@code _tailored}, so resumes uploaded under the same
+     * name never write or serve each other's tailored documents.
+     */
+    public static String tailoredFilename(Resume resume) {
+        return resume.getFilename().replace(".docx", "_" + resume.getId() + "_tailored.docx");
+    }
+
+    public static Path templatePath(String originalFilename) {
+        return Paths.get(System.getProperty("user.home"), "Documents", "JA", originalFilename);
+    }
+
+    /**
+     * Indexes the document's paragraphs for edit matching. Build once per document and pass the
+     * same index to every edit applied to it.
+     */
+    public ParagraphIndex indexParagraphs(XWPFDocument doc) {
+        List<String> texts = new ArrayList<>();
+        for (XWPFParagraph p : doc.getParagraphs()) texts.add(p.getText());
+        return new ParagraphIndex(texts);
+    }
+
+    /**
+     * Applies one edit as it arrives, to the best paragraph not already edited.
+     */
+    public Map<String, Object> applyEditAction(XWPFDocument doc, ParagraphIndex index, TemplateMap template, EditAction action) {
+        if (action == null || action.validate() != null) {
+            System.err.println("[DocxService] Skipping malformed edit action: " + action);
+            return matchReport(action, null);
+        }
+        ParagraphIndex.Match match = index.match(action.getOriginalText());
+        replaceParagraphText(doc, template, match, action.getOriginalText(), action.getNewText());
+        return matchReport(action, match);
+    }
+
+    /**
+     * Applies a whole plan with one-to-one assignment of edits to paragraphs, best scores first.
+     */
+    public void applyEditActions(XWPFDocument doc, ParagraphIndex index, TemplateMap template, List<EditAction> actions,
+                                 List<Map<String, Object>> editMatches) {
+        List<EditAction> valid = new ArrayList<>();
+        for (EditAction action : actions) {
+            if (action == null || action.validate() != null) {
+                System.err.println("[DocxService] Skipping malformed edit action: " + action);
+                editMatches.add(matchReport(action, null));
+            } else {
+                valid.add(action);
             }
-            System.out.println("[DocxService] Surgical update complete. File saved to: " + outputPath);
-            return outputPath;
+        }
+        List<ParagraphIndex.Match> matches = index.assign(valid.stream().map(EditAction::getOriginalText).toList());
+        for (int i = 0; i < valid.size(); i++) {
+            replaceParagraphText(doc, template, matches.get(i), valid.get(i).getOriginalText(), valid.get(i).getNewText());
+            editMatches.add(matchReport(valid.get(i), matches.get(i)));
         }
     }
 
-    private void replaceTextInDocFuzzy(XWPFDocument doc, String originalText, String newText) {
-        double bestScore = 0.0;
-        XWPFParagraph bestMatchParagraph = null;
+    private static Map<String, Object> matchReport(EditAction action, ParagraphIndex.Match match) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("section", action != null ? action.getSection() : null);
+        report.put("applied", match != null && match.found());
+        report.put("paragraph", match != null && match.found() ? match.paragraph() : null);
+        report.put("score", match != null ? Math.round(match.score() * 1000) / 1000.0 : null);
+        return report;
+    }
 
-        // First, find the paragraph with the highest similarity score
-        for (XWPFParagraph p : doc.getParagraphs()) {
-            String paragraphText = p.getText().trim().replaceAll("\\s+", " ");
-            String cleanOriginalText = originalText.trim().replaceAll("\\s+", " ");
-            double score = new JaroWinklerSimilarity().apply(paragraphText, cleanOriginalText);
+    public Path writeTailored(XWPFDocument doc, Resume resume, Path appFolder) throws IOException {
+        Path outputPath = appFolder.resolve(tailoredFilename(resume));
+        byte[] template = templateSources.get(doc);
+        boolean patched = false;
+        if (zipPatching && template != null) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputPath))) {
+                writePatched(doc, template, out);
+                patched = true;
+            } catch (IOException e) {
+                System.err.println("[DocxService] ZIP-level patching failed, writing the full package: " + e.getMessage());
+            }
+        }
+        if (!patched) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputPath))) {
+                doc.write(out);
+            }
+        }
+        System.out.println("[DocxService] Surgical update complete. File saved to: " + outputPath);
+        return outputPath;
+    }
 
-            if (score > bestScore) {
-                bestScore = score;
-                bestMatchParagraph = p;
+    /**
+     * Writes the template package with only the main document part replaced by {@code doc}'s body.
+     * Every other entry (styles, numbering, themes, images, fonts) is copied as stored, without
+     * inflating or deflating it. Edits only change runs in the body, so no other part differs.
+     *
+     * @param template the package bytes {@code doc} was parsed from
+     */
+    public void writePatched(XWPFDocument doc, byte[] template, OutputStream out) throws IOException {
+        String documentPart = doc.getPackagePart().getPartName().getName().substring(1);
+        try (ZipFile zip = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(template)).get();
+             ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(out)) {
+            if (zip.getEntry(documentPart) == null) {
+                throw new IOException("Template has no entry " + documentPart);
+            }
+            Enumeration<ZipArchiveEntry> entries = zip.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                if (!entry.getName().equals(documentPart)) {
+                    zipOut.addRawArchiveEntry(entry, zip.getRawInputStream(entry));
+                    continue;
+                }
+                ZipArchiveEntry patched = new ZipArchiveEntry(documentPart);
+                patched.setMethod(ZipArchiveEntry.DEFLATED);
+                zipOut.putArchiveEntry(patched);
+                // Same options XWPFDocument uses when it commits the document part
+                XmlOptions options = new XmlOptions(POIXMLTypeLoader.DEFAULT_XML_OPTIONS);
+                options.setSaveSyntheticDocumentElement(new QName(CTDocument1.type.getName().getNamespaceURI(), "document"));
+                doc.getDocument().save(zipOut, options);
+                zipOut.closeArchiveEntry();
             }
         }
+    }
+
+    private void replaceParagraphText(XWPFDocument doc, TemplateMap template, ParagraphIndex.Match match, String originalText, String newText) {
+        double bestScore = match.score();
+        // The index was built from doc.getParagraphs(); edits only replace runs, so positions are stable
+        XWPFParagraph bestMatchParagraph = match.found() ? doc.getParagraphs().get(match.paragraph()) : null;
 
         // If we found a sufficiently good match, replace the text
-        if (bestMatchParagraph != null && bestScore > 0.95) { // 95% similarity threshold
+        if (bestMatchParagraph != null) {
             System.out.println("[DocxService] Found best match for replacement with score " + bestScore + ": '" + bestMatchParagraph.getText().substring(0, Math.min(50, bestMatchParagraph.getText().length())) + "...'");
 
-            // Preserve the style of the first run
-            String fontFamily = !bestMatchParagraph.getRuns().isEmpty() ? bestMatchParagraph.getRuns().get(0).getFontFamily() : "Calibri";
-            Double fontSize = null;
-            if (!bestMatchParagraph.getRuns().isEmpty()) {
-                fontSize = bestMatchParagraph.getRuns().get(0).getFontSizeAsDouble();
-            }
-            String color = !bestMatchParagraph.getRuns().isEmpty() ? bestMatchParagraph.getRuns().get(0).getColor() : "000000";
-            boolean isBold = !bestMatchParagraph.getRuns().isEmpty() && bestMatchParagraph.getRuns().get(0).isBold();
+            // Preserve the style of the template's first run
+            RunStyle style = template.firstRunStyle(match.paragraph());
 
             // Clear existing runs in the paragraph
             while (!bestMatchParagraph.getRuns().isEmpty()) {
@@ -193,12 +429,12 @@ public class DocxService {
             // Create a new run with the new text and preserved style
             XWPFRun newRun = bestMatchParagraph.createRun();
             newRun.setText(newText);
-            newRun.setFontFamily(fontFamily);
-            if (fontSize != null && fontSize > 0) {
-                newRun.setFontSize(fontSize);
+            if (style != null) {
+                DocxStyleUtil.applyRunStyles(newRun, style);
+            } else {
+                newRun.setFontFamily("Calibri");
+                newRun.setColor("000000");
             }
-            newRun.setColor(color);
-            newRun.setBold(isBold);
 
             System.out.println("[DocxService] Successfully replaced text.");
         } else {
@@ -206,51 +442,53 @@ public class DocxService {
         }
     }
 
-    private void addSkills(XWPFDocument doc, JsonNode skillsToAdd) {
-        XWPFParagraph skillsParagraph = findParagraphContaining(doc, "Skills & Abilities");
-        if (skillsParagraph == null) {
+    public void addSkillsCategory(XWPFDocument doc, TemplateMap template, String category, List<String> skills) {
+        if (skills == null || skills.isEmpty()) {
+            return;
+        }
+        if (template.skillsHeading() < 0) {
             System.err.println("[DocxService] Could not find 'Skills & Abilities' section to add skills.");
             return;
         }
 
-        Iterator<String> categoryIterator = skillsToAdd.fieldNames();
-        while (categoryIterator.hasNext()) {
-            String category = categoryIterator.next();
-            JsonNode skills = skillsToAdd.get(category);
-
-            if (skills.isArray() && !skills.isEmpty()) {
-                XWPFParagraph targetParagraph = findParagraphContaining(doc, category + ":");
-                if (targetParagraph == null) {
-                    System.err.println("[DocxService] Could not find category paragraph: '" + category + ":'");
-                    continue;
-                }
+        int target = categoryParagraph(doc, template, category);
+        if (target < 0) {
+            System.err.println("[DocxService] Could not find category paragraph: '" + category + ":'");
+            return;
+        }
+        XWPFParagraph targetParagraph = doc.getParagraphs().get(target);
+        // New runs take the style the category line's last run had in the template
+        RunStyle style = template.lastRunStyle(target);
 
-                for (JsonNode skillNode : skills) {
-                    String skillText = skillNode.asText();
-                    if (!targetParagraph.getText().contains(skillText)) {
-                        // Create a new run for the comma and space to avoid hyperlink issues
-                        XWPFRun separatorRun = targetParagraph.createRun();
-                        separatorRun.setText(", ");
-                        // Copy style from the last run in the paragraph
-                        if (!targetParagraph.getRuns().isEmpty()) {
-                            XWPFRun lastRun = targetParagraph.getRuns().get(targetParagraph.getRuns().size() - 2); // -2 because we just added one
-                            copyRunStyle(lastRun, separatorRun);
-                        }
+        for (String skillText : skills) {
+            if (!targetParagraph.getText().contains(skillText)) {
+                // Create a new run for the comma and space to avoid hyperlink issues
+                XWPFRun separatorRun = targetParagraph.createRun();
+                separatorRun.setText(", ");
+                DocxStyleUtil.applyRunStyles(separatorRun, style);
 
-                        // Create a new run for the skill itself
-                        XWPFRun skillRun = targetParagraph.createRun();
-                        skillRun.setText(skillText);
-                        // Copy style from the last run
-                        if (!targetParagraph.getRuns().isEmpty()) {
-                            XWPFRun lastRun = targetParagraph.getRuns().get(targetParagraph.getRuns().size() - 2);
-                            copyRunStyle(lastRun, skillRun);
-                        }
-                    }
-                }
+                // Create a new run for the skill itself
+                XWPFRun skillRun = targetParagraph.createRun();
+                skillRun.setText(skillText);
+                DocxStyleUtil.applyRunStyles(skillRun, style);
             }
         }
     }
 
+    /**
+     * The category's anchor from the template map, checked against the paragraph text; falls back to a
+     * scan for lines the map did not record, e.g. a category not at the start of its line.
+     */
+    private int categoryParagraph(XWPFDocument doc, TemplateMap template, String category) {
+        List<XWPFParagraph> paragraphs = doc.getParagraphs();
+        int anchor = template.categoryParagraph(category);
+        if (anchor >= 0 && paragraphs.get(anchor).getText().contains(category + ":")) {
+            return anchor;
+        }
+        XWPFParagraph found = findParagraphContaining(doc, category + ":");
+        return found != null ? paragraphs.indexOf(found) : -1;
+    }
+
     private XWPFParagraph findParagraphContaining(XWPFDocument doc, String text) {
         for (XWPFParagraph p : doc.getParagraphs()) {
             if (p.getText().contains(text)) {
@@ -259,15 +497,4 @@ public class DocxService {
         }
         return null;
     }
-
-    private void copyRunStyle(XWPFRun source, XWPFRun target) {
-        target.setFontFamily(source.getFontFamily());
-        if (source.getFontSizeAsDouble() != null) {
-            target.setFontSize(source.getFontSizeAsDouble());
-        }
-        target.setBold(source.isBold());
-        target.setItalic(source.isItalic());
-        target.setUnderline(source.getUnderline());
-        target.setColor(source.getColor());
-    }
 }
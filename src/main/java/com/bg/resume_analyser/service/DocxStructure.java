@@ -0,0 +1,127 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.RunStyle;
+import org.apache.poi.xwpf.usermodel.Borders;
+import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The paragraphs and runs of a DOCX with their formatting, in flat arrays: paragraph texts and
+ * styles, run texts and styles, and the offset of each paragraph's first run. Styles are immutable
+ * records interned through a {@link StylePool}, so every run with the same formatting refers to one
+ * instance and its font and colour strings are held once.
+ */
+public final class DocxStructure {
+
+    /**
+     * Paragraph formatting. Spacing and indentation are -1 when the paragraph does not set them.
+     */
+    public record ParagraphStyle(String style, ParagraphAlignment alignment, int spacingBefore, int spacingAfter,
+                                 int indentationLeft, int indentationRight, boolean bullet,
+                                 Borders borderTop, Borders borderBottom, Borders borderLeft, Borders borderRight) {
+    }
+
+    /**
+     * Flyweight pool: returns one shared instance per distinct style.
+     */
+    public static final class StylePool {
+
+        private final Map<Object, Object> instances = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T intern(T style) {
+            Object existing = instances.putIfAbsent(style, style);
+            return existing != null ? (T) existing : style;
+        }
+
+        public synchronized int size() {
+            return instances.size();
+        }
+    }
+
+    private final String[] paragraphTexts;
+    private final ParagraphStyle[] paragraphStyles;
+    private final int[] runStarts;
+    private final String[] runTexts;
+    private final RunStyle[] runStyles;
+
+    private DocxStructure(String[] paragraphTexts, ParagraphStyle[] paragraphStyles, int[] runStarts,
+                          String[] runTexts, RunStyle[] runStyles) {
+        this.paragraphTexts = paragraphTexts;
+        this.paragraphStyles = paragraphStyles;
+        this.runStarts = runStarts;
+        this.runTexts = runTexts;
+        this.runStyles = runStyles;
+    }
+
+    public static DocxStructure extract(XWPFDocument doc) {
+        return extract(doc, new StylePool());
+    }
+
+    /**
+     * @param pool shared across documents to share styles between them too
+     */
+    public static DocxStructure extract(XWPFDocument doc, StylePool pool) {
+        List<XWPFParagraph> paragraphs = doc.getParagraphs();
+        int[] runStarts = new int[paragraphs.size() + 1];
+        for (int p = 0; p < paragraphs.size(); p++) {
+            runStarts[p + 1] = runStarts[p] + paragraphs.get(p).getRuns().size();
+        }
+
+        String[] paragraphTexts = new String[paragraphs.size()];
+        ParagraphStyle[] paragraphStyles = new ParagraphStyle[paragraphs.size()];
+        String[] runTexts = new String[runStarts[paragraphs.size()]];
+        RunStyle[] runStyles = new RunStyle[runTexts.length];
+        for (int p = 0; p < paragraphs.size(); p++) {
+            XWPFParagraph para = paragraphs.get(p);
+            paragraphTexts[p] = para.getText();
+            paragraphStyles[p] = pool.intern(new ParagraphStyle(para.getStyle(), para.getAlignment(),
+                    para.getSpacingBefore(), para.getSpacingAfter(), para.getIndentationLeft(), para.getIndentationRight(),
+                    para.getNumFmt() != null, para.getBorderTop(), para.getBorderBottom(), para.getBorderLeft(), para.getBorderRight()));
+            List<XWPFRun> runs = para.getRuns();
+            for (int r = 0; r < runs.size(); r++) {
+                XWPFRun run = runs.get(r);
+                runTexts[runStarts[p] + r] = run.text();
+                runStyles[runStarts[p] + r] = pool.intern(RunStyle.of(run));
+            }
+        }
+        return new DocxStructure(paragraphTexts, paragraphStyles, runStarts, runTexts, runStyles);
+    }
+
+    public int paragraphCount() {
+        return paragraphTexts.length;
+    }
+
+    public String paragraphText(int paragraph) {
+        return paragraphTexts[paragraph];
+    }
+
+    public ParagraphStyle paragraphStyle(int paragraph) {
+        return paragraphStyles[paragraph];
+    }
+
+    public int runCount(int paragraph) {
+        return runStarts[paragraph + 1] - runStarts[paragraph];
+    }
+
+    public String runText(int paragraph, int run) {
+        return runTexts[runStarts[paragraph] + run];
+    }
+
+    public RunStyle runStyle(int paragraph, int run) {
+        return runStyles[runStarts[paragraph] + run];
+    }
+
+    /**
+     * The style of the paragraph's first run, or null when it has no runs.
+     */
+    public RunStyle firstRunStyle(int paragraph) {
+        return runCount(paragraph) > 0 ? runStyle(paragraph, 0) : null;
+    }
+}
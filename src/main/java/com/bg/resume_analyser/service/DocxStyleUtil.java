@@ -1,5 +1,6 @@
 package com.bg.resume_analyser.service;
 
+import com.bg.resume_analyser.model.RunStyle;
 import org.apache.poi.xwpf.usermodel.*;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -8,198 +9,120 @@ import java.util.List;
 import java.util.ArrayList;
 
 public class DocxStyleUtil {
+
+        public record CellFormat(String text, String backgroundColor, XWPFTableCell.XWPFVertAlign verticalAlignment, int width) {
+        }
+
+        public record ImageData(String fileName, int imageType, byte[] data) {
+        }
+
+        /**
+         * @param tables one array of rows per table, each row an array of cells
+         */
+        public record FullFormatting(DocxStructure paragraphs, List<CellFormat[][]> tables, List<ImageData> images) {
+        }
+
         /**
          * Deeply extracts all formatting from a DOCX file: paragraphs, runs, tables, cells, images, hyperlinks, and styles.
          * Returns a structure with all formatting details for later mapping.
          */
-        public static Map<String, Object> extractFullFormatting(InputStream docxInputStream) throws Exception {
-            Map<String, Object> docxFormat = new HashMap<>();
-            XWPFDocument doc = new XWPFDocument(docxInputStream);
-            // Extract paragraphs and runs
-            List<Map<String, Object>> paraList = new ArrayList<>();
-            for (XWPFParagraph para : doc.getParagraphs()) {
-                Map<String, Object> paraMap = new HashMap<>();
-                paraMap.put("alignment", para.getAlignment());
-                paraMap.put("spacingBefore", para.getSpacingBefore());
-                paraMap.put("spacingAfter", para.getSpacingAfter());
-                paraMap.put("indentationLeft", para.getIndentationLeft());
-                paraMap.put("indentationRight", para.getIndentationRight());
-                paraMap.put("isBullet", para.getNumFmt() != null);
-                // paraMap.put("backgroundColor", para.getBackgroundColor()); // Not supported by POI
-                paraMap.put("borderBottom", para.getBorderBottom());
-                paraMap.put("borderTop", para.getBorderTop());
-                paraMap.put("borderLeft", para.getBorderLeft());
-                paraMap.put("borderRight", para.getBorderRight());
-                List<Map<String, Object>> runsList = new ArrayList<>();
-                for (XWPFRun run : para.getRuns()) {
-                    Map<String, Object> runMap = new HashMap<>();
-                    runMap.put("text", run.getText(0));
-                    runMap.put("fontFamily", run.getFontFamily());
-                    runMap.put("fontSize", run.getFontSizeAsDouble());
-                    runMap.put("bold", run.isBold());
-                    runMap.put("italic", run.isItalic());
-                    runMap.put("underline", run.getUnderline());
-                    runMap.put("color", run.getColor());
-                    runMap.put("strike", run.isStrikeThrough());
-                    // runMap.put("highlightColor", ...); // Not supported by POI
-                    // runMap.put("hyperlink", ...); // Not supported by POI
-                    runsList.add(runMap);
-                }
-                paraMap.put("runs", runsList);
-                paraList.add(paraMap);
-            }
-            docxFormat.put("paragraphs", paraList);
-            // Extract tables
-            List<List<List<Map<String, Object>>>> tables = new ArrayList<>();
-            for (XWPFTable table : doc.getTables()) {
-                List<List<Map<String, Object>>> rows = new ArrayList<>();
-                for (XWPFTableRow row : table.getRows()) {
-                    List<Map<String, Object>> cells = new ArrayList<>();
-                    for (XWPFTableCell cell : row.getTableCells()) {
-                        Map<String, Object> cellMap = new HashMap<>();
-                        cellMap.put("text", cell.getText());
-                        cellMap.put("backgroundColor", cell.getColor());
-                        cellMap.put("verticalAlignment", cell.getVerticalAlignment());
-                        cellMap.put("width", cell.getWidth());
-                        // cellMap.put("borderBottom", ...); // Not supported by POI
-                        // cellMap.put("borderTop", ...); // Not supported by POI
-                        // cellMap.put("borderLeft", ...); // Not supported by POI
-                        // cellMap.put("borderRight", ...); // Not supported by POI
-                        cells.add(cellMap);
+        public static FullFormatting extractFullFormatting(InputStream docxInputStream) throws Exception {
+            try (XWPFDocument doc = new XWPFDocument(docxInputStream)) {
+                // Extract paragraphs and runs
+                DocxStructure paragraphs = DocxStructure.extract(doc);
+                // Extract tables
+                List<CellFormat[][]> tables = new ArrayList<>();
+                for (XWPFTable table : doc.getTables()) {
+                    List<XWPFTableRow> rows = table.getRows();
+                    CellFormat[][] cells = new CellFormat[rows.size()][];
+                    for (int r = 0; r < rows.size(); r++) {
+                        List<XWPFTableCell> rowCells = rows.get(r).getTableCells();
+                        cells[r] = new CellFormat[rowCells.size()];
+                        for (int c = 0; c < rowCells.size(); c++) {
+                            XWPFTableCell cell = rowCells.get(c);
+                            // Cell borders are not supported by POI
+                            cells[r][c] = new CellFormat(cell.getText(), cell.getColor(), cell.getVerticalAlignment(), cell.getWidth());
+                        }
                     }
-                    rows.add(cells);
+                    tables.add(cells);
                 }
-                tables.add(rows);
-            }
-            docxFormat.put("tables", tables);
-            // Extract images
-            List<Map<String, Object>> images = new ArrayList<>();
-            for (XWPFPictureData pic : doc.getAllPictures()) {
-                Map<String, Object> imgMap = new HashMap<>();
-                imgMap.put("fileName", pic.getFileName());
-                imgMap.put("imageType", pic.getPictureType());
-                imgMap.put("data", pic.getData());
-                images.add(imgMap);
+                // Extract images
+                List<ImageData> images = new ArrayList<>();
+                for (XWPFPictureData pic : doc.getAllPictures()) {
+                    images.add(new ImageData(pic.getFileName(), pic.getPictureType(), pic.getData()));
+                }
+                return new FullFormatting(paragraphs, tables, images);
             }
-            docxFormat.put("images", images);
-            doc.close();
-            return docxFormat;
         }
 
         /**
          * Applies full formatting to paragraphs, runs, tables, cells, and images in a new DOCX document.
          */
-        @SuppressWarnings("unchecked")
-        public static void applyFullFormatting(XWPFDocument document, Map<String, Object> docxFormat, List<String> tailoredLines) {
-            List<Map<String, Object>> paraList = (List<Map<String, Object>>) docxFormat.get("paragraphs");
-            // Build a map of original section headers to their paragraph style
-            Map<String, Map<String, Object>> headerStyles = new HashMap<>();
-            if (paraList != null) {
-                for (Map<String, Object> paraMap : paraList) {
-                    List<Map<String, Object>> runsList = (List<Map<String, Object>>) paraMap.get("runs");
-                    if (runsList != null && !runsList.isEmpty()) {
-                        String headerText = (String) runsList.get(0).get("text");
-                        if (headerText != null && isSectionHeader(headerText)) {
-                            headerStyles.put(headerText.trim().toLowerCase(), paraMap);
-                        }
+        public static void applyFullFormatting(XWPFDocument document, FullFormatting docxFormat, List<String> tailoredLines) {
+            DocxStructure structure = docxFormat.paragraphs();
+            // Build a map of original section headers to their paragraph
+            Map<String, Integer> headerParagraphs = new HashMap<>();
+            for (int p = 0; p < structure.paragraphCount(); p++) {
+                if (structure.runCount(p) > 0) {
+                    String headerText = structure.runText(p, 0);
+                    if (headerText != null && isSectionHeader(headerText)) {
+                        headerParagraphs.put(headerText.trim().toLowerCase(), p);
                     }
                 }
             }
 
-            for (String line : tailoredLines) {
+            for (int i = 0; i < tailoredLines.size(); i++) {
                 XWPFParagraph para = document.createParagraph();
-                String trimmedLine = line.trim();
-                // Semantic mapping: if line matches a known section header, apply header style
-                Map<String, Object> headerStyle = headerStyles.get(trimmedLine.toLowerCase());
-                if (headerStyle != null) {
-                    applyParagraphStyles(para, headerStyle);
-                    List<Map<String, Object>> runsList = (List<Map<String, Object>>) headerStyle.get("runs");
-                    if (runsList != null && !runsList.isEmpty()) {
-                        XWPFRun run = para.createRun();
-                        run.setText(trimmedLine);
-                        applyRunStyles(run, runsList.get(0));
-                    } else {
-                        XWPFRun run = para.createRun();
-                        run.setText(trimmedLine);
-                    }
-                } else {
-                    // Fallback: positional mapping or default style
-                    int idx = tailoredLines.indexOf(line);
-                    Map<String, Object> paraMap = (paraList != null && idx < paraList.size()) ? paraList.get(idx) : null;
-                    if (paraMap != null) {
-                        applyParagraphStyles(para, paraMap);
-                        List<Map<String, Object>> runsList = (List<Map<String, Object>>) paraMap.get("runs");
-                        if (runsList != null && !runsList.isEmpty()) {
-                            XWPFRun run = para.createRun();
-                            run.setText(trimmedLine);
-                            applyRunStyles(run, runsList.get(0));
-                        } else {
-                            XWPFRun run = para.createRun();
-                            run.setText(trimmedLine);
-                        }
-                    } else {
-                        XWPFRun run = para.createRun();
-                        run.setText(trimmedLine);
-                    }
+                String trimmedLine = tailoredLines.get(i).trim();
+                // Semantic mapping: if line matches a known section header, apply header style;
+                // otherwise fall back to positional mapping or the default style
+                Integer source = headerParagraphs.get(trimmedLine.toLowerCase());
+                if (source == null && i < structure.paragraphCount()) {
+                    source = i;
+                }
+                XWPFRun run = para.createRun();
+                run.setText(trimmedLine);
+                if (source != null) {
+                    applyParagraphStyles(para, structure.paragraphStyle(source));
+                    applyRunStyles(run, structure.firstRunStyle(source));
                 }
             }
             // Tables and images can be added similarly if tailoredLines include cues or mapping
             // (Advanced: implement table/image mapping if needed)
         }
+
     /**
      * Extracts paragraph and run styles from a DOCX file.
-     * Returns a list of style maps, one per paragraph.
      */
-    public static java.util.List<Map<String, Object>> extractParagraphsWithRuns(InputStream docxInputStream) throws Exception {
-        java.util.List<Map<String, Object>> paraList = new java.util.ArrayList<>();
-        XWPFDocument doc = new XWPFDocument(docxInputStream);
-        for (XWPFParagraph para : doc.getParagraphs()) {
-            Map<String, Object> paraMap = new HashMap<>();
-            paraMap.put("alignment", para.getAlignment());
-            paraMap.put("spacingBefore", para.getSpacingBefore());
-            paraMap.put("spacingAfter", para.getSpacingAfter());
-            paraMap.put("indentationLeft", para.getIndentationLeft());
-            paraMap.put("indentationRight", para.getIndentationRight());
-            paraMap.put("isBullet", para.getNumFmt() != null);
-            java.util.List<Map<String, Object>> runsList = new java.util.ArrayList<>();
-            for (XWPFRun run : para.getRuns()) {
-                Map<String, Object> runMap = new HashMap<>();
-                runMap.put("text", run.getText(0));
-                runMap.put("fontFamily", run.getFontFamily());
-                runMap.put("fontSize", run.getFontSizeAsDouble());
-                runMap.put("bold", run.isBold());
-                runMap.put("italic", run.isItalic());
-                runMap.put("underline", run.getUnderline());
-                runMap.put("color", run.getColor());
-                runsList.add(runMap);
-            }
-            paraMap.put("runs", runsList);
-            paraList.add(paraMap);
+    public static DocxStructure extractParagraphsWithRuns(InputStream docxInputStream) throws Exception {
+        try (XWPFDocument doc = new XWPFDocument(docxInputStream)) {
+            return DocxStructure.extract(doc);
         }
-        doc.close();
-        return paraList;
     }
 
     /**
-     * Applies extracted styles to a paragraph/run in a new DOCX document.
+     * Applies extracted styles to a paragraph/run in a new DOCX document. Properties the style
+     * leaves unset are left as they are on the run.
      */
-    public static void applyRunStyles(XWPFRun run, Map<String, Object> runMap) {
-        if (runMap == null) return;
-        if (runMap.get("fontFamily") != null) run.setFontFamily((String) runMap.get("fontFamily"));
-        if (runMap.get("fontSize") != null && ((double) runMap.get("fontSize")) > 0) run.setFontSize((int) Math.round((double) runMap.get("fontSize")));
-        if (runMap.get("bold") != null) run.setBold((Boolean) runMap.get("bold"));
-        if (runMap.get("italic") != null) run.setItalic((Boolean) runMap.get("italic"));
-        if (runMap.get("underline") != null) run.setUnderline((org.apache.poi.xwpf.usermodel.UnderlinePatterns) runMap.get("underline"));
-        if (runMap.get("color") != null) run.setColor((String) runMap.get("color"));
+    public static void applyRunStyles(XWPFRun run, RunStyle style) {
+        if (style == null) return;
+        if (style.fontFamily() != null) run.setFontFamily(style.fontFamily());
+        if (style.fontSize() > 0) run.setFontSize(style.fontSize());
+        run.setBold(style.bold());
+        run.setItalic(style.italic());
+        if (style.underline() != null) run.setUnderline(style.underline());
+        if (style.color() != null) run.setColor(style.color());
+        run.setStrikeThrough(style.strike());
     }
 
-    public static void applyParagraphStyles(XWPFParagraph para, Map<String, Object> paraMap) {
-        if (paraMap == null) return;
-        if (paraMap.get("spacingBefore") != null) para.setSpacingBefore((int) paraMap.get("spacingBefore"));
-        if (paraMap.get("spacingAfter") != null) para.setSpacingAfter((int) paraMap.get("spacingAfter"));
-        if (paraMap.get("alignment") != null) para.setAlignment((org.apache.poi.xwpf.usermodel.ParagraphAlignment) paraMap.get("alignment"));
-        if (paraMap.get("indentationLeft") != null) para.setIndentationLeft((int) paraMap.get("indentationLeft"));
-        if (paraMap.get("indentationRight") != null) para.setIndentationRight((int) paraMap.get("indentationRight"));
+    public static void applyParagraphStyles(XWPFParagraph para, DocxStructure.ParagraphStyle style) {
+        if (style == null) return;
+        // POI reports -1 for spacing and indentation the paragraph does not set
+        if (style.spacingBefore() >= 0) para.setSpacingBefore(style.spacingBefore());
+        if (style.spacingAfter() >= 0) para.setSpacingAfter(style.spacingAfter());
+        if (style.alignment() != null) para.setAlignment(style.alignment());
+        if (style.indentationLeft() >= 0) para.setIndentationLeft(style.indentationLeft());
+        if (style.indentationRight() >= 0) para.setIndentationRight(style.indentationRight());
     }
 
     // Section header detection for semantic mapping
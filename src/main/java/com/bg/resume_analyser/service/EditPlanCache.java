@@ -0,0 +1,215 @@
+package com.bg.resume_analyser.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache for LLM edit plans, keyed by a content hash of the resume, job description,
+ * model and prompt version. The first tier is an in-memory LRU; the second is a directory of
+ * JSON files that survives restarts. Both tiers honour the same TTL.
+ */
+@Service
+public class EditPlanCache {
+
+    private static final String SUFFIX = ".json";
+
+    private final boolean enabled;
+    private final int maxMemoryEntries;
+    private final int maxDiskEntries;
+    private final Duration ttl;
+    private final Path cacheDir;
+
+    private final Map<String, Entry> memory;
+    private final AtomicInteger diskEntries = new AtomicInteger();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    private record Entry(String value, long createdAtMs) {
+    }
+
+    public EditPlanCache(@Value("${edit-plan-cache.enabled:true}") boolean enabled,
+                         @Value("${edit-plan-cache.memory.max-entries:256}") int maxMemoryEntries,
+                         @Value("${edit-plan-cache.disk.max-entries:5000}") int maxDiskEntries,
+                         @Value("${edit-plan-cache.ttl-hours:168}") long ttlHours,
+                         @Value("${edit-plan-cache.dir:${user.home}/Documents/JA/.cache/edit-plans}") String cacheDir) {
+        this.enabled = enabled;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxDiskEntries = maxDiskEntries;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cacheDir = Paths.get(cacheDir);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > EditPlanCache.this.maxMemoryEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (enabled && Files.isDirectory(this.cacheDir)) {
+            try (Stream<Path> files = Files.list(this.cacheDir)) {
+                diskEntries.set((int) files.filter(p -> p.toString().endsWith(SUFFIX)).count());
+            } catch (IOException e) {
+                System.err.println("[EditPlanCache] Could not scan cache directory: " + e.getMessage());
+            }
+        }
+    }
+
+    public static String key(String resumeText, String jobText, String model, String promptVersion) {
+        return ContentHash.sha256(ContentHash.normalize(resumeText), ContentHash.normalize(jobText), model, promptVersion);
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) return Optional.empty();
+        long now = System.currentTimeMillis();
+
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (isExpired(entry.createdAtMs(), now)) {
+                    memory.remove(key);
+                    expirations.incrementAndGet();
+                } else {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(entry.value());
+                }
+            }
+        }
+
+        Path file = cacheDir.resolve(key + SUFFIX);
+        try {
+            if (Files.exists(file)) {
+                long createdAtMs = Files.getLastModifiedTime(file).toMillis();
+                if (isExpired(createdAtMs, now)) {
+                    deleteDiskEntry(file);
+                    expirations.incrementAndGet();
+                } else {
+                    String value = Files.readString(file, StandardCharsets.UTF_8);
+                    synchronized (memory) {
+                        memory.put(key, new Entry(value, createdAtMs));
+                    }
+                    diskHits.incrementAndGet();
+                    return Optional.of(value);
+                }
+            }
+        } catch (IOException e) {
+            // An unreadable entry would fail the same way on every lookup, so drop it
+            System.err.println("[EditPlanCache] Dropping unreadable cache entry " + key + ": " + e.getMessage());
+            deleteDiskEntry(file);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, String value) {
+        if (!enabled || value == null) return;
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            memory.put(key, new Entry(value, now));
+        }
+        puts.incrementAndGet();
+
+        try {
+            Files.createDirectories(cacheDir);
+            Path file = cacheDir.resolve(key + SUFFIX);
+            boolean existed = Files.exists(file);
+            Path tmp = Files.createTempFile(cacheDir, key, ".tmp");
+            Files.writeString(tmp, value, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            if (!existed && diskEntries.incrementAndGet() > maxDiskEntries) {
+                pruneDisk();
+            }
+        } catch (IOException e) {
+            System.err.println("[EditPlanCache] Could not write cache entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.get() + diskHits.get();
+        long lookups = hits + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        stats.put("diskEntries", diskEntries.get());
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("puts", puts.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        return stats;
+    }
+
+    private boolean isExpired(long createdAtMs, long now) {
+        return now - createdAtMs > ttl.toMillis();
+    }
+
+    /**
+     * Drops expired files, then the oldest ones until the directory is back under its size limit.
+     */
+    private synchronized void pruneDisk() {
+        long now = System.currentTimeMillis();
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            List<Path> entries = files.filter(p -> p.toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(this::lastModifiedMillis))
+                    .collect(Collectors.toList());
+            int remaining = entries.size();
+            for (Path file : entries) {
+                boolean expired = isExpired(lastModifiedMillis(file), now);
+                if (!expired && remaining <= maxDiskEntries) break;
+                deleteDiskEntry(file);
+                remaining--;
+                if (expired) expirations.incrementAndGet(); else evictions.incrementAndGet();
+            }
+            diskEntries.set(remaining);
+        } catch (IOException e) {
+            System.err.println("[EditPlanCache] Could not prune cache directory: " + e.getMessage());
+        }
+    }
+
+    private void deleteDiskEntry(Path file) {
+        try {
+            if (Files.deleteIfExists(file)) {
+                diskEntries.decrementAndGet();
+            }
+        } catch (IOException e) {
+            System.err.println("[EditPlanCache] Could not delete cache entry " + file + ": " + e.getMessage());
+        }
+    }
+
+    private long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
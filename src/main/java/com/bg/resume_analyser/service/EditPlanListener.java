@@ -0,0 +1,24 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditAction;
+
+import java.util.List;
+
+/**
+ * Receives parts of an edit plan as soon as they are complete in the LLM output stream.
+ * All callbacks run on the thread that reads the stream.
+ */
+public interface EditPlanListener {
+
+    /** Called for each root-level string field, e.g. {@code company_name} or {@code position_title}. */
+    default void onField(String name, String value) {
+    }
+
+    /** Called for each complete and valid object in the {@code edit_plan} array. */
+    default void onEditAction(EditAction action) {
+    }
+
+    /** Called for each complete category in the {@code skills_to_add} object, with the skills not yet listed. */
+    default void onSkillsCategory(String category, List<String> skills) {
+    }
+}
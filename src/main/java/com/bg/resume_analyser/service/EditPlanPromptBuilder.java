@@ -0,0 +1,245 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.ResumeIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the edit plan prompt. The static instructions form a fixed prefix (the system message) so
+ * that provider-side prompt caching can reuse them; the per-request context only carries the resume
+ * sections the model may edit (with only the most relevant experience bullets) and the job
+ * description without boilerplate, trimmed to a token budget.
+ */
+@Service
+public class EditPlanPromptBuilder {
+
+    static final String PERSONAL_SUMMARY = "Personal Summary";
+    static final String EXPERIENCE = "Experience";
+    static final String SKILLS = "Skills & Abilities";
+
+    private static final Pattern JD_BOILERPLATE_HEADING = Pattern.compile(
+            "(?i)^(our )?(benefits|perks|what we offer|what('|’)s in it for you|compensation( and| &) benefits|why join us"
+                    + "|equal (employment )?opportunit.*|diversity.*|how to apply|privacy( notice)?)\\s*:?$");
+    private static final Pattern JD_RELEVANT_HEADING = Pattern.compile(
+            "(?i)^(the )?(role|about the role|responsibilities|key responsibilities|main functions|what you('|’)ll do"
+                    + "|requirements|qualifications|tech stack|skills|nice to have|must have|who you are|about you)\\s*:?$");
+    private static final Pattern JD_BOILERPLATE_LINE = Pattern.compile(
+            "(?i).*(equal opportunity|without regard to|regardless of (race|gender|age)|reasonable accommodation"
+                    + "|protected veteran|e-verify|show more|show less).*");
+
+    static final String INSTRUCTIONS = """
+            You are an expert resume editor. Your task is to surgically edit a resume to perfectly match a job description, preserving the original formatting. You MUST return ONLY a valid JSON object. Do not include any text, explanations, or markdown before or after the JSON object.
+
+            **INSTRUCTIONS:**
+            1.  **Extract Key Info**: From the job description, you MUST extract the `company_name`, `position_title`, and `contact_person`.
+            2.  **Semantic Check**: Before suggesting an addition, verify that the skill or concept is not already present in the resume. Do not suggest redundant additions.
+            3.  **Comprehensive Review**: On every run, you MUST review the 'Personal Summary' and 'Experience' sections for potential improvements, and the 'Skills & Abilities' section to identify skills to add. Your suggestions must be comprehensive and consistent. Only these sections of the resume are provided.
+            4.  **Suggestion Strategy**: Prioritize suggestions based on their impact and relevance to the job description.
+                - **Critical Functions**: If a main function from the job description is missing and critical, incorporate it into the `Personal Summary` via the `edit_plan`.
+                - **Important Functions**: If a function is important but not critical, incorporate it into the `Experience` section via the `edit_plan`.
+                - **High-Impact Skills**: Add high-impact missing skills and abilities to the `skills_to_add` object.
+            5.  **JSON Output Structure**: The JSON object must have five root keys: `company_name`, `position_title`, `contact_person`, `edit_plan`, and `skills_to_add`.
+                - `company_name`: A string containing the name of the company hiring. If not found, use `"N/A"`.
+                - `position_title`: A string containing the title of the role. If not found, use `"N/A"`.
+                - `contact_person`: A string containing the name of the recruiter or hiring manager. If not found, use an empty string `""`.
+                - The `edit_plan` is an array of objects for edits to 'Personal Summary' and 'Experience' ONLY.
+                - The `skills_to_add` is an object for adding new, categorized skills to the 'Skills & Abilities' section.
+            6.  **Edit Object Structure (`edit_plan`)**: Each object in the `edit_plan` array must have these keys:
+                - `action`: Must be `"REPLACE"`. (Use this to rewrite sentences or bullet points).
+                - `section`: The resume section to edit. Must be one of `"Personal Summary"` or `"Experience"`.
+                - `original_text`: The exact, original text to be replaced. For bullet points, this must be the complete and exact text of the bullet point.
+                - `new_text`: The new, improved text.
+            7.  **Skills Categorization (`skills_to_add`)**: This object must categorize all new skills to be added. The allowed categories are:
+                - `Languages`, `Frameworks & Libraries`, `Cloud & DevOps`, `Databases`, `Professional Skills & Methodologies`.
+            8.  **Rules & Constraints**:
+                - **Truthfulness**: You MUST NOT invent or exaggerate experience. Do not change the user's job title (e.g., from 'Software Developer' to 'Senior Software Developer'). Your role is to align existing experience with the job description, not to create new qualifications. The user is changing careers and is not a senior yet, so you must not label them as such.
+                - **Triple-Check Skill Categorization**: Before finalizing the JSON, you MUST triple-check every single skill you have added. For example, `FastAPI` is a Python framework, so it is WRONG to place it under `Languages`; it MUST go under `Frameworks & Libraries`. `Asyncio` is a library; it also belongs in `Frameworks & Libraries`. Failure to categorize correctly will result in a penalty.
+                - **Skill Categorization**: Before adding a skill, you MUST first identify its nature (e.g., 'DAML' is a language). Then, place it in the most accurate category. Do not miscategorize skills.
+                - **Targeting Bullet Points**: To replace a bullet point in the 'Experience' section, the `original_text` MUST match the bullet point's text exactly.
+                - **Omitted Bullets**: Lines such as `[3 less relevant bullet(s) omitted - do not edit]` are placeholders for bullets that were left out. Never use them as `original_text`.
+                - **Bullet Point Logic**: When editing a bullet point in the 'Experience' section, first evaluate if the new information can be logically and grammatically appended. If appending would sound awkward or disrupt the flow, you MUST instead replace the entire bullet point with a rewritten, coherent version that incorporates the new information. Prefer rewriting for clarity and impact.
+                - **Capitalization**: For skills, capitalize proper nouns (e.g., 'Java', 'Azure', 'Spring Boot'). For all other skills, use sentence case (e.g., 'Performance tuning', 'Prompt engineering').
+                - **UK English Spelling**: You MUST use UK English spelling (e.g., 'optimisation', not 'optimization'). Failure to do so will result in a penalty.
+                - Be concise and relevant. Do not add fluff.
+                - The `edit_plan` MUST NOT target the 'Skills & Abilities' section. All direct additions to the 'Skills & Abilities' section are handled by `skills_to_add`.
+            9.  **Key Job Requirements**: Pay close attention to the 'Tech Stack' and 'Main Functions' or 'Responsibilities' sections of the job description. Your suggestions should prioritize aligning the resume with these key requirements.
+
+            **EXAMPLE OUTPUT:**
+            ```json
+            {
+              "company_name": "Innovate Inc.",
+              "position_title": "Senior AI Developer",
+              "contact_person": "Jane Doe",
+              "edit_plan": [
+                {
+                  "action": "REPLACE",
+                  "section": "Experience",
+                  "original_text": "• Enhanced batch chain performance, reducing the time spent on routine operations by 27% and significantly improving overall processing efficiency and throughput.",
+                  "new_text": "• Enhanced batch chain performance using Spring Batch, reducing routine operations time by 27% and significantly improving overall processing efficiency and throughput."
+                }
+              ],
+              "skills_to_add": {
+                "Languages": ["TypeScript"],
+                "soft_skills_to_add": ["AI-driven development environments"]
+              }
+            }
+            ```""";
+
+    /**
+     * The prompt split into its cacheable prefix and per-request context, with estimated token counts.
+     * {@code fullTokens} is what the uncompacted resume and job description would have cost.
+     */
+    public record EditPlanPrompt(String instructions, String context, int tokens, int fullTokens,
+                                 int bulletsKept, int bulletsTotal) {
+
+        public int tokensSaved() {
+            return Math.max(0, fullTokens - tokens);
+        }
+    }
+
+    private final int maxContextTokens;
+    private final int maxExperienceBullets;
+
+    public EditPlanPromptBuilder(@Value("${improve.prompt.max-context-tokens:6000}") int maxContextTokens,
+                                 @Value("${improve.prompt.max-experience-bullets:12}") int maxExperienceBullets) {
+        this.maxContextTokens = maxContextTokens;
+        this.maxExperienceBullets = maxExperienceBullets;
+    }
+
+    /**
+     * The settings that change the prompt for the same resume and job, for use in cache keys.
+     */
+    public String fingerprint() {
+        return "context-tokens=" + maxContextTokens + ";experience-bullets=" + maxExperienceBullets;
+    }
+
+    public EditPlanPrompt build(String resumeText, String jobText) {
+        return build(ResumeIndexService.build(resumeText), jobText);
+    }
+
+    /**
+     * Builds the prompt from a resume's stored index, reusing its sections, bullets and terms.
+     */
+    public EditPlanPrompt build(ResumeIndex resumeIndex, String jobText) {
+        String job = stripJobBoilerplate(jobText);
+        Map<String, List<String>> sections = editableSections(resumeIndex);
+        String resume;
+        int bulletsKept = 0;
+        int bulletsTotal = 0;
+        if (sections.isEmpty()) {
+            resume = resumeIndex.text().strip();
+        } else {
+            List<String> experience = sections.get(EXPERIENCE);
+            if (experience != null) {
+                List<Integer> bulletPositions = new ArrayList<>();
+                List<Set<String>> bulletTerms = new ArrayList<>();
+                List<Integer> lineIndexes = resumeIndex.sectionLines(ResumeIndexService.SECTIONS.indexOf(EXPERIENCE));
+                for (int j = 0; j < lineIndexes.size(); j++) {
+                    if (resumeIndex.isBullet(lineIndexes.get(j))) {
+                        bulletPositions.add(j);
+                        bulletTerms.add(resumeIndex.lineTerms(lineIndexes.get(j)));
+                    }
+                }
+                ExperienceBulletRanker.Filtered filtered = ExperienceBulletRanker.filter(experience, bulletPositions,
+                        bulletTerms, job, maxExperienceBullets);
+                sections.put(EXPERIENCE, filtered.lines());
+                bulletsKept = filtered.kept();
+                bulletsTotal = filtered.total();
+            }
+            resume = render(sections);
+        }
+
+        // Trim the job description first; the resume text is what edits must match verbatim
+        int available = Math.max(0, maxContextTokens - TokenEstimator.estimate(context("", "")));
+        int resumeTokens = TokenEstimator.estimate(resume);
+        int jobBudget = Math.max(available - resumeTokens, available / 4);
+        job = TokenEstimator.truncate(job, jobBudget);
+        resume = TokenEstimator.truncate(resume, Math.max(0, available - TokenEstimator.estimate(job)));
+
+        String context = context(resume, job);
+        int instructionTokens = TokenEstimator.estimate(INSTRUCTIONS);
+        int tokens = instructionTokens + TokenEstimator.estimate(context);
+        int fullTokens = instructionTokens + TokenEstimator.estimate(context(resumeIndex.text(), jobText));
+        return new EditPlanPrompt(INSTRUCTIONS, context, tokens, fullTokens, bulletsKept, bulletsTotal);
+    }
+
+    /**
+     * Keeps only the Personal Summary, Experience and Skills & Abilities sections, under their
+     * canonical headings. Text whose headings are not recognised is returned unchanged.
+     */
+    static String extractEditableSections(String resumeText) {
+        if (resumeText == null) return "";
+        Map<String, List<String>> sections = editableSections(ResumeIndexService.build(resumeText));
+        return sections.isEmpty() ? resumeText.strip() : render(sections);
+    }
+
+    /**
+     * Stripped non-blank lines of each editable section, keyed by canonical section name; empty when
+     * no known heading was found.
+     */
+    static Map<String, List<String>> editableSections(ResumeIndex resumeIndex) {
+        Map<String, List<String>> sections = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < ResumeIndexService.SECTIONS.size(); ordinal++) {
+            if (!resumeIndex.hasSection(ordinal)) continue;
+            List<String> lines = new ArrayList<>();
+            for (int i : resumeIndex.sectionLines(ordinal)) lines.add(resumeIndex.line(i).strip());
+            sections.put(ResumeIndexService.SECTIONS.get(ordinal), lines);
+        }
+        return sections;
+    }
+
+    private static String render(Map<String, List<String>> sections) {
+        StringBuilder out = new StringBuilder();
+        for (String section : List.of(PERSONAL_SUMMARY, EXPERIENCE, SKILLS)) {
+            List<String> body = sections.get(section);
+            if (body != null) {
+                out.append(section).append('\n');
+                body.forEach(line -> out.append(line).append('\n'));
+                out.append('\n');
+            }
+        }
+        return out.toString().strip();
+    }
+
+    /**
+     * Drops benefits, EEO and similar sections and sentences from a job description.
+     */
+    static String stripJobBoilerplate(String jobText) {
+        if (jobText == null) return "";
+        StringBuilder out = new StringBuilder();
+        boolean skipping = false;
+        boolean lastBlank = true;
+        for (String line : jobText.split("\\R")) {
+            String trimmed = line.trim();
+            if (JD_BOILERPLATE_HEADING.matcher(trimmed).matches()) {
+                skipping = true;
+                continue;
+            }
+            if (JD_RELEVANT_HEADING.matcher(trimmed).matches()) {
+                skipping = false;
+            }
+            if (skipping || JD_BOILERPLATE_LINE.matcher(trimmed).matches()) continue;
+            if (trimmed.isEmpty()) {
+                if (!lastBlank) out.append('\n');
+                lastBlank = true;
+                continue;
+            }
+            out.append(trimmed).append('\n');
+            lastBlank = false;
+        }
+        return out.toString().strip();
+    }
+
+    private static String context(String resume, String job) {
+        return "**CONTEXT:**\n"
+                + "- **Resume**:\n```\n" + resume + "\n```\n"
+                + "- **Job Description**:\n```\n" + job + "\n```\n";
+    }
+}
@@ -0,0 +1,174 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.EditPlan;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses an edit plan JSON object into a typed {@link EditPlan} in a single pass over Jackson's
+ * non-blocking token stream, so it works both on complete text and on fragments arriving from a
+ * streamed response. Each {@code edit_plan} entry and {@code skills_to_add} category is validated
+ * and passed to the listener as soon as its closing bracket arrives; invalid entries are skipped.
+ */
+public class EditPlanStreamParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final EditPlanListener listener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final EditPlan plan = new EditPlan();
+    private final List<EditAction> actions = new ArrayList<>();
+
+    // Nesting depth of the token just read; the root object is depth 1
+    private int depth;
+    private boolean rootClosed;
+    private String rootField;
+    private String innerField;
+    private EditAction currentAction;
+    private List<String> currentSkills;
+
+    public EditPlanStreamParser(EditPlanListener listener) throws IOException {
+        this.listener = listener != null ? listener : new EditPlanListener() { };
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.plan.setEditActions(actions);
+    }
+
+    /**
+     * Parses a complete edit plan document.
+     */
+    public static EditPlan parse(String json) throws IOException {
+        EditPlanStreamParser parser = new EditPlanStreamParser(null);
+        parser.feed(json);
+        return parser.finish();
+    }
+
+    /**
+     * Feeds the next fragment of the assistant message and dispatches everything that became complete.
+     */
+    public void feed(String fragment) throws IOException {
+        if (fragment == null || fragment.isEmpty()) return;
+        byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+        drain();
+    }
+
+    /**
+     * Signals end of input and returns the complete plan.
+     *
+     * @throws IOException if the stream ended before the root object was closed
+     */
+    public EditPlan finish() throws IOException {
+        feeder.endOfInput();
+        drain();
+        if (!rootClosed) {
+            throw new IOException("Edit plan stream ended before the JSON object was complete.");
+        }
+        return plan;
+    }
+
+    /**
+     * Replays an already complete plan to a listener in the same order the stream parser would.
+     */
+    public static void replay(EditPlan plan, EditPlanListener listener) {
+        if (plan == null || listener == null) return;
+        listener.onField("company_name", plan.getCompanyName());
+        listener.onField("position_title", plan.getPositionTitle());
+        listener.onField("contact_person", plan.getContactPerson());
+        for (EditAction action : plan.getEditActions()) {
+            listener.onEditAction(action);
+        }
+        for (Map.Entry<String, List<String>> category : plan.getSkillsToAdd().getCategories().entrySet()) {
+            listener.onSkillsCategory(category.getKey(), category.getValue());
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> startContainer(token);
+                case END_OBJECT, END_ARRAY -> endContainer();
+                case FIELD_NAME -> fieldName(parser.currentName());
+                default -> {
+                    if (token.isScalarValue()) scalar(token == JsonToken.VALUE_NULL ? null : parser.getText());
+                }
+            }
+        }
+    }
+
+    private void startContainer(JsonToken token) {
+        depth++;
+        if (depth == 3 && "edit_plan".equals(rootField) && token == JsonToken.START_OBJECT) {
+            currentAction = new EditAction();
+        } else if (depth == 3 && "skills_to_add".equals(rootField) && token == JsonToken.START_ARRAY) {
+            currentSkills = new ArrayList<>();
+        }
+    }
+
+    private void endContainer() {
+        if (depth == 3 && currentAction != null) {
+            completeAction(currentAction);
+            currentAction = null;
+        } else if (depth == 3 && currentSkills != null) {
+            List<String> added = plan.getSkillsToAdd().add(innerField, currentSkills);
+            if (!added.isEmpty()) listener.onSkillsCategory(innerField.trim(), added);
+            currentSkills = null;
+        } else if (depth == 1) {
+            rootClosed = true;
+        }
+        depth--;
+    }
+
+    private void fieldName(String name) {
+        if (depth == 1) {
+            rootField = name;
+        } else if (depth == 2 || depth == 3) {
+            innerField = name;
+        }
+    }
+
+    private void scalar(String value) {
+        if (depth == 1 && rootField != null) {
+            switch (rootField) {
+                case "company_name" -> plan.setCompanyName(value);
+                case "position_title" -> plan.setPositionTitle(value);
+                case "contact_person" -> plan.setContactPerson(value);
+                default -> {
+                    return;
+                }
+            }
+            listener.onField(rootField, value == null ? "" : value);
+        } else if (depth == 3 && currentAction != null && innerField != null) {
+            switch (innerField) {
+                case "action" -> currentAction.setAction(value);
+                case "section" -> currentAction.setSection(value);
+                case "original_text" -> currentAction.setOriginalText(value);
+                case "new_text" -> currentAction.setNewText(value);
+                default -> { }
+            }
+        } else if (depth == 3 && currentSkills != null) {
+            currentSkills.add(value);
+        }
+    }
+
+    private void completeAction(EditAction action) {
+        String problem = action.validate();
+        if (problem != null) {
+            System.err.println("[EditPlanStreamParser] Skipping invalid edit action (" + problem + "): " + action);
+            return;
+        }
+        actions.add(action);
+        listener.onEditAction(action);
+    }
+}
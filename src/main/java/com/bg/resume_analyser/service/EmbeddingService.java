@@ -0,0 +1,219 @@
+package com.bg.resume_analyser.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes text embeddings through the OpenAI embeddings API. Texts missing from the cache are sent
+ * together in one request with an {@code input} array; vectors are kept as L2-normalised
+ * {@code float[]}, so cosine similarity is a plain dot product, and cached in an LRU keyed by a
+ * content hash of the model and text. Vectors are also appended to the {@link VectorStore}, which
+ * is consulted on an LRU miss, so embeddings paid for in earlier runs are not requested again.
+ */
+@Service
+public class EmbeddingService {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final LlmClient llmClient;
+    private final VectorStore vectorStore;
+    private final String model;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final Map<String, float[]> cache;
+    private final SingleFlight<String, float[][]> inFlight = new SingleFlight<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    public EmbeddingService(LlmClient llmClient,
+                            VectorStore vectorStore,
+                            @Value("${embedding.model:text-embedding-3-small}") String model,
+                            @Value("${embedding.batch-size:256}") int maxBatchSize,
+                            @Value("${embedding.cache.max-entries:4096}") int maxCacheEntries,
+                            @Value("${matching.timeout-ms:30000}") long timeoutMs) {
+        this.llmClient = llmClient;
+        this.vectorStore = vectorStore;
+        this.model = model;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
+    }
+
+    public boolean isAvailable() {
+        return llmClient.isConfigured();
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public float[] embed(String text) throws IOException {
+        return embedAll(List.of(text)).get(0);
+    }
+
+    /**
+     * Returns one normalised vector per input text, in input order. Only texts not already cached
+     * are sent, in as few requests as the batch size allows.
+     */
+    public List<float[]> embedAll(List<String> texts) throws IOException {
+        float[][] vectors = new float[texts.size()][];
+        Map<String, List<Integer>> missing = new LinkedHashMap<>();
+        Map<String, String> missingText = new LinkedHashMap<>();
+        synchronized (cache) {
+            for (int i = 0; i < texts.size(); i++) {
+                String text = texts.get(i) == null ? "" : texts.get(i);
+                String key = key(text);
+                float[] cached = cache.get(key);
+                if (cached != null) {
+                    hits.incrementAndGet();
+                    vectors[i] = cached;
+                } else if (!missing.containsKey(key) && (cached = vectorStore.get(key)) != null) {
+                    storeHits.incrementAndGet();
+                    cache.put(key, cached);
+                    vectors[i] = cached;
+                } else {
+                    missing.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                    missingText.putIfAbsent(key, text);
+                }
+            }
+        }
+
+        List<String> keys = new ArrayList<>(missing.keySet());
+        for (int from = 0; from < keys.size(); from += maxBatchSize) {
+            List<String> batchKeys = keys.subList(from, Math.min(keys.size(), from + maxBatchSize));
+            List<String> inputs = new ArrayList<>(batchKeys.size());
+            for (String key : batchKeys) inputs.add(missingText.get(key));
+
+            // Identical concurrent lookups (e.g. the same resume scored twice) share one request
+            float[][] fresh = inFlight.execute(ContentHash.sha256(batchKeys.toArray(new String[0])), () -> request(inputs));
+            misses.addAndGet(batchKeys.size());
+            synchronized (cache) {
+                for (int b = 0; b < batchKeys.size(); b++) {
+                    cache.put(batchKeys.get(b), fresh[b]);
+                    for (int i : missing.get(batchKeys.get(b))) vectors[i] = fresh[b];
+                }
+            }
+            for (int b = 0; b < batchKeys.size(); b++) {
+                vectorStore.put(batchKeys.get(b), fresh[b]);
+            }
+        }
+        return Arrays.asList(vectors);
+    }
+
+    /**
+     * Cosine similarity of two vectors returned by this service; they are normalised, so this is the dot product.
+     */
+    public static double similarity(float[] a, float[] b) {
+        int n = Math.min(a.length, b.length);
+        double dot = 0;
+        for (int i = 0; i < n; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (cache) {
+            stats.put("cachedVectors", cache.size());
+        }
+        stats.put("hits", hits.get());
+        stats.put("storeHits", storeHits.get());
+        stats.put("misses", misses.get());
+        stats.put("requests", requests.get());
+        stats.put("store", vectorStore.getStats());
+        return stats;
+    }
+
+    private String key(String text) {
+        return ContentHash.sha256(model, ContentHash.normalize(text));
+    }
+
+    private float[][] request(List<String> inputs) throws IOException {
+        requests.incrementAndGet();
+        byte[] body = llmClient.postForBody("/v1/embeddings", Map.of("model", model, "input", inputs), timeout);
+        float[][] vectors = parseEmbeddings(body, inputs.size());
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i] == null) {
+                throw new IOException("Embeddings response is missing the vector for input " + i + ".");
+            }
+            normalize(vectors[i]);
+        }
+        return vectors;
+    }
+
+    /**
+     * Reads {@code data[].index} and {@code data[].embedding} straight from the token stream into
+     * primitive arrays, without building a JSON tree.
+     */
+    static float[][] parseEmbeddings(byte[] body, int expected) throws IOException {
+        float[][] vectors = new float[expected][];
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new IOException("Embeddings response is not a JSON object.");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"data".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int position = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int index = position++;
+                    float[] vector = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        JsonToken token = parser.nextToken();
+                        if ("index".equals(name) && token == JsonToken.VALUE_NUMBER_INT) {
+                            index = parser.getIntValue();
+                        } else if ("embedding".equals(name) && token == JsonToken.START_ARRAY) {
+                            vector = readFloats(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (index >= 0 && index < expected) vectors[index] = vector;
+                }
+            }
+        }
+        return vectors;
+    }
+
+    private static float[] readFloats(JsonParser parser) throws IOException {
+        float[] values = new float[1536];
+        int n = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (n == values.length) values = Arrays.copyOf(values, n * 2);
+            values[n++] = parser.getFloatValue();
+        }
+        return n == values.length ? values : Arrays.copyOf(values, n);
+    }
+
+    private static void normalize(float[] v) {
+        double sum = 0;
+        for (float x : v) sum += x * x;
+        if (sum == 0) return;
+        float inv = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < v.length; i++) v[i] *= inv;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bg.resume_analyser.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the experience bullets most relevant to a job description. Bullets are scored lexically
+ * (job term frequency weighted by how rare the term is among the bullets) and the top-k are kept
+ * verbatim, in their original order, so edits can still quote them exactly. Role headers and other
+ * short lines are always kept; each run of dropped bullets is replaced by a one-line marker.
+ */
+public final class ExperienceBulletRanker {
+
+    private static final Pattern BULLET_PREFIX = Pattern.compile("^[•\\-*▪◦●‣–]\\s*");
+    private static final Pattern TERM = Pattern.compile("[a-z0-9][a-z0-9+#.]*[a-z0-9+#]|[a-z0-9]");
+    private static final int MIN_BULLET_WORDS = 8;
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it", "its", "of",
+            "on", "or", "our", "that", "the", "their", "this", "to", "using", "was", "we", "were", "will", "with",
+            "you", "your", "across", "over", "within", "including");
+
+    private ExperienceBulletRanker() {
+    }
+
+    /** Result of filtering: the lines to send and how many bullets were kept out of how many. */
+    public record Filtered(List<String> lines, int kept, int total) {
+    }
+
+    public static boolean isBullet(String line) {
+        String trimmed = line.trim();
+        return BULLET_PREFIX.matcher(trimmed).find() || trimmed.split("\\s+").length >= MIN_BULLET_WORDS;
+    }
+
+    public static Filtered filter(List<String> experienceLines, String jobText, int maxBullets) {
+        List<Integer> bulletIdx = new ArrayList<>();
+        List<Set<String>> bulletTerms = new ArrayList<>();
+        for (int i = 0; i < experienceLines.size(); i++) {
+            if (isBullet(experienceLines.get(i))) {
+                bulletIdx.add(i);
+                bulletTerms.add(termFrequencies(experienceLines.get(i)).keySet());
+            }
+        }
+        return filter(experienceLines, bulletIdx, bulletTerms, jobText, maxBullets);
+    }
+
+    /**
+     * Same as {@link #filter(List, String, int)}, with bullet positions and their terms already
+     * known (from a {@link com.bg.resume_analyser.model.ResumeIndex}).
+     */
+    public static Filtered filter(List<String> experienceLines, List<Integer> bulletIdx, List<Set<String>> bulletTerms,
+                                  String jobText, int maxBullets) {
+        if (maxBullets <= 0 || bulletIdx.size() <= maxBullets) {
+            return new Filtered(experienceLines, bulletIdx.size(), bulletIdx.size());
+        }
+
+        Map<String, Integer> jobTf = termFrequencies(jobText);
+        Map<String, Integer> df = new HashMap<>();
+        for (Set<String> terms : bulletTerms) {
+            for (String t : terms) df.merge(t, 1, Integer::sum);
+        }
+
+        double[] scores = new double[bulletIdx.size()];
+        for (int b = 0; b < bulletIdx.size(); b++) {
+            double score = 0;
+            for (String t : bulletTerms.get(b)) {
+                Integer tf = jobTf.get(t);
+                if (tf == null) continue;
+                score += Math.log1p(tf) * Math.log1p((double) bulletIdx.size() / df.get(t));
+            }
+            // Mild length normalisation so long bullets do not win on size alone
+            scores[b] = score / Math.sqrt(Math.max(1, bulletTerms.get(b).size()));
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int b = 0; b < bulletIdx.size(); b++) order.add(b);
+        order.sort(Comparator.comparingDouble((Integer b) -> -scores[b]).thenComparingInt(b -> b));
+        Set<Integer> keep = new HashSet<>();
+        for (int b : order.subList(0, maxBullets)) keep.add(bulletIdx.get(b));
+
+        List<String> lines = new ArrayList<>();
+        int omitted = 0;
+        Set<Integer> bulletSet = new HashSet<>(bulletIdx);
+        for (int i = 0; i < experienceLines.size(); i++) {
+            if (bulletSet.contains(i) && !keep.contains(i)) {
+                omitted++;
+                continue;
+            }
+            if (omitted > 0) {
+                lines.add(omittedMarker(omitted));
+                omitted = 0;
+            }
+            lines.add(experienceLines.get(i));
+        }
+        if (omitted > 0) lines.add(omittedMarker(omitted));
+        return new Filtered(lines, maxBullets, bulletIdx.size());
+    }
+
+    static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : tokenize(text)) tf.merge(term, 1, Integer::sum);
+        return tf;
+    }
+
+    /**
+     * Lower-cased terms in order of appearance, without stopwords and single letters.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        Matcher m = TERM.matcher(text.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            String term = m.group();
+            if (term.length() < 2 && !Character.isDigit(term.charAt(0))) continue;
+            if (STOPWORDS.contains(term)) continue;
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    private static String omittedMarker(int count) {
+        return "[" + count + " less relevant bullet(s) omitted - do not edit]";
+    }
+}
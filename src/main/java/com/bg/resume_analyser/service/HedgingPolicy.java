@@ -0,0 +1,129 @@
+package com.bg.resume_analyser.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a duplicate ("hedge") LLM request should be fired. Each operation keeps a window
+ * of recent latencies; once enough samples exist, a hedge is sent if the first attempt has not
+ * responded by the configured percentile of that window. The share of calls that may be hedged
+ * is capped so that a slow provider does not double our traffic.
+ */
+@Service
+public class HedgingPolicy {
+
+    private final boolean enabled;
+    private final double percentile;
+    private final int minSamples;
+    private final long minDelayNanos;
+    private final double maxHedgeRate;
+    private final int windowSize;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedgesIssued = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesSkipped = new AtomicLong();
+
+    public HedgingPolicy(@Value("${openai.client.hedging.enabled:false}") boolean enabled,
+                         @Value("${openai.client.hedging.percentile:95}") double percentile,
+                         @Value("${openai.client.hedging.min-samples:20}") int minSamples,
+                         @Value("${openai.client.hedging.min-delay-ms:1000}") long minDelayMs,
+                         @Value("${openai.client.hedging.max-rate:0.1}") double maxHedgeRate,
+                         @Value("${openai.client.hedging.window-size:200}") int windowSize) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.maxHedgeRate = maxHedgeRate;
+        this.windowSize = windowSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers a call and returns how long to wait before hedging it, or -1 when the operation
+     * has too few samples to pick a meaningful delay.
+     */
+    public long hedgeDelayNanos(String operation) {
+        calls.incrementAndGet();
+        long p = window(operation).percentileNanos(percentile, minSamples);
+        return p < 0 ? -1 : Math.max(minDelayNanos, p);
+    }
+
+    /**
+     * Returns true if one more hedge stays within the allowed hedge rate.
+     */
+    public boolean tryAcquireHedge() {
+        while (true) {
+            long issued = hedgesIssued.get();
+            if (issued + 1 > maxHedgeRate * calls.get()) {
+                hedgesSkipped.incrementAndGet();
+                return false;
+            }
+            if (hedgesIssued.compareAndSet(issued, issued + 1)) return true;
+        }
+    }
+
+    public void recordLatency(String operation, long nanos) {
+        window(operation).record(nanos);
+    }
+
+    public void recordHedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("calls", calls.get());
+        stats.put("hedgesIssued", hedgesIssued.get());
+        stats.put("hedgesWon", hedgesWon.get());
+        stats.put("hedgesSkippedByRateCap", hedgesSkipped.get());
+        Map<String, Object> delays = new LinkedHashMap<>();
+        windows.forEach((operation, window) -> {
+            long p = window.percentileNanos(percentile, minSamples);
+            delays.put(operation, p < 0 ? null : TimeUnit.NANOSECONDS.toMillis(Math.max(minDelayNanos, p)));
+        });
+        stats.put("hedgeDelayMs", delays);
+        return stats;
+    }
+
+    private LatencyWindow window(String operation) {
+        return windows.computeIfAbsent(operation, k -> new LatencyWindow(windowSize));
+    }
+
+    /** Fixed-size ring buffer of the most recent latencies. */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.samples = new long[Math.max(1, capacity)];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        synchronized long percentileNanos(double percentile, int minSamples) {
+            if (size < Math.max(1, minSamples)) return -1;
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
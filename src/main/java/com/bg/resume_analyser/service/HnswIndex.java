@@ -0,0 +1,228 @@
+package com.bg.resume_analyser.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory approximate nearest neighbour index (HNSW: a hierarchy of proximity graphs searched
+ * greedily from the sparse top layer down). Vectors must be L2-normalised, as returned by
+ * {@link EmbeddingService}, so similarity is the dot product. Searches run concurrently; inserts
+ * take an exclusive lock.
+ */
+public class HnswIndex {
+
+    public record Hit(long id, double score) {
+    }
+
+    private record Candidate(int node, double score) {
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingDouble(Candidate::score).reversed();
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingDouble(Candidate::score);
+
+    private static final class Node {
+        final long id;
+        final float[] vector;
+        final int[][] neighbors;
+        final int[] degree;
+
+        Node(long id, float[] vector, int level, int m) {
+            this.id = id;
+            this.vector = vector;
+            this.neighbors = new int[level + 1][];
+            this.degree = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                // One spare slot so a new link can be added before the list is pruned
+                neighbors[l] = new int[(l == 0 ? 2 * m : m) + 1];
+            }
+        }
+
+        int level() {
+            return neighbors.length - 1;
+        }
+    }
+
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+    private int entryPoint = -1;
+
+    public HnswIndex(int m, int efConstruction, int efSearch) {
+        this.m = Math.max(2, m);
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a vector under the given id; ids already in the index are ignored.
+     */
+    public void add(long id, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            if (nodeById.containsKey(id)) return;
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            Node node = new Node(id, vector, level, m);
+            int index = nodes.size();
+            nodes.add(node);
+            nodeById.put(id, index);
+            if (entryPoint < 0) {
+                entryPoint = index;
+                return;
+            }
+
+            int current = entryPoint;
+            int topLevel = nodes.get(entryPoint).level();
+            for (int l = topLevel; l > level; l--) {
+                current = greedyClosest(vector, current, l);
+            }
+            for (int l = Math.min(level, topLevel); l >= 0; l--) {
+                List<Candidate> found = searchLayer(vector, current, efConstruction, l);
+                int maxDegree = l == 0 ? 2 * m : m;
+                for (int i = 0; i < Math.min(maxDegree, found.size()); i++) {
+                    int neighbor = found.get(i).node();
+                    link(index, neighbor, l, maxDegree);
+                    link(neighbor, index, l, maxDegree);
+                }
+                current = found.get(0).node();
+            }
+            if (level > topLevel) {
+                entryPoint = index;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code k} ids with the highest similarity to the query, best first.
+     */
+    public List<Hit> search(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) return List.of();
+            int current = entryPoint;
+            for (int l = nodes.get(entryPoint).level(); l > 0; l--) {
+                current = greedyClosest(query, current, l);
+            }
+            List<Candidate> found = searchLayer(query, current, Math.max(efSearch, k), 0);
+            List<Hit> hits = new ArrayList<>(Math.min(k, found.size()));
+            for (int i = 0; i < Math.min(k, found.size()); i++) {
+                Candidate c = found.get(i);
+                hits.add(new Hit(nodes.get(c.node()).id, c.score()));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        double best = EmbeddingService.similarity(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            for (int i = 0; i < node.degree[level]; i++) {
+                int neighbor = node.neighbors[level][i];
+                double score = EmbeddingService.similarity(query, nodes.get(neighbor).vector);
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer, keeping the {@code ef} closest nodes seen. Returns them best first.
+     */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(WORST_FIRST);
+        Candidate first = new Candidate(start, EmbeddingService.similarity(query, nodes.get(start).vector));
+        visited.set(start);
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate closest = frontier.poll();
+            if (results.size() >= ef && closest.score() < results.peek().score()) break;
+            Node node = nodes.get(closest.node());
+            for (int i = 0; i < node.degree[level]; i++) {
+                int neighbor = node.neighbors[level][i];
+                if (visited.get(neighbor)) continue;
+                visited.set(neighbor);
+                double score = EmbeddingService.similarity(query, nodes.get(neighbor).vector);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Candidate candidate = new Candidate(neighbor, score);
+                    frontier.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort(BEST_FIRST);
+        return ordered;
+    }
+
+    /**
+     * Adds a directed edge, dropping the least similar neighbour when the list is full.
+     */
+    private void link(int from, int to, int level, int maxDegree) {
+        Node node = nodes.get(from);
+        int[] list = node.neighbors[level];
+        for (int i = 0; i < node.degree[level]; i++) {
+            if (list[i] == to) return;
+        }
+        list[node.degree[level]++] = to;
+        if (node.degree[level] <= maxDegree) return;
+
+        int worst = 0;
+        double worstScore = Double.MAX_VALUE;
+        for (int i = 0; i < node.degree[level]; i++) {
+            double score = EmbeddingService.similarity(node.vector, nodes.get(list[i]).vector);
+            if (score < worstScore) {
+                worstScore = score;
+                worst = i;
+            }
+        }
+        list[worst] = list[--node.degree[level]];
+    }
+}
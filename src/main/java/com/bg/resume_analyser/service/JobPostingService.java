@@ -0,0 +1,259 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.JobPosting;
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.ResumeIndex;
+import com.bg.resume_analyser.model.request.JobDescriptionRequest;
+import com.bg.resume_analyser.repository.JobPostingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps job descriptions as {@link JobPosting}s and ranks them for a resume. Postings are stored
+ * once per distinct text. Their profile (requirements) and embedding are prepared when they are
+ * submitted or scored directly, or on the next ranking for postings recorded in passing by the
+ * tailoring pipeline. Ranking searches an HNSW index of posting embeddings and re-scores only the
+ * shortlist with {@link MatchingService}, using the stored profile so nothing is re-extracted per
+ * posting.
+ */
+@Service
+public class JobPostingService {
+
+    // Top keywords per score, as in MatchingService.computeScore
+    private static final int SCORE_KEYWORDS = 5;
+
+    private final JobPostingRepository jobPostingRepository;
+    private final EmbeddingService embeddingService;
+    private final MatchingService matchingService;
+    private final ResumeIndexService resumeIndexService;
+    private final KeywordExtractor keywordExtractor;
+    private final JobProfileExtractor jobProfileExtractor;
+    private final JobDescriptionService jobDescriptionService;
+    private final HnswIndex index;
+    private final int candidates;
+    private final int indexBatchSize;
+    private final Object indexLock = new Object();
+
+    public JobPostingService(JobPostingRepository jobPostingRepository,
+                             EmbeddingService embeddingService,
+                             MatchingService matchingService,
+                             ResumeIndexService resumeIndexService,
+                             KeywordExtractor keywordExtractor,
+                             JobProfileExtractor jobProfileExtractor,
+                             JobDescriptionService jobDescriptionService,
+                             @Value("${ranking.hnsw.m:16}") int m,
+                             @Value("${ranking.hnsw.ef-construction:100}") int efConstruction,
+                             @Value("${ranking.hnsw.ef-search:64}") int efSearch,
+                             @Value("${ranking.rerank-candidates:50}") int candidates,
+                             @Value("${ranking.index-batch-size:256}") int indexBatchSize) {
+        this.jobPostingRepository = jobPostingRepository;
+        this.embeddingService = embeddingService;
+        this.matchingService = matchingService;
+        this.resumeIndexService = resumeIndexService;
+        this.keywordExtractor = keywordExtractor;
+        this.jobProfileExtractor = jobProfileExtractor;
+        this.jobDescriptionService = jobDescriptionService;
+        this.index = new HnswIndex(m, efConstruction, efSearch);
+        this.candidates = Math.max(1, candidates);
+        this.indexBatchSize = Math.max(1, indexBatchSize);
+    }
+
+    /**
+     * Stores the posting if its text has not been seen before. Cheap: requirements and embedding
+     * are left for {@link #submit} or the next ranking.
+     */
+    public JobPosting record(String vacancyUrl, String text) {
+        String hash = ContentHash.sha256(ContentHash.normalize(text));
+        return jobPostingRepository.findByContentHash(hash).orElseGet(() -> {
+            try {
+                JobPosting saved = jobPostingRepository.save(new JobPosting(vacancyUrl, text, hash));
+                keywordExtractor.ingest(text);
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                // Recorded concurrently by another request
+                return jobPostingRepository.findByContentHash(hash).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    /**
+     * Stores the posting and prepares it for ranking straight away.
+     */
+    public JobPosting submit(String vacancyUrl, String text) throws Exception {
+        JobPosting posting = record(vacancyUrl, text);
+        prepare(List.of(posting));
+        index.add(posting.getId(), posting.getEmbeddingVector());
+        return posting;
+    }
+
+    /**
+     * The stored posting for a request's job description. A vacancy URL that was fetched before is
+     * not fetched again.
+     */
+    public JobPosting resolve(JobDescriptionRequest request) throws IOException {
+        if (request.getJobDescription() != null && !request.getJobDescription().isBlank()) {
+            return record(request.getVacancyUrl(), request.getJobDescription());
+        }
+        if (request.getVacancyUrl() == null || request.getVacancyUrl().isBlank()) {
+            throw new IllegalArgumentException("Either vacancyUrl or jobDescription is required.");
+        }
+        Optional<JobPosting> known = jobPostingRepository.findFirstByVacancyUrlOrderByIdDesc(request.getVacancyUrl());
+        if (known.isPresent()) return known.get();
+        return record(request.getVacancyUrl(), jobDescriptionService.getJobDescriptionFromUrl(request.getVacancyUrl()));
+    }
+
+    /**
+     * Scores a resume against one posting. The posting's profile is extracted on first use and
+     * reused for every later score against the same text. Embeddings are optional here, so this
+     * works without an API key.
+     */
+    public Map<String, Object> scoreResume(Resume resume, JobPosting posting) throws Exception {
+        boolean cached = posting.hasRequirements();
+        if (!cached) {
+            jobProfileExtractor.apply(posting);
+            posting = jobPostingRepository.save(posting);
+        }
+        ResumeIndex resumeIndex = resumeIndexService.forResume(resume);
+        double similarity = matchingService.getEmbeddingSimilarities(resumeIndex.text(), List.of(posting.getText())).get(0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resumeId", resume.getId());
+        result.put("postingId", posting.getId());
+        result.putAll(score(resumeIndex, similarity, posting));
+        result.put("profile", summarise(List.of(posting)).get(0));
+        result.put("profileCached", cached);
+        return result;
+    }
+
+    public Map<String, Object> rankForResume(Resume resume, int topK) throws Exception {
+        ResumeIndex resumeIndex = resumeIndexService.forResume(resume);
+        long start = System.nanoTime();
+        int added = syncIndex();
+        long indexed = System.nanoTime();
+
+        List<HnswIndex.Hit> hits = index.search(embeddingService.embed(resumeIndex.text()), Math.max(topK, candidates));
+        long searched = System.nanoTime();
+
+        Map<Long, JobPosting> postings = jobPostingRepository.findAllById(hits.stream().map(HnswIndex.Hit::id).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(JobPosting::getId, Function.identity()));
+        List<Map<String, Object>> ranked = new ArrayList<>(hits.size());
+        for (HnswIndex.Hit hit : hits) {
+            JobPosting posting = postings.get(hit.id());
+            if (posting == null) continue;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("postingId", posting.getId());
+            entry.put("vacancyUrl", posting.getVacancyUrl());
+            entry.put("positionTitle", posting.getPositionTitle());
+            entry.put("vectorSimilarity", Math.round(hit.score() * 1000) / 1000.0);
+            entry.putAll(score(resumeIndex, hit.score(), posting));
+            ranked.add(entry);
+        }
+        ranked.sort(Comparator.<Map<String, Object>>comparingLong(e -> ((Number) e.get("score")).longValue())
+                .thenComparingDouble(e -> (Double) e.get("vectorSimilarity"))
+                .reversed());
+        long reranked = System.nanoTime();
+
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("indexMs", (indexed - start) / 1_000_000);
+        timings.put("searchMs", (searched - indexed) / 1_000_000);
+        timings.put("rerankMs", (reranked - searched) / 1_000_000);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("resumeId", resume.getId());
+        result.put("results", ranked.subList(0, Math.min(topK, ranked.size())));
+        result.put("indexedPostings", index.size());
+        result.put("newlyIndexed", added);
+        result.put("candidates", ranked.size());
+        result.put("timings", timings);
+        System.out.println("[JobPostingService] Ranked " + ranked.size() + " of " + index.size() + " posting(s) in "
+                + (reranked - start) / 1_000_000 + " ms " + timings);
+        return result;
+    }
+
+    private Map<String, Object> score(ResumeIndex resumeIndex, double similarity, JobPosting posting) {
+        List<String> keywords = posting.getKeywordList();
+        return matchingService.computeScore(resumeIndex, similarity, keywords.subList(0, Math.min(SCORE_KEYWORDS, keywords.size())),
+                posting.getTechnicalSkillList().toArray(new String[0]),
+                posting.getSoftSkillList().toArray(new String[0]),
+                posting.getYearsRequired() == null ? 0 : posting.getYearsRequired(),
+                posting.getPositionTitle() == null ? "" : posting.getPositionTitle(),
+                posting.getMainFunctionList().toArray(new String[0]));
+    }
+
+    private int syncIndex() throws Exception {
+        synchronized (indexLock) {
+            List<Long> missing = jobPostingRepository.findAllIds().stream()
+                    .filter(id -> !index.contains(id))
+                    .collect(Collectors.toList());
+            for (int from = 0; from < missing.size(); from += indexBatchSize) {
+                List<JobPosting> batch = jobPostingRepository.findAllById(missing.subList(from, Math.min(missing.size(), from + indexBatchSize)));
+                prepare(batch);
+                for (JobPosting posting : batch) {
+                    index.add(posting.getId(), posting.getEmbeddingVector());
+                }
+            }
+            if (!missing.isEmpty()) {
+                System.out.println("[JobPostingService] Indexed " + missing.size() + " posting(s); index holds " + index.size());
+            }
+            return missing.size();
+        }
+    }
+
+    /**
+     * Fills in missing profiles and embeddings. Embeddings for the whole batch are fetched in
+     * one request.
+     */
+    private void prepare(List<JobPosting> postings) throws Exception {
+        List<JobPosting> changed = new ArrayList<>();
+        for (JobPosting posting : postings) {
+            if (posting.hasRequirements()) continue;
+            jobProfileExtractor.apply(posting);
+            changed.add(posting);
+        }
+
+        List<JobPosting> unembedded = postings.stream().filter(p -> p.getEmbedding() == null).collect(Collectors.toList());
+        if (!unembedded.isEmpty()) {
+            List<float[]> vectors = embeddingService.embedAll(unembedded.stream().map(JobPosting::getText).collect(Collectors.toList()));
+            for (int i = 0; i < unembedded.size(); i++) {
+                unembedded.get(i).setEmbeddingVector(vectors.get(i));
+                if (!changed.contains(unembedded.get(i))) changed.add(unembedded.get(i));
+            }
+        }
+        if (!changed.isEmpty()) {
+            jobPostingRepository.saveAll(changed);
+        }
+    }
+
+    public boolean isAvailable() {
+        return embeddingService.isAvailable();
+    }
+
+    public List<Map<String, Object>> summarise(List<JobPosting> postings) {
+        List<Map<String, Object>> summaries = new ArrayList<>(postings.size());
+        for (JobPosting posting : postings) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", posting.getId());
+            summary.put("vacancyUrl", posting.getVacancyUrl());
+            summary.put("positionTitle", posting.getPositionTitle());
+            summary.put("yearsRequired", posting.getYearsRequired());
+            summary.put("keywords", posting.getKeywordList());
+            summary.put("technicalSkills", posting.getTechnicalSkillList());
+            summary.put("softSkills", posting.getSoftSkillList());
+            summary.put("mainFunctions", posting.getMainFunctionList());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+}
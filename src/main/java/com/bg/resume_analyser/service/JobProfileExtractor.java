@@ -0,0 +1,101 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.JobPosting;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives a job posting's profile with local rules: position title, years required, top keywords,
+ * technical skills (from the skills vocabulary), soft skills (from {@code soft-skills.txt}) and
+ * main functions (the top terms of the responsibilities section). No remote calls, so a profile
+ * costs microseconds and is extracted once per distinct job description.
+ */
+@Service
+public class JobProfileExtractor {
+
+    static final int KEYWORDS = 10;
+    private static final int MAX_SKILLS = 15;
+    private static final int MAX_FUNCTIONS = 6;
+
+    private static final Pattern YEARS = Pattern.compile("(\\d{1,2})\\s*\\+?\\s*(?:years|yrs)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RESPONSIBILITIES_HEADING = Pattern.compile(
+            "^(key )?(responsibilities|duties|tasks|what you('ll| will) do|your role|the role|your impact|in this role you will)\\b.*",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern OTHER_HEADING = Pattern.compile(
+            "^(requirements|qualifications|what you('ll| will)? (need|bring)|what we offer|benefits|about (us|the company)|skills|must have|nice to have|who you are|perks)\\b.*",
+            Pattern.CASE_INSENSITIVE);
+
+    private final KeywordExtractor keywordExtractor;
+    private final KeywordMatcher softSkills;
+
+    public JobProfileExtractor(KeywordExtractor keywordExtractor) {
+        this.keywordExtractor = keywordExtractor;
+        this.softSkills = new KeywordMatcher(KeywordExtractor.loadTerms("/soft-skills.txt"));
+    }
+
+    /**
+     * Fills in the posting's profile fields from its text.
+     */
+    public void apply(JobPosting posting) {
+        String text = posting.getText();
+        posting.setPositionTitle(guessPositionTitle(text));
+        posting.setYearsRequired(extractYearsRequired(text));
+        posting.setKeywords(String.join(",", keywordExtractor.extract(text, KEYWORDS)));
+        posting.setTechnicalSkills(String.join(",", keywordExtractor.vocabularyTerms(text, MAX_SKILLS)));
+        posting.setSoftSkills(String.join(",", softSkills(text)));
+        posting.setMainFunctions(String.join(",", keywordExtractor.rank(responsibilities(text), MAX_FUNCTIONS)));
+    }
+
+    private List<String> softSkills(String text) {
+        Map<String, Integer> counts = softSkills.countWords(text);
+        List<String> found = new ArrayList<>(counts.keySet());
+        found.sort(null);
+        return found.subList(0, Math.min(MAX_SKILLS, found.size()));
+    }
+
+    /**
+     * The lines under a responsibilities heading, up to the next known heading; empty when there is none.
+     */
+    static String responsibilities(String text) {
+        if (text == null) return "";
+        StringBuilder section = new StringBuilder();
+        boolean inSection = false;
+        for (String line : text.split("\\R")) {
+            String heading = line.trim().replaceAll("[:\\s]+$", "");
+            if (RESPONSIBILITIES_HEADING.matcher(heading).matches() && heading.length() <= 60) {
+                inSection = true;
+                continue;
+            }
+            if (inSection && OTHER_HEADING.matcher(heading).matches() && heading.length() <= 60) {
+                break;
+            }
+            if (inSection) section.append(line).append('\n');
+        }
+        return section.toString();
+    }
+
+    /**
+     * The first non-blank line, which for pasted and scraped postings is almost always the title.
+     */
+    static String guessPositionTitle(String text) {
+        if (text == null) return "";
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                return trimmed.length() > 120 ? trimmed.substring(0, 120) : trimmed;
+            }
+        }
+        return "";
+    }
+
+    static int extractYearsRequired(String text) {
+        if (text == null) return 0;
+        Matcher matcher = YEARS.matcher(text);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,221 @@
+package com.bg.resume_analyser.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extracts the top keywords of a job description locally, with BM25 weights over the job
+ * descriptions seen so far. Document frequencies are updated incrementally as each distinct job
+ * description is ingested, so terms every posting repeats sink and distinctive ones rise. Terms
+ * from the skills vocabulary ({@code skills.txt}) are matched as phrases and boosted. Results are
+ * cached by a hash of the normalised text and recomputed once the corpus has grown by more than a
+ * tenth since they were ranked. Only the most recent distinct texts are remembered for deduplication,
+ * so a text seen long ago may be counted again.
+ */
+@Service
+public class KeywordExtractor {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double VOCABULARY_BOOST = 2.0;
+    // Cached rankings are reused until the corpus has grown by this fraction
+    private static final double STALE_CORPUS_GROWTH = 0.1;
+
+    // Words every job description uses that say nothing about the role
+    private static final Set<String> JOB_STOPWORDS = Set.of(
+            "about", "ability", "able", "all", "also", "any", "apply", "benefits", "both", "business", "can",
+            "candidate", "candidates", "company", "day", "do", "etc", "excellent", "experience", "experienced",
+            "good", "great", "have", "help", "ideal", "job", "join", "knowledge", "looking", "make", "more", "must",
+            "new", "not", "offer", "opportunity", "other", "plus", "preferred", "required", "requirements",
+            "responsibilities", "responsible", "role", "skills", "strong", "such", "team", "teams", "us", "what",
+            "who", "work", "working", "year", "years", "yrs", "which", "well", "would", "should", "has",
+            "been", "but", "if", "so", "they", "them", "than", "then", "these", "those", "per", "via", "based");
+
+    private final KeywordMatcher vocabulary;
+    private final Map<String, Integer> documentFrequencies = new ConcurrentHashMap<>();
+    private final Set<String> ingested;
+    private final AtomicInteger documents = new AtomicInteger();
+    private final AtomicLong totalLength = new AtomicLong();
+    private final Map<String, Entry> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    private record Entry(List<String> keywords, int documents) {
+    }
+
+    public KeywordExtractor(@Value("${matching.keywords.cache.max-entries:1024}") int maxCacheEntries,
+                            @Value("${matching.keywords.corpus.max-tracked:100000}") int maxTrackedDocuments) {
+        this.vocabulary = new KeywordMatcher(loadTerms("/skills.txt"));
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
+        this.ingested = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxTrackedDocuments;
+            }
+        }));
+        System.out.println("[KeywordExtractor] Loaded " + vocabulary.size() + " skills vocabulary term(s).");
+    }
+
+    /**
+     * Adds a job description to the corpus statistics. Each distinct text is counted once.
+     */
+    public void ingest(String jobText) {
+        ingest(ContentHash.sha256(ContentHash.normalize(jobText)), jobText);
+    }
+
+    /**
+     * The {@code limit} highest-weighted keywords of the job description, best first. The text is
+     * ingested first, so a job description always counts towards its own statistics.
+     */
+    public List<String> extract(String jobText, int limit) {
+        if (jobText == null || jobText.isBlank() || limit <= 0) return List.of();
+        String hash = ContentHash.sha256(ContentHash.normalize(jobText));
+        String key = hash + ":" + limit;
+        synchronized (cache) {
+            Entry cached = cache.get(key);
+            if (cached != null && documents.get() <= cached.documents() * (1 + STALE_CORPUS_GROWTH)) {
+                hits.incrementAndGet();
+                return cached.keywords();
+            }
+            if (cached != null) stale.incrementAndGet();
+        }
+        misses.incrementAndGet();
+        ingest(hash, jobText);
+        int corpus = documents.get();
+        List<String> keywords = Collections.unmodifiableList(rank(jobText, limit));
+        synchronized (cache) {
+            cache.put(key, new Entry(keywords, corpus));
+        }
+        return keywords;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", documents.get());
+        stats.put("terms", documentFrequencies.size());
+        stats.put("vocabulary", vocabulary.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("stale", stale.get());
+        synchronized (cache) {
+            stats.put("entries", cache.size());
+        }
+        return stats;
+    }
+
+    private void ingest(String hash, String jobText) {
+        if (jobText == null || jobText.isBlank() || !ingested.add(hash)) return;
+        Map<String, Integer> tf = termFrequencies(jobText, vocabulary.countWords(jobText));
+        for (String term : tf.keySet()) {
+            documentFrequencies.merge(term, 1, Integer::sum);
+        }
+        totalLength.addAndGet(ExperienceBulletRanker.tokenize(jobText).size());
+        documents.incrementAndGet();
+    }
+
+    /**
+     * Skills vocabulary terms that occur in the text as whole words, most frequent first.
+     */
+    public List<String> vocabularyTerms(String text, int limit) {
+        Map<String, Integer> counts = vocabulary.countWords(text);
+        List<String> terms = new ArrayList<>(counts.keySet());
+        terms.sort(Comparator.<String>comparingInt(counts::get).reversed().thenComparing(Comparator.naturalOrder()));
+        return terms.subList(0, Math.min(limit, terms.size()));
+    }
+
+    /**
+     * Ranks the terms of a passage against the current statistics without ingesting or caching it,
+     * e.g. for one section of a job description.
+     */
+    public List<String> rank(String jobText, int limit) {
+        if (jobText == null || jobText.isBlank() || limit <= 0) return List.of();
+        Map<String, Integer> phrases = vocabulary.countWords(jobText);
+        Map<String, Integer> tf = termFrequencies(jobText, phrases);
+        int length = ExperienceBulletRanker.tokenize(jobText).size();
+        int n = Math.max(1, documents.get());
+        double avgLength = Math.max(1.0, (double) totalLength.get() / n);
+
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : tf.entrySet()) {
+            int df = documentFrequencies.getOrDefault(entry.getKey(), 1);
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            double f = entry.getValue();
+            double weight = idf * f * (K1 + 1) / (f + K1 * (1 - B + B * length / avgLength));
+            if (phrases.containsKey(entry.getKey())) weight *= VOCABULARY_BOOST;
+            weights.put(entry.getKey(), weight);
+        }
+
+        List<String> ranked = new ArrayList<>(weights.keySet());
+        ranked.sort(Comparator.<String>comparingDouble(weights::get).reversed().thenComparing(Comparator.naturalOrder()));
+        List<String> keywords = new ArrayList<>(limit);
+        for (String term : ranked) {
+            if (keywords.size() == limit) break;
+            // A phrase replaces the words it contains, e.g. "spring boot" covers "spring"
+            if (keywords.stream().anyMatch(k -> covers(k, term))) continue;
+            keywords.removeIf(k -> covers(term, k));
+            keywords.add(term);
+        }
+        return keywords;
+    }
+
+    private static boolean covers(String phrase, String word) {
+        return phrase.contains(" ") && (" " + phrase + " ").contains(" " + word + " ");
+    }
+
+    /**
+     * Counts of the candidate terms: single words that are not stopwords or numbers, and
+     * vocabulary phrases.
+     */
+    private static Map<String, Integer> termFrequencies(String jobText, Map<String, Integer> phrases) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : ExperienceBulletRanker.tokenize(jobText)) {
+            if (JOB_STOPWORDS.contains(term) || Character.isDigit(term.charAt(0))) continue;
+            tf.merge(term, 1, Integer::sum);
+        }
+        phrases.forEach((phrase, count) -> tf.merge(phrase, count, Math::max));
+        return tf;
+    }
+
+    /**
+     * Non-blank, non-comment lines of a classpath resource; empty when the resource is missing.
+     */
+    static List<String> loadTerms(String resource) {
+        List<String> terms = new ArrayList<>();
+        try (InputStream in = KeywordExtractor.class.getResourceAsStream(resource)) {
+            if (in == null) return terms;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String term = line.strip();
+                if (!term.isEmpty() && !term.startsWith("#")) terms.add(term);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + resource, e);
+        }
+        return terms;
+    }
+}
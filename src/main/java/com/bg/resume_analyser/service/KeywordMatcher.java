@@ -0,0 +1,197 @@
+package com.bg.resume_analyser.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds many terms in a text in one linear pass with an Aho-Corasick automaton. Matching is case
+ * insensitive; the text is lower-cased once per scan. Each term is reported both as a substring hit
+ * and, when the characters around it are not letters, digits or underscores, as a whole-word hit.
+ * A matcher is immutable and can be built once and used to scan many texts.
+ */
+public final class KeywordMatcher {
+
+    /**
+     * The terms found in one text.
+     */
+    public static final class Hits {
+        private final Set<String> words;
+        private final Set<String> substrings;
+
+        private Hits(Set<String> words, Set<String> substrings) {
+            this.words = words;
+            this.substrings = substrings;
+        }
+
+        /**
+         * True when the term occurs with a word boundary on each side, like {@code \bterm\b}.
+         */
+        public boolean containsWord(String term) {
+            return term != null && words.contains(normalize(term));
+        }
+
+        /**
+         * True when the term occurs anywhere, including inside a longer word.
+         */
+        public boolean containsSubstring(String term) {
+            return term != null && substrings.contains(normalize(term));
+        }
+    }
+
+    private final String[] terms;
+    private final int[] termLengths;
+    // Characters that occur in some term map to columns 1..n; every other character is column 0
+    private final char[] asciiColumns = new char[128];
+    private final Map<Character, Integer> otherColumns = new HashMap<>();
+    private final int[][] transitions;
+    private final int[][] outputs;
+
+    public KeywordMatcher(Collection<String> terms) {
+        Map<String, Integer> unique = new LinkedHashMap<>();
+        for (String term : terms) {
+            if (term == null) continue;
+            String normalized = normalize(term);
+            if (!normalized.isEmpty()) unique.putIfAbsent(normalized, unique.size());
+        }
+        this.terms = unique.keySet().toArray(new String[0]);
+        this.termLengths = Arrays.stream(this.terms).mapToInt(String::length).toArray();
+
+        int columns = 1;
+        for (String term : this.terms) {
+            for (char c : term.toCharArray()) {
+                if (column(c) == 0) {
+                    if (c < 128) asciiColumns[c] = (char) columns++;
+                    else otherColumns.put(c, columns++);
+                }
+            }
+        }
+
+        // Trie
+        List<int[]> gotos = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        gotos.add(new int[columns]);
+        ends.add(new ArrayList<>());
+        for (int t = 0; t < this.terms.length; t++) {
+            int state = 0;
+            for (char c : this.terms[t].toCharArray()) {
+                int col = column(c);
+                if (gotos.get(state)[col] == 0) {
+                    gotos.get(state)[col] = gotos.size();
+                    gotos.add(new int[columns]);
+                    ends.add(new ArrayList<>());
+                }
+                state = gotos.get(state)[col];
+            }
+            ends.get(state).add(t);
+        }
+
+        // Breadth-first failure links, folded into a complete transition table
+        int states = gotos.size();
+        int[] failure = new int[states];
+        transitions = new int[states][];
+        outputs = new int[states][];
+        transitions[0] = gotos.get(0).clone();
+        outputs[0] = new int[0];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int col = 1; col < columns; col++) {
+            if (transitions[0][col] != 0) queue.add(transitions[0][col]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = gotos.get(state).clone();
+            List<Integer> out = new ArrayList<>(ends.get(state));
+            for (int t : outputs[failure[state]]) out.add(t);
+            outputs[state] = out.stream().mapToInt(Integer::intValue).toArray();
+            for (int col = 1; col < columns; col++) {
+                int next = row[col];
+                if (next != 0) {
+                    failure[next] = transitions[failure[state]][col];
+                    queue.add(next);
+                } else {
+                    row[col] = transitions[failure[state]][col];
+                }
+            }
+            transitions[state] = row;
+        }
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    public Hits scan(String text) {
+        return scanLowerCase(text == null ? null : normalize(text));
+    }
+
+    /**
+     * Scans text that the caller has already lower-cased with {@link Locale#ROOT}, skipping the copy.
+     */
+    public Hits scanLowerCase(String lower) {
+        Set<String> words = new HashSet<>();
+        Set<String> substrings = new HashSet<>();
+        match(lower, (term, word) -> {
+            substrings.add(term);
+            if (word) words.add(term);
+        });
+        return new Hits(words, substrings);
+    }
+
+    /**
+     * How many times each term occurs as a whole word; terms that do not occur are absent.
+     */
+    public Map<String, Integer> countWords(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        match(text == null ? null : normalize(text), (term, word) -> {
+            if (word) counts.merge(term, 1, Integer::sum);
+        });
+        return counts;
+    }
+
+    private interface MatchVisitor {
+        void accept(String term, boolean word);
+    }
+
+    private void match(String lower, MatchVisitor visitor) {
+        if (lower == null || terms.length == 0) return;
+        int state = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            state = transitions[state][column(lower.charAt(i))];
+            for (int t : outputs[state]) {
+                int start = i - termLengths[t] + 1;
+                visitor.accept(terms[t], isBoundary(lower, terms[t], start, i));
+            }
+        }
+    }
+
+    /**
+     * Same rule as the regex {@code \b}: a term edge that is a word character must not touch another
+     * word character. Edges that are punctuation (e.g. "c++") need no boundary.
+     */
+    private static boolean isBoundary(String text, String term, int start, int end) {
+        if (isWordChar(term.charAt(0)) && start > 0 && isWordChar(text.charAt(start - 1))) return false;
+        return !isWordChar(term.charAt(term.length() - 1)) || end + 1 >= text.length() || !isWordChar(text.charAt(end + 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private int column(char c) {
+        if (c < 128) return asciiColumns[c];
+        Integer col = otherColumns.get(c);
+        return col == null ? 0 : col;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,555 @@
+package com.bg.resume_analyser.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Shared HTTP client for the OpenAI API. Uses one pooled keep-alive {@link HttpClient} with a
+ * connect timeout and a deadline per call, a client-side rate limiter fed by the
+ * {@code x-ratelimit-*} headers, retries with jittered exponential backoff on 429/5xx and
+ * connection errors, and a circuit breaker that fails fast while the API is unhealthy. Calls made
+ * through the {@code *Hedged} methods may additionally be duplicated when they run slow, as decided
+ * by the {@link HedgingPolicy}.
+ */
+@Service
+public class LlmClient {
+
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+
+    /** Receives each line of a streamed (SSE) response body. */
+    @FunctionalInterface
+    public interface LineHandler {
+        void onLine(String line) throws IOException;
+    }
+
+    /** Raised for failed LLM calls; {@code status} is 0 when no HTTP response was received. */
+    public static class LlmClientException extends IOException {
+        private final int status;
+
+        public LlmClientException(String message, int status, Throwable cause) {
+            super(message, cause);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final String apiKey;
+    private final String baseUrl;
+    private final Duration defaultTimeout;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    private final HttpClient httpClient;
+    private final LlmRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledExecutorService watchdog;
+    private final HedgingPolicy hedging;
+    private final ExecutorService hedgeExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public LlmClient(@Value("${spring.ai.openai.api-key:}") String apiKey,
+                     @Value("${openai.base-url:https://api.openai.com}") String baseUrl,
+                     @Value("${openai.client.connect-timeout-ms:5000}") long connectTimeoutMs,
+                     @Value("${openai.client.default-timeout-ms:60000}") long defaultTimeoutMs,
+                     @Value("${openai.client.max-attempts:3}") int maxAttempts,
+                     @Value("${openai.client.backoff-base-ms:500}") long backoffBaseMs,
+                     @Value("${openai.client.backoff-max-ms:8000}") long backoffMaxMs,
+                     @Value("${openai.client.rate-limit.requests-per-minute:500}") long requestsPerMinute,
+                     @Value("${openai.client.rate-limit.tokens-per-minute:200000}") long tokensPerMinute,
+                     @Value("${openai.client.circuit.failure-threshold:5}") int failureThreshold,
+                     @Value("${openai.client.circuit.open-ms:30000}") long circuitOpenMs,
+                     HedgingPolicy hedging) {
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.defaultTimeout = Duration.ofMillis(defaultTimeoutMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.rateLimiter = new LlmRateLimiter(requestsPerMinute, tokensPerMinute);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(circuitOpenMs));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "llm-client-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.hedging = hedging;
+        AtomicLong hedgeThreads = new AtomicLong();
+        this.hedgeExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "llm-hedge-" + hedgeThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    /**
+     * POSTs a JSON payload and returns the parsed response body. The timeout bounds the whole call,
+     * including rate-limit waits and retries.
+     */
+    public JsonNode postJson(String path, Map<String, Object> payload, Duration timeout) throws IOException {
+        return objectMapper.readTree(postForBody(path, payload, timeout));
+    }
+
+    /**
+     * Like {@link #postJson} but returns the raw response body, for callers that parse large
+     * responses themselves instead of building a tree.
+     */
+    public byte[] postForBody(String path, Map<String, Object> payload, Duration timeout) throws IOException {
+        String body = objectMapper.writeValueAsString(payload);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return withRetries(path, body, estimateTokens(payload, body), deadline, request -> {
+            HttpResponse<byte[]> response = await(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()), deadline);
+            rateLimiter.update(response.headers());
+            if (response.statusCode() >= 400) {
+                checkStatus(response.statusCode(), new String(response.body(), StandardCharsets.UTF_8), response.headers());
+            }
+            return response.body();
+        });
+    }
+
+    /**
+     * POSTs a JSON payload and passes each line of the streamed response to the handler. Retries only
+     * happen before the first line has been handed over; the stream is closed when the deadline passes.
+     */
+    public void postStreaming(String path, Map<String, Object> payload, Duration timeout, LineHandler handler) throws IOException {
+        postStreaming(path, payload, timeout, handler, in -> { });
+    }
+
+    /**
+     * Like {@link #postJson}, but when hedging is enabled a duplicate request is sent if no response
+     * has arrived by the hedge delay of {@code operation}; the first successful response wins and
+     * the other request is cancelled.
+     */
+    public JsonNode postJsonHedged(String operation, String path, Map<String, Object> payload, Duration timeout) throws IOException {
+        if (!hedging.isEnabled()) return postJson(path, payload, timeout);
+        return hedged(operation, attempt -> {
+            JsonNode response = postJson(path, payload, timeout);
+            if (!attempt.claim()) throw new CancellationException("Lost hedge race.");
+            return response;
+        });
+    }
+
+    /**
+     * Like {@link #postStreaming}, but when hedging is enabled a duplicate request is sent if no line
+     * has arrived by the hedge delay of {@code operation}. The first request to produce a line owns
+     * the handler; the other request is cancelled.
+     */
+    public void postStreamingHedged(String operation, String path, Map<String, Object> payload, Duration timeout, LineHandler handler) throws IOException {
+        if (!hedging.isEnabled()) {
+            postStreaming(path, payload, timeout, handler);
+            return;
+        }
+        hedged(operation, attempt -> {
+            postStreaming(path, payload, timeout, line -> {
+                if (!attempt.claim()) throw new CancellationException("Lost hedge race.");
+                handler.onLine(line);
+            }, attempt::attachStream);
+            return null;
+        });
+    }
+
+    private void postStreaming(String path, Map<String, Object> payload, Duration timeout, LineHandler handler, Consumer<Closeable> onOpen) throws IOException {
+        String body = objectMapper.writeValueAsString(payload);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        withRetries(path, body, estimateTokens(payload, body), deadline, request -> {
+            HttpResponse<InputStream> response = await(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()), deadline);
+            rateLimiter.update(response.headers());
+            if (response.statusCode() >= 400) {
+                String errorBody;
+                try (InputStream in = response.body()) {
+                    errorBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                checkStatus(response.statusCode(), errorBody, response.headers());
+            }
+
+            InputStream in = response.body();
+            onOpen.accept(in);
+            ScheduledFuture<?> guard = watchdog.schedule(() -> closeQuietly(in), Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    handler.onLine(line);
+                }
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // The stream was closed because the call was cancelled, e.g. a hedge that lost its race
+                    throw new LlmClientException("LLM stream cancelled.", 0, e);
+                }
+                if (System.nanoTime() >= deadline) {
+                    timeouts.incrementAndGet();
+                    throw new StreamInterruptedException(new LlmClientException("LLM stream exceeded its deadline.", 0, e));
+                }
+                throw new StreamInterruptedException(e);
+            } finally {
+                guard.cancel(false);
+            }
+            return null;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.get());
+        stats.put("retries", retries.get());
+        stats.put("failures", failures.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("circuit", circuitBreaker.getStats());
+        stats.put("rateLimit", rateLimiter.getStats());
+        stats.put("hedging", hedging.getStats());
+        return stats;
+    }
+
+    @FunctionalInterface
+    private interface HedgedCall<T> {
+        T run(HedgeAttempt attempt) throws IOException;
+    }
+
+    /** Shared state of one hedged call: the attempts racing and the one that won. */
+    private final class HedgeRace {
+        final String operation;
+        final long startedNanos = System.nanoTime();
+        final CountDownLatch settled = new CountDownLatch(1);
+        final AtomicReference<HedgeAttempt> winner = new AtomicReference<>();
+        final List<HedgeAttempt> attempts = new CopyOnWriteArrayList<>();
+
+        HedgeRace(String operation) {
+            this.operation = operation;
+        }
+
+        <T> void start(ExecutorCompletionService<T> completions, HedgedCall<T> call, boolean hedge) {
+            HedgeAttempt attempt = new HedgeAttempt(this, hedge);
+            attempts.add(attempt);
+            attempt.future = completions.submit(() -> {
+                try {
+                    return call.run(attempt);
+                } finally {
+                    // A failed attempt settles the race too; hedging a request that errors fast is pointless
+                    settled.countDown();
+                }
+            });
+        }
+
+        void cancelAll() {
+            for (HedgeAttempt attempt : attempts) {
+                attempt.cancel();
+            }
+        }
+    }
+
+    /** One request of a hedged call. */
+    private final class HedgeAttempt {
+        final HedgeRace race;
+        final boolean hedge;
+        volatile Future<?> future;
+        volatile Closeable stream;
+
+        HedgeAttempt(HedgeRace race, boolean hedge) {
+            this.race = race;
+            this.hedge = hedge;
+        }
+
+        /**
+         * Claims the race for this attempt and cancels the others. Returns false if another attempt
+         * already won.
+         */
+        boolean claim() {
+            if (race.winner.get() == this) return true;
+            if (!race.winner.compareAndSet(null, this)) return false;
+            race.settled.countDown();
+            hedging.recordLatency(race.operation, System.nanoTime() - race.startedNanos);
+            if (hedge) hedging.recordHedgeWon();
+            for (HedgeAttempt other : race.attempts) {
+                if (other != this) other.cancel();
+            }
+            return true;
+        }
+
+        void attachStream(Closeable in) {
+            stream = in;
+            HedgeAttempt winner = race.winner.get();
+            if (winner != null && winner != this) closeQuietly(in);
+        }
+
+        void cancel() {
+            Future<?> f = future;
+            if (f != null) f.cancel(true);
+            Closeable in = stream;
+            if (in != null) closeQuietly(in);
+        }
+    }
+
+    private <T> T hedged(String operation, HedgedCall<T> call) throws IOException {
+        HedgeRace race = new HedgeRace(operation);
+        ExecutorCompletionService<T> completions = new ExecutorCompletionService<>(hedgeExecutor);
+        long delayNanos = hedging.hedgeDelayNanos(operation);
+        race.start(completions, call, false);
+        int outstanding = 1;
+        try {
+            if (delayNanos >= 0 && !race.settled.await(delayNanos, TimeUnit.NANOSECONDS) && hedging.tryAcquireHedge()) {
+                System.out.println("[LlmClient] " + operation + " has not responded after " + TimeUnit.NANOSECONDS.toMillis(delayNanos) + "ms; sending hedge request.");
+                race.start(completions, call, true);
+                outstanding++;
+            }
+            IOException failure = null;
+            for (; outstanding > 0; outstanding--) {
+                Future<T> done = completions.take();
+                try {
+                    return done.get();
+                } catch (CancellationException e) {
+                    // Cancelled after losing the race
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (failure == null && !(cause instanceof CancellationException)) {
+                        failure = cause instanceof IOException io ? io : new LlmClientException("LLM call failed: " + cause, 0, cause);
+                    }
+                }
+            }
+            throw failure != null ? failure : new LlmClientException("All hedged LLM attempts were cancelled.", 0, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmClientException("Interrupted while waiting for the LLM response.", 0, e);
+        } finally {
+            race.cancelAll();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run(HttpRequest request) throws IOException;
+    }
+
+    /** Wraps failures after streaming has started, which must not be retried. */
+    private static class StreamInterruptedException extends IOException {
+        StreamInterruptedException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private <T> T withRetries(String path, String body, long estimatedTokens, long deadline, Attempt<T> attempt) throws IOException {
+        calls.incrementAndGet();
+        for (int attemptNo = 1; ; attemptNo++) {
+            if (!circuitBreaker.tryAcquire()) {
+                failures.incrementAndGet();
+                throw new LlmClientException("LLM circuit is open; failing fast.", 0, null);
+            }
+            try {
+                rateLimiter.acquire(estimatedTokens, deadline);
+            } catch (TimeoutException e) {
+                circuitBreaker.recordIgnored();
+                failures.incrementAndGet();
+                throw new LlmClientException(e.getMessage(), 0, e);
+            } catch (InterruptedException e) {
+                circuitBreaker.recordIgnored();
+                Thread.currentThread().interrupt();
+                throw new LlmClientException("Interrupted while waiting for the LLM rate limiter.", 0, e);
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                circuitBreaker.recordIgnored();
+                timeouts.incrementAndGet();
+                throw new LlmClientException("LLM call deadline exceeded.", 0, null);
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofNanos(remainingNanos))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+
+            LlmClientException failure;
+            Duration retryAfter = null;
+            try {
+                T result = attempt.run(request);
+                circuitBreaker.recordSuccess();
+                return result;
+            } catch (StreamInterruptedException e) {
+                circuitBreaker.recordFailure();
+                failures.incrementAndGet();
+                throw (IOException) e.getCause();
+            } catch (RetryableStatusException e) {
+                failure = e.failure;
+                retryAfter = e.retryAfter;
+                // 429 means we are too fast, not that the API is down
+                if (e.failure.getStatus() == 429) circuitBreaker.recordIgnored(); else circuitBreaker.recordFailure();
+            } catch (LlmClientException e) {
+                circuitBreaker.recordIgnored();
+                failures.incrementAndGet();
+                throw e;
+            } catch (HttpTimeoutException e) {
+                timeouts.incrementAndGet();
+                circuitBreaker.recordFailure();
+                failure = new LlmClientException("LLM call timed out.", 0, e);
+            } catch (IOException e) {
+                circuitBreaker.recordFailure();
+                failure = new LlmClientException("LLM connection failed: " + e.getMessage(), 0, e);
+            } catch (RuntimeException e) {
+                // e.g. a hedge that lost its race; says nothing about the API's health
+                circuitBreaker.recordIgnored();
+                throw e;
+            }
+
+            long backoffMs = backoffMillis(attemptNo, retryAfter);
+            if (attemptNo >= maxAttempts || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs) >= deadline) {
+                failures.incrementAndGet();
+                throw failure;
+            }
+            retries.incrementAndGet();
+            System.err.println("[LlmClient] " + path + " attempt " + attemptNo + " failed (" + failure.getMessage() + "); retrying in " + backoffMs + "ms.");
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    /** Marks a response status that is worth retrying. */
+    private static class RetryableStatusException extends IOException {
+        final LlmClientException failure;
+        final Duration retryAfter;
+
+        RetryableStatusException(LlmClientException failure, Duration retryAfter) {
+            super(failure.getMessage(), failure);
+            this.failure = failure;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    private void checkStatus(int status, String body, java.net.http.HttpHeaders headers) throws IOException {
+        if (status < 400) return;
+        String snippet = body == null ? "" : body.substring(0, Math.min(300, body.length()));
+        LlmClientException failure = new LlmClientException("LLM call failed with HTTP " + status + ": " + snippet, status, null);
+        if (RETRYABLE_STATUSES.contains(status)) {
+            throw new RetryableStatusException(failure, retryAfter(headers));
+        }
+        throw failure;
+    }
+
+    private Duration retryAfter(java.net.http.HttpHeaders headers) {
+        Duration retryAfterMs = headers.firstValue("retry-after-ms").map(v -> {
+            try {
+                return Duration.ofMillis((long) Double.parseDouble(v));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }).orElse(null);
+        if (retryAfterMs != null) return retryAfterMs;
+        return headers.firstValue("retry-after").map(v -> {
+            try {
+                return Duration.ofMillis((long) (Double.parseDouble(v) * 1000));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }).orElse(null);
+    }
+
+    /** Full-jitter exponential backoff, or the server's Retry-After when it is longer. */
+    private long backoffMillis(int attemptNo, Duration retryAfter) {
+        long cap = Math.min(backoffMaxMs, backoffBaseMs * (1L << Math.min(20, attemptNo - 1)));
+        long jittered = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (retryAfter != null) {
+            return Math.max(jittered, retryAfter.toMillis());
+        }
+        return jittered;
+    }
+
+    private <T> HttpResponse<T> await(java.util.concurrent.CompletableFuture<HttpResponse<T>> future, long deadline) throws IOException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HttpTimeoutException("LLM call exceeded its deadline.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LlmClientException("Interrupted while waiting for the LLM response.", 0, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Token estimate for the rate limiter: the request body plus the requested completion budget.
+     */
+    private long estimateTokens(Map<String, Object> payload, String body) {
+        long estimate = TokenEstimator.estimate(body);
+        Object maxTokens = payload.get("max_tokens");
+        if (maxTokens instanceof Number n) {
+            estimate += n.longValue();
+        }
+        return Math.max(1, estimate);
+    }
+
+    private void closeQuietly(Closeable in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // Closing only serves to unblock the reader
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,145 @@
+package com.bg.resume_analyser.service;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side token buckets for requests and tokens per minute. Both start from configured
+ * limits and are corrected after every response from the {@code x-ratelimit-*} headers, so the
+ * client slows down before the provider starts answering 429.
+ */
+public class LlmRateLimiter {
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final Bucket requests;
+    private final Bucket tokens;
+
+    public LlmRateLimiter(long requestsPerMinute, long tokensPerMinute) {
+        this.requests = new Bucket("requests", requestsPerMinute);
+        this.tokens = new Bucket("tokens", tokensPerMinute);
+    }
+
+    /**
+     * Blocks until one request and {@code estimatedTokens} tokens are available.
+     *
+     * @throws TimeoutException if the wait would run past the deadline
+     */
+    public void acquire(long estimatedTokens, long deadlineNanos) throws InterruptedException, TimeoutException {
+        requests.acquire(1, deadlineNanos);
+        tokens.acquire(estimatedTokens, deadlineNanos);
+    }
+
+    public void update(HttpHeaders headers) {
+        requests.update(headers, "x-ratelimit-limit-requests", "x-ratelimit-remaining-requests", "x-ratelimit-reset-requests");
+        tokens.update(headers, "x-ratelimit-limit-tokens", "x-ratelimit-remaining-tokens", "x-ratelimit-reset-tokens");
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.snapshot());
+        stats.put("tokens", tokens.snapshot());
+        return stats;
+    }
+
+    /**
+     * Parses OpenAI reset durations such as {@code 20ms}, {@code 1s} or {@code 6m0s}.
+     */
+    static Duration parseDuration(String value) {
+        if (value == null || value.isBlank()) return null;
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double millis = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h" -> millis += amount * 3_600_000;
+                case "m" -> millis += amount * 60_000;
+                case "s" -> millis += amount * 1_000;
+                default -> millis += amount;
+            }
+        }
+        return matched ? Duration.ofMillis((long) Math.ceil(millis)) : null;
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Bucket {
+        private final String name;
+        private double capacity;
+        private double available;
+        private double refillPerNano;
+        private long lastRefillNanos = System.nanoTime();
+
+        Bucket(String name, long perMinute) {
+            this.name = name;
+            this.capacity = perMinute;
+            this.available = perMinute;
+            this.refillPerNano = perMinute / (double) Duration.ofMinutes(1).toNanos();
+        }
+
+        synchronized void acquire(long amount, long deadlineNanos) throws InterruptedException, TimeoutException {
+            // A single request larger than the whole bucket can never fit; let it through once the bucket is full
+            double needed = Math.min(amount, capacity);
+            while (true) {
+                refill();
+                if (available >= needed) {
+                    available -= needed;
+                    return;
+                }
+                long waitNanos = (long) Math.ceil((needed - available) / refillPerNano);
+                long now = System.nanoTime();
+                if (now + waitNanos > deadlineNanos) {
+                    throw new TimeoutException("Rate limit for " + name + " would be exceeded before the call deadline.");
+                }
+                // Waiting on the monitor releases it, so other callers can still update the bucket
+                wait(Math.max(1, waitNanos / 1_000_000));
+            }
+        }
+
+        synchronized void update(HttpHeaders headers, String limitHeader, String remainingHeader, String resetHeader) {
+            Long limit = parseLong(headers.firstValue(limitHeader).orElse(null));
+            Long remaining = parseLong(headers.firstValue(remainingHeader).orElse(null));
+            Duration reset = parseDuration(headers.firstValue(resetHeader).orElse(null));
+            if (limit == null || remaining == null || limit <= 0) return;
+
+            refill();
+            capacity = limit;
+            // The provider is authoritative about what is left right now
+            available = Math.min(available, remaining);
+            if (reset != null && !reset.isZero() && remaining < limit) {
+                refillPerNano = (limit - remaining) / (double) reset.toNanos();
+            } else {
+                refillPerNano = limit / (double) Duration.ofMinutes(1).toNanos();
+            }
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            refill();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("capacity", (long) capacity);
+            snapshot.put("available", (long) available);
+            snapshot.put("refillPerSecond", refillPerNano * 1_000_000_000L);
+            return snapshot;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
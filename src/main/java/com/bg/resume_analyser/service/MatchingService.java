@@ -1,192 +1,356 @@
 package com.bg.resume_analyser.service;
 
+import com.bg.resume_analyser.model.ResumeIndex;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
 public class MatchingService {
 
     /**
-     * Analyze resume text for sections, skills, and summary (basic extraction).
+     * The skills, experience and summary sections of an indexed resume (basic extraction).
      */
-    public Map<String, Object> analyzeResumeText(String resumeText) {
+    public Map<String, Object> analyzeResumeText(ResumeIndex resume) {
         Map<String, Object> result = new HashMap<>();
-        if (resumeText == null || resumeText.isBlank()) {
+        if (resume == null || resume.tokenCount() == 0) {
             result.put("success", false);
             result.put("message", "No resume text provided.");
             return result;
         }
-        // Simple extraction: look for sections and skills
-        String[] lines = resumeText.split("\n");
-        List<String> skills = new ArrayList<>();
-        List<String> experience = new ArrayList<>();
-        String summary = "";
-        boolean inSkills = false, inExperience = false, inSummary = false;
-        for (String line : lines) {
-            String l = line.trim().toLowerCase();
-            if (l.contains("skills")) { inSkills = true; inExperience = false; inSummary = false; continue; }
-            if (l.contains("experience")) { inSkills = false; inExperience = true; inSummary = false; continue; }
-            if (l.contains("summary") || l.contains("profile")) { inSkills = false; inExperience = false; inSummary = true; continue; }
-            if (inSkills && !l.isEmpty()) skills.add(line.trim());
-            if (inExperience && !l.isEmpty()) experience.add(line.trim());
-            if (inSummary && !l.isEmpty()) summary += line.trim() + " ";
-        }
-        result.put("skills", skills);
-        result.put("experience", experience);
-        result.put("summary", summary.trim());
+        result.put("skills", sectionLines(resume, EditPlanPromptBuilder.SKILLS));
+        result.put("experience", sectionLines(resume, EditPlanPromptBuilder.EXPERIENCE));
+        result.put("summary", String.join(" ", sectionLines(resume, EditPlanPromptBuilder.PERSONAL_SUMMARY)));
         result.put("success", true);
         return result;
     }
 
-    @Value("${spring.ai.openai.api-key:}")
-    private String openaiApiKey;
+    private static List<String> sectionLines(ResumeIndex resume, String section) {
+        return resume.sectionLines(ResumeIndexService.SECTIONS.indexOf(section)).stream()
+                .map(line -> resume.line(line).trim())
+                .collect(Collectors.toList());
+    }
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final LlmClient llmClient;
+    private final EmbeddingService embeddingService;
+    private final KeywordExtractor keywordExtractor;
+    private final boolean llmKeywordFallback;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public MatchingService(LlmClient llmClient, EmbeddingService embeddingService, KeywordExtractor keywordExtractor,
+                           @Value("${matching.keywords.llm-fallback:false}") boolean llmKeywordFallback,
+                           @Value("${matching.timeout-ms:30000}") long timeoutMs,
+                           @Value("${matching.executor.threads:8}") int threads,
+                           @Value("${matching.executor.queue-capacity:100}") int queueCapacity) {
+        this.llmClient = llmClient;
+        this.embeddingService = embeddingService;
+        this.keywordExtractor = keywordExtractor;
+        this.llmKeywordFallback = llmKeywordFallback;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        // When the pool is saturated a stage runs on the calling thread, so scoring degrades to sequential
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "matching-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
 
-    public Map<String, Object> computeScore(String resumeText, String jobText, 
+    /**
+     * Scores one resume against one job as a small graph of stages. Embedding similarity and keyword
+     * extraction (remote only when the LLM fallback is used) start together on the executor; matching
+     * the required skills, functions, role and years against the stored index runs on this thread while
+     * they are in flight. Only the top-keyword match waits for the keywords. Each stage's duration is
+     * returned under {@code details.timings}.
+     */
+    public Map<String, Object> computeScore(ResumeIndex resume, String jobText,
                                            String[] requiredTechnicalSkills, 
                                            String[] requiredSoftSkills,
                                            int yearsRequired,
                                            String jobPosition,
                                            String[] mainFunctions) {
-        Map<String, Object> result = new HashMap<>();
+        try {
+            long start = System.nanoTime();
+            Map<String, Long> timings = new ConcurrentHashMap<>();
+
+            // 1. Embedding similarity (general match) and the job's top keywords
+            CompletableFuture<Double> embedding = stage("embeddingMs", timings, () -> getEmbeddingSimilarity(resume.text(), jobText));
+            CompletableFuture<List<String>> keywords = stage("keywordsMs", timings, () -> extractTopKeywords(jobText, 5));
+
+            RequirementScores requirements = timed("requirementsMs", timings, () -> requirementScores(
+                    jobMatcher(List.of(), requiredTechnicalSkills, requiredSoftSkills, jobPosition, mainFunctions)
+                            .scanLowerCase(resume.normalizedText()),
+                    resume, requiredTechnicalSkills, requiredSoftSkills, yearsRequired, jobPosition, mainFunctions));
+
+            List<String> topKeywords = await(keywords);
+            KeywordMatcher.Hits keywordHits = timed("keywordMatchMs", timings,
+                    () -> new KeywordMatcher(topKeywords).scanLowerCase(resume.normalizedText()));
+            double embeddingSim = await(embedding);
+
+            Map<String, Object> stageTimings = new LinkedHashMap<>();
+            for (String stage : List.of("embeddingMs", "keywordsMs", "requirementsMs", "keywordMatchMs")) {
+                stageTimings.put(stage, timings.get(stage));
+            }
+            stageTimings.put("totalMs", (System.nanoTime() - start) / 1_000_000);
+            return combine(requirements, keywordHits, embeddingSim, topKeywords, stageTimings);
+        } catch (Exception e) {
+            return errorResult(e);
+        }
+    }
 
+    /**
+     * Scores many resumes against one job. The job's keywords are extracted once and all embeddings
+     * are fetched in one batch, so each additional resume only costs local text matching against its
+     * stored index.
+     */
+    public List<Map<String, Object>> computeScores(List<ResumeIndex> resumes, String jobText,
+                                                   String[] requiredTechnicalSkills,
+                                                   String[] requiredSoftSkills,
+                                                   int yearsRequired,
+                                                   String jobPosition,
+                                                   String[] mainFunctions) {
+        List<Map<String, Object>> results = new ArrayList<>(resumes.size());
         try {
-            // 1. Embedding similarity (general match)
-            double embeddingSim = getEmbeddingSimilarity(resumeText, jobText);
+            Map<String, Long> timings = new ConcurrentHashMap<>();
+            CompletableFuture<List<Double>> embeddings = stage("embeddingMs", timings, () -> getEmbeddingSimilarities(jobText,
+                    resumes.stream().map(ResumeIndex::text).collect(Collectors.toList())));
+            List<String> topKeywords = extractTopKeywords(jobText, 5);
+            List<Double> similarities = await(embeddings);
+            KeywordMatcher matcher = jobMatcher(topKeywords, requiredTechnicalSkills, requiredSoftSkills, jobPosition, mainFunctions);
+            for (int i = 0; i < resumes.size(); i++) {
+                results.add(score(resumes.get(i), matcher, similarities.get(i), topKeywords,
+                        requiredTechnicalSkills, requiredSoftSkills, yearsRequired, jobPosition, mainFunctions));
+            }
+        } catch (Exception e) {
+            Map<String, Object> error = errorResult(e);
+            while (results.size() < resumes.size()) results.add(error);
+        }
+        return results;
+    }
 
-            // 2. Soft skills match (20% weight)
-            double softSkillsScore = computeSkillsMatch(resumeText, requiredSoftSkills);
+    /**
+     * Scores a resume from signals the caller already has for the job: the embedding similarity and
+     * the job's top keywords. Makes no remote calls.
+     */
+    public Map<String, Object> computeScore(ResumeIndex resume, double embeddingSim, List<String> topKeywords,
+                                           String[] requiredTechnicalSkills,
+                                           String[] requiredSoftSkills,
+                                           int yearsRequired,
+                                           String jobPosition,
+                                           String[] mainFunctions) {
+        KeywordMatcher matcher = jobMatcher(topKeywords, requiredTechnicalSkills, requiredSoftSkills, jobPosition, mainFunctions);
+        return score(resume, matcher, embeddingSim, topKeywords, requiredTechnicalSkills,
+                requiredSoftSkills, yearsRequired, jobPosition, mainFunctions);
+    }
 
-            // 3. Technical skills match (30% weight)
-            double technicalSkillsScore = computeSkillsMatch(resumeText, requiredTechnicalSkills);
+    /**
+     * One matcher over every term the score looks for, so each resume is lower-cased and scanned once.
+     */
+    private KeywordMatcher jobMatcher(List<String> topKeywords, String[] requiredTechnicalSkills,
+                                      String[] requiredSoftSkills, String jobPosition, String[] mainFunctions) {
+        List<String> terms = new ArrayList<>(topKeywords);
+        if (requiredTechnicalSkills != null) terms.addAll(Arrays.asList(requiredTechnicalSkills));
+        if (requiredSoftSkills != null) terms.addAll(Arrays.asList(requiredSoftSkills));
+        if (mainFunctions != null) terms.addAll(Arrays.asList(mainFunctions));
+        terms.add(jobPosition);
+        terms.add("developer");
+        terms.add("programmer");
+        return new KeywordMatcher(terms);
+    }
 
-            // 4. Job functions/responsibilities match (20% weight)
-            double jobFunctionsScore = computeJobFunctionsMatch(resumeText, mainFunctions);
+    private Map<String, Object> score(ResumeIndex resume, KeywordMatcher matcher, double embeddingSim,
+                                      List<String> topKeywords,
+                                      String[] requiredTechnicalSkills,
+                                      String[] requiredSoftSkills,
+                                      int yearsRequired,
+                                      String jobPosition,
+                                      String[] mainFunctions) {
+        KeywordMatcher.Hits hits = matcher.scanLowerCase(resume.normalizedText());
+        RequirementScores requirements = requirementScores(hits, resume, requiredTechnicalSkills, requiredSoftSkills,
+                yearsRequired, jobPosition, mainFunctions);
+        return combine(requirements, hits, embeddingSim, topKeywords, null);
+    }
 
-            // 5. Role & experience match (20% weight) - adjusted from 40%
-            double roleExperienceScore = computeRoleExperienceMatch(resumeText, jobPosition, yearsRequired);
+    /**
+     * The parts of the score that need only the job's stated requirements, not its extracted keywords.
+     */
+    private record RequirementScores(double softSkills, double technicalSkills, double jobFunctions, double roleExperience) {
+    }
 
-            // 6. Top keywords match (10% weight)
-            List<String> topKeywords = extractTopKeywords(jobText, 5);
-            double keywordScore = computeKeywordMatch(resumeText, topKeywords);
-
-            // Compute final score with new weights: soft 20%, technical 30%, functions 20%, role/exp 20%, keywords 10%
-            double finalScore = (
-                    0.20 * softSkillsScore +
-                    0.30 * technicalSkillsScore +
-                    0.20 * jobFunctionsScore +
-                    0.20 * roleExperienceScore +
-                    0.10 * keywordScore
-            ) * 100;
-
-            result.put("score", Math.round(finalScore));
-            result.put("fit", finalScore >= 75 ? "Good match" : finalScore >= 50 ? "Moderate match" : "Poor match");
-            result.put("details", new HashMap<String, Object>() {{
-                put("embeddingSimilarity", Math.round(embeddingSim * 100));
-                put("softSkillsScore", Math.round(softSkillsScore * 100));
-                put("technicalSkillsScore", Math.round(technicalSkillsScore * 100));
-                put("jobFunctionsScore", Math.round(jobFunctionsScore * 100));
-                put("roleExperienceScore", Math.round(roleExperienceScore * 100));
-                put("keywordScore", Math.round(keywordScore * 100));
-            }});
-
-            // Missing keywords
-            List<String> missingKeywords = topKeywords.stream()
-                    .filter(kw -> !resumeContainsKeyword(resumeText, kw))
-                    .collect(Collectors.toList());
-            result.put("missingKeywords", missingKeywords);
-            result.put("topKeywords", topKeywords);
+    private RequirementScores requirementScores(KeywordMatcher.Hits hits, ResumeIndex resume,
+                                                String[] requiredTechnicalSkills,
+                                                String[] requiredSoftSkills,
+                                                int yearsRequired,
+                                                String jobPosition,
+                                                String[] mainFunctions) {
+        // 2. Soft skills match (20% weight)
+        double softSkillsScore = computeSkillsMatch(hits, requiredSoftSkills);
 
-        } catch (Exception e) {
-            result.put("score", 0);
-            result.put("fit", "Error computing score");
-            result.put("error", e.getMessage());
-        }
+        // 3. Technical skills match (30% weight)
+        double technicalSkillsScore = computeSkillsMatch(hits, requiredTechnicalSkills);
 
-        return result;
-    }
+        // 4. Job functions/responsibilities match (20% weight)
+        double jobFunctionsScore = computeJobFunctionsMatch(hits, mainFunctions);
 
-    private double getEmbeddingSimilarity(String text1, String text2) throws Exception {
-        if (openaiApiKey == null || openaiApiKey.isBlank()) return 0.5;
+        // 5. Role & experience match (20% weight) - adjusted from 40%
+        double roleExperienceScore = computeRoleExperienceMatch(resume.yearsOfExperience(), hits, jobPosition, yearsRequired);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + openaiApiKey);
+        return new RequirementScores(softSkillsScore, technicalSkillsScore, jobFunctionsScore, roleExperienceScore);
+    }
 
-        Map<String, Object> embReq1 = Map.of("model", "text-embedding-3-small", "input", text1);
-        ResponseEntity<String> embResp1 = restTemplate.postForEntity("https://api.openai.com/v1/embeddings", 
-                new HttpEntity<>(embReq1, headers), String.class);
+    private Map<String, Object> combine(RequirementScores requirements, KeywordMatcher.Hits keywordHits, double embeddingSim,
+                                        List<String> topKeywords, Map<String, Object> timings) {
+        Map<String, Object> result = new HashMap<>();
+        double softSkillsScore = requirements.softSkills();
+        double technicalSkillsScore = requirements.technicalSkills();
+        double jobFunctionsScore = requirements.jobFunctions();
+        double roleExperienceScore = requirements.roleExperience();
+
+        // 6. Top keywords match (10% weight)
+        double keywordScore = computeKeywordMatch(keywordHits, topKeywords);
+
+        // Compute final score with new weights: soft 20%, technical 30%, functions 20%, role/exp 20%, keywords 10%
+        double finalScore = (
+                0.20 * softSkillsScore +
+                0.30 * technicalSkillsScore +
+                0.20 * jobFunctionsScore +
+                0.20 * roleExperienceScore +
+                0.10 * keywordScore
+        ) * 100;
+
+        result.put("score", Math.round(finalScore));
+        result.put("fit", finalScore >= 75 ? "Good match" : finalScore >= 50 ? "Moderate match" : "Poor match");
+        Map<String, Object> details = new HashMap<>();
+        details.put("embeddingSimilarity", Math.round(embeddingSim * 100));
+        details.put("softSkillsScore", Math.round(softSkillsScore * 100));
+        details.put("technicalSkillsScore", Math.round(technicalSkillsScore * 100));
+        details.put("jobFunctionsScore", Math.round(jobFunctionsScore * 100));
+        details.put("roleExperienceScore", Math.round(roleExperienceScore * 100));
+        details.put("keywordScore", Math.round(keywordScore * 100));
+        if (timings != null) details.put("timings", timings);
+        result.put("details", details);
+
+        // Missing keywords
+        List<String> missingKeywords = topKeywords.stream()
+                .filter(kw -> !keywordHits.containsWord(kw))
+                .collect(Collectors.toList());
+        result.put("missingKeywords", missingKeywords);
+        result.put("topKeywords", topKeywords);
+        return result;
+    }
 
-        Map<String, Object> embReq2 = Map.of("model", "text-embedding-3-small", "input", text2);
-        ResponseEntity<String> embResp2 = restTemplate.postForEntity("https://api.openai.com/v1/embeddings", 
-                new HttpEntity<>(embReq2, headers), String.class);
+    private <T> CompletableFuture<T> stage(String name, Map<String, Long> timings, Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> timed(name, timings, work), executor);
+    }
 
-        JsonNode j1 = objectMapper.readTree(embResp1.getBody());
-        JsonNode j2 = objectMapper.readTree(embResp2.getBody());
+    private static <T> T timed(String name, Map<String, Long> timings, Callable<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            timings.put(name, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
 
-        List<Double> v1 = new ArrayList<>();
-        List<Double> v2 = new ArrayList<>();
+    /**
+     * Waits for a stage and rethrows what it threw. Remote stages are bounded by the LLM client's deadlines.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
 
-        for (JsonNode n : j1.at("/data/0/embedding")) v1.add(n.asDouble());
-        for (JsonNode n : j2.at("/data/0/embedding")) v2.add(n.asDouble());
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
-        return cosineSimilarity(v1, v2);
+    private Map<String, Object> errorResult(Exception e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("score", 0);
+        result.put("fit", "Error computing score");
+        result.put("error", e.getMessage());
+        return result;
     }
 
-    private double cosineSimilarity(List<Double> v1, List<Double> v2) {
-        if (v1.isEmpty() || v2.isEmpty()) return 0.0;
-        double dot = 0.0, n1 = 0.0, n2 = 0.0;
-        for (int i = 0; i < Math.min(v1.size(), v2.size()); i++) {
-            double a = v1.get(i), b = v2.get(i);
-            dot += a * b;
-            n1 += a * a;
-            n2 += b * b;
+    private double getEmbeddingSimilarity(String text1, String text2) throws Exception {
+        if (!embeddingService.isAvailable()) return 0.5;
+        List<float[]> vectors = embeddingService.embedAll(List.of(text1, text2));
+        return EmbeddingService.similarity(vectors.get(0), vectors.get(1));
+    }
+
+    /**
+     * Embedding similarity of one resume to many job descriptions. All texts not yet cached are
+     * embedded in a single batched request, so repeated scoring only pays for new texts.
+     */
+    public List<Double> getEmbeddingSimilarities(String resumeText, List<String> jobTexts) throws Exception {
+        if (!embeddingService.isAvailable()) return Collections.nCopies(jobTexts.size(), 0.5);
+        List<String> texts = new ArrayList<>(jobTexts.size() + 1);
+        texts.add(resumeText);
+        texts.addAll(jobTexts);
+        List<float[]> vectors = embeddingService.embedAll(texts);
+        List<Double> similarities = new ArrayList<>(jobTexts.size());
+        for (int i = 1; i < vectors.size(); i++) {
+            similarities.add(EmbeddingService.similarity(vectors.get(0), vectors.get(i)));
         }
-        return dot / (Math.sqrt(n1) * Math.sqrt(n2));
+        return similarities;
     }
 
-    private double computeSkillsMatch(String resumeText, String[] skills) {
+    private double computeSkillsMatch(KeywordMatcher.Hits hits, String[] skills) {
         if (skills == null || skills.length == 0) return 0.5;
         long matched = Arrays.stream(skills)
-                .filter(skill -> resumeContainsKeyword(resumeText, skill))
+                .filter(hits::containsWord)
                 .count();
         return (double) matched / skills.length;
     }
 
-    private double computeJobFunctionsMatch(String resumeText, String[] mainFunctions) {
+    private double computeJobFunctionsMatch(KeywordMatcher.Hits hits, String[] mainFunctions) {
         if (mainFunctions == null || mainFunctions.length == 0) return 0.5;
         long matched = Arrays.stream(mainFunctions)
-                .filter(func -> resumeContainsKeywordVariant(resumeText, func))
+                .filter(hits::containsSubstring)
                 .count();
         return (double) matched / mainFunctions.length;
     }
 
-    private double computeRoleExperienceMatch(String resumeText, String jobPosition, int yearsRequired) {
+    private double computeRoleExperienceMatch(int resumeYears, KeywordMatcher.Hits hits, String jobPosition, int yearsRequired) {
         double roleMatch = 0.0;
         
         // Check if job role is mentioned (e.g., "Software Developer", "Java Developer")
-        if (resumeContainsKeywordVariant(resumeText, jobPosition)) {
+        if (hits.containsSubstring(jobPosition)) {
             roleMatch = 0.8;
-        } else if (resumeContainsKeywordVariant(resumeText, "developer") || 
-                   resumeContainsKeywordVariant(resumeText, "programmer")) {
+        } else if (hits.containsSubstring("developer") || hits.containsSubstring("programmer")) {
             roleMatch = 0.5;
         }
 
         // Check years of experience
-        int resumeYears = extractYearsOfExperience(resumeText);
         double expMatch = 0.0;
         if (resumeYears >= yearsRequired && resumeYears <= yearsRequired + 2) {
             expMatch = 1.0;
@@ -201,22 +365,29 @@ public class MatchingService {
         return (roleMatch * 0.5) + (expMatch * 0.5);
     }
 
-    private double computeKeywordMatch(String resumeText, List<String> keywords) {
+    private double computeKeywordMatch(KeywordMatcher.Hits hits, List<String> keywords) {
         if (keywords == null || keywords.isEmpty()) return 0.5;
         long matched = keywords.stream()
-                .filter(kw -> resumeContainsKeyword(resumeText, kw))
+                .filter(hits::containsWord)
                 .count();
         return (double) matched / keywords.size();
     }
 
-    private List<String> extractTopKeywords(String jobText, int limit) throws Exception {
-        if (openaiApiKey == null || openaiApiKey.isBlank()) {
-            return Arrays.asList("java", "spring", "rest", "microservices", "cloud");
+    /**
+     * The job's top keywords from the local {@link KeywordExtractor}. With
+     * {@code matching.keywords.llm-fallback=true} the LLM is asked instead when the local extractor
+     * finds fewer than {@code limit} keywords.
+     */
+    public List<String> extractTopKeywords(String jobText, int limit) throws Exception {
+        List<String> keywords = keywordExtractor.extract(jobText, limit);
+        if (keywords.size() < limit && llmKeywordFallback && llmClient.isConfigured()) {
+            List<String> fromLlm = extractTopKeywordsWithLlm(jobText, limit);
+            if (!fromLlm.isEmpty()) return fromLlm;
         }
+        return keywords;
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + openaiApiKey);
+    private List<String> extractTopKeywordsWithLlm(String jobText, int limit) throws Exception {
 
         String prompt = "Extract the top " + limit + " most important technical or role keywords from this job posting. Return as a JSON array of strings only, no explanation.\n" + jobText;
 
@@ -229,10 +400,7 @@ public class MatchingService {
         payload.put("temperature", 0.0);
         payload.put("max_tokens", 100);
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-        ResponseEntity<String> resp = restTemplate.postForEntity("https://api.openai.com/v1/chat/completions", request, String.class);
-
-        JsonNode respNode = objectMapper.readTree(resp.getBody());
+        JsonNode respNode = llmClient.postJsonHedged("keywords", "/v1/chat/completions", payload, timeout);
         String assistantMsg = respNode.at("/choices/0/message/content").asText();
 
         int arrStart = assistantMsg.indexOf('[');
@@ -247,29 +415,6 @@ public class MatchingService {
             return result.subList(0, Math.min(limit, result.size()));
         }
 
-        return java.util.List.of("java", "spring", "rest", "microservices", "cloud");
-    }
-
-    private boolean resumeContainsKeyword(String text, String keyword) {
-        if (keyword == null || keyword.isBlank()) return false;
-        Pattern pattern = Pattern.compile("\\b" + Pattern.quote(keyword.toLowerCase()) + "\\b");
-        return pattern.matcher(text.toLowerCase()).find();
-    }
-
-    private boolean resumeContainsKeywordVariant(String text, String keyword) {
-        String lower = text.toLowerCase();
-        return lower.contains(keyword.toLowerCase());
-    }
-
-    private int extractYearsOfExperience(String resumeText) {
-        // Simple heuristic: look for numbers followed by "years" or "year"
-        Pattern pattern = Pattern.compile("(\\d+)\\s*years?");
-        java.util.regex.Matcher matcher = pattern.matcher(resumeText.toLowerCase());
-        int maxYears = 0;
-        while (matcher.find()) {
-            int years = Integer.parseInt(matcher.group(1));
-            if (years > maxYears) maxYears = years;
-        }
-        return maxYears;
+        return java.util.List.of();
     }
 }
@@ -0,0 +1,153 @@
+package com.bg.resume_analyser.service;
+
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the paragraph an edit's original text refers to. Built once per document: each paragraph's
+ * whitespace-normalised text and its set of character trigrams are computed up front, with an
+ * inverted index from trigram to paragraphs. A lookup only scores with Jaro-Winkler the paragraphs
+ * that share enough trigrams and have a compatible length. Each paragraph is matched at most once,
+ * so two edits can never overwrite the same paragraph.
+ */
+public final class ParagraphIndex {
+
+    /** Jaro-Winkler similarity a paragraph must exceed for an edit to be applied to it. */
+    public static final double THRESHOLD = 0.95;
+
+    // Prefilter bounds, loose enough that no pair scoring above THRESHOLD is discarded in practice:
+    // Jaro-Winkler >= 0.95 needs Jaro >= 0.917, which needs both strings to share most characters
+    private static final double MIN_TRIGRAM_DICE = 0.3;
+    private static final double MIN_LENGTH_RATIO = 0.7;
+
+    /**
+     * The paragraph matched to one text, or {@code paragraph = -1} when no unclaimed paragraph reached
+     * the threshold; {@code score} is then the best score seen among the candidates.
+     */
+    public record Match(int paragraph, double score) {
+        public boolean found() {
+            return paragraph >= 0;
+        }
+    }
+
+    private final String[] texts;
+    private final long[][] trigrams;
+    private final Map<Long, int[]> postings;
+    private final BitSet claimed = new BitSet();
+    private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
+
+    public ParagraphIndex(List<String> paragraphs) {
+        this.texts = new String[paragraphs.size()];
+        this.trigrams = new long[paragraphs.size()][];
+        Map<Long, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = normalize(paragraphs.get(i));
+            trigrams[i] = trigrams(texts[i]);
+            for (long gram : trigrams[i]) lists.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+        }
+        this.postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * Matches one text to the best unclaimed paragraph and claims it. Used when edits arrive one at a time.
+     */
+    public synchronized Match match(String text) {
+        List<Match> candidates = candidates(normalize(text));
+        double best = 0.0;
+        for (Match candidate : candidates) {
+            if (candidate.score() > THRESHOLD) {
+                claimed.set(candidate.paragraph());
+                return candidate;
+            }
+            best = Math.max(best, candidate.score());
+        }
+        return new Match(-1, best);
+    }
+
+    /**
+     * Matches all texts in one pass: every candidate pair above the threshold is scored, then pairs
+     * are taken from the highest score down, each text and paragraph used at most once.
+     */
+    public synchronized List<Match> assign(List<String> queries) {
+        record Pair(int query, int paragraph, double score) {
+        }
+        List<Pair> pairs = new ArrayList<>();
+        double[] best = new double[queries.size()];
+        for (int q = 0; q < queries.size(); q++) {
+            for (Match candidate : candidates(normalize(queries.get(q)))) {
+                best[q] = Math.max(best[q], candidate.score());
+                if (candidate.score() > THRESHOLD) pairs.add(new Pair(q, candidate.paragraph(), candidate.score()));
+            }
+        }
+        pairs.sort(Comparator.comparingDouble(Pair::score).reversed()
+                .thenComparingInt(Pair::query)
+                .thenComparingInt(Pair::paragraph));
+
+        Match[] matches = new Match[queries.size()];
+        for (Pair pair : pairs) {
+            if (matches[pair.query()] != null || claimed.get(pair.paragraph())) continue;
+            claimed.set(pair.paragraph());
+            matches[pair.query()] = new Match(pair.paragraph(), pair.score());
+        }
+        List<Match> result = new ArrayList<>(queries.size());
+        for (int q = 0; q < matches.length; q++) {
+            result.add(matches[q] != null ? matches[q] : new Match(-1, best[q]));
+        }
+        return result;
+    }
+
+    /**
+     * Unclaimed paragraphs that pass the trigram and length prefilter, scored and sorted best first.
+     */
+    private List<Match> candidates(String query) {
+        long[] grams = trigrams(query);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (long gram : grams) {
+            int[] ids = postings.get(gram);
+            if (ids == null) continue;
+            for (int id : ids) shared.merge(id, 1, Integer::sum);
+        }
+
+        List<Match> scored = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            int id = entry.getKey();
+            if (claimed.get(id)) continue;
+            double dice = 2.0 * entry.getValue() / (grams.length + trigrams[id].length);
+            int shorter = Math.min(query.length(), texts[id].length());
+            int longer = Math.max(query.length(), texts[id].length());
+            if (dice < MIN_TRIGRAM_DICE || shorter < MIN_LENGTH_RATIO * longer) continue;
+            scored.add(new Match(id, similarity.apply(texts[id], query)));
+        }
+        scored.sort(Comparator.comparingDouble(Match::score).reversed().thenComparingInt(Match::paragraph));
+        return scored;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Distinct character trigrams of the text padded with a space on each side, packed into longs.
+     */
+    private static long[] trigrams(String text) {
+        if (text.isEmpty()) return new long[0];
+        String padded = " " + text + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+}
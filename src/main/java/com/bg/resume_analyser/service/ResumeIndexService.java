@@ -0,0 +1,155 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.ResumeIndex;
+import com.bg.resume_analyser.repository.ResumeRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the {@link ResumeIndex} for a resume when it is uploaded and stores it on the entity.
+ * Resumes saved before indexing existed are indexed the first time they are used.
+ */
+@Service
+public class ResumeIndexService {
+
+    // Editable sections in ordinal order, as stored in ResumeIndex.lineSection
+    static final List<String> SECTIONS = List.of(
+            EditPlanPromptBuilder.PERSONAL_SUMMARY, EditPlanPromptBuilder.EXPERIENCE, EditPlanPromptBuilder.SKILLS);
+
+    // Heading aliases as they appear in extracted resume text, mapped to the section names the prompt uses
+    private static final Map<String, String> RESUME_HEADINGS = new LinkedHashMap<>();
+
+    static {
+        for (String h : List.of("personal summary", "summary", "professional summary", "profile", "about me")) {
+            RESUME_HEADINGS.put(h, EditPlanPromptBuilder.PERSONAL_SUMMARY);
+        }
+        for (String h : List.of("experience", "work experience", "professional experience", "employment history")) {
+            RESUME_HEADINGS.put(h, EditPlanPromptBuilder.EXPERIENCE);
+        }
+        for (String h : List.of("skills & abilities", "skills and abilities", "skills", "technical skills")) {
+            RESUME_HEADINGS.put(h, EditPlanPromptBuilder.SKILLS);
+        }
+        for (String h : List.of("education", "certifications", "certificates", "languages", "projects", "references",
+                "interests", "hobbies", "contact", "volunteering", "awards", "publications", "courses")) {
+            RESUME_HEADINGS.put(h, null);
+        }
+    }
+
+    private static final Pattern YEARS = Pattern.compile("(\\d+)\\s*years?");
+
+    private final ResumeRepository resumeRepository;
+
+    public ResumeIndexService(ResumeRepository resumeRepository) {
+        this.resumeRepository = resumeRepository;
+    }
+
+    /**
+     * Computes the index and stores it on the resume; the caller saves the entity.
+     */
+    public ResumeIndex index(Resume resume) {
+        ResumeIndex index = build(resume.getOriginalText());
+        resume.setIndexData(index.toBytes());
+        return index;
+    }
+
+    /**
+     * The stored index, or a freshly built one (saved back) when the resume has none yet.
+     */
+    public ResumeIndex forResume(Resume resume) {
+        if (resume.getIndexData() != null) {
+            ResumeIndex stored = ResumeIndex.fromBytes(resume.getIndexData());
+            if (stored != null) return stored;
+        }
+        ResumeIndex index = index(resume);
+        if (resume.getId() != null) {
+            resumeRepository.save(resume);
+        }
+        return index;
+    }
+
+    public static ResumeIndex build(String text) {
+        String[] lines = text == null ? new String[0] : text.split("\\R");
+        byte[] lineSections = new byte[lines.length];
+        Map<String, Integer> vocabularyIds = new HashMap<>();
+        List<String> vocabulary = new ArrayList<>();
+        List<Integer> tokens = new ArrayList<>();
+        int[] lineTokenStarts = new int[lines.length + 1];
+        List<Integer> bullets = new ArrayList<>();
+
+        byte current = ResumeIndex.NO_SECTION;
+        for (int i = 0; i < lines.length; i++) {
+            if (isHeading(lines[i])) {
+                String section = sectionForHeading(lines[i]);
+                current = section == null ? ResumeIndex.NO_SECTION : (byte) SECTIONS.indexOf(section);
+                lineSections[i] = section == null ? ResumeIndex.NO_SECTION : (byte) (ResumeIndex.HEADING + current);
+            } else {
+                lineSections[i] = current;
+                if (current == SECTIONS.indexOf(EditPlanPromptBuilder.EXPERIENCE) && !lines[i].isBlank()
+                        && ExperienceBulletRanker.isBullet(lines[i])) {
+                    bullets.add(i);
+                }
+            }
+
+            lineTokenStarts[i] = tokens.size();
+            for (String term : ExperienceBulletRanker.tokenize(lines[i])) {
+                Integer id = vocabularyIds.get(term);
+                if (id == null) {
+                    id = vocabulary.size();
+                    vocabularyIds.put(term, id);
+                    vocabulary.add(term);
+                }
+                tokens.add(id);
+            }
+        }
+        lineTokenStarts[lines.length] = tokens.size();
+
+        String normalizedText = String.join("\n", lines).toLowerCase(Locale.ROOT);
+        return new ResumeIndex(lines, normalizedText, lineSections, vocabulary.toArray(new String[0]),
+                tokens.stream().mapToInt(Integer::intValue).toArray(), lineTokenStarts,
+                bullets.stream().mapToInt(Integer::intValue).toArray(), extractYearsOfExperience(text));
+    }
+
+    /**
+     * Whether the line is a known resume section heading, editable or not.
+     */
+    static boolean isHeading(String line) {
+        return RESUME_HEADINGS.containsKey(headingKey(line));
+    }
+
+    /**
+     * The section name the prompt uses for a heading line, or null when it is not an editable section.
+     */
+    static String sectionForHeading(String line) {
+        return RESUME_HEADINGS.get(headingKey(line));
+    }
+
+    private static String headingKey(String line) {
+        return line.trim().replaceAll(":$", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Simple heuristic: the largest number followed by "year" or "years".
+     */
+    static int extractYearsOfExperience(String text) {
+        if (text == null) return 0;
+        Matcher matcher = YEARS.matcher(text.toLowerCase(Locale.ROOT));
+        int maxYears = 0;
+        while (matcher.find()) {
+            try {
+                maxYears = Math.max(maxYears, Integer.parseInt(matcher.group(1)));
+            } catch (NumberFormatException ignored) {
+                // A digit run too long for an int is not a number of years
+            }
+        }
+        return maxYears;
+    }
+}
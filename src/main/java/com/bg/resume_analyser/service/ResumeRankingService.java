@@ -0,0 +1,165 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.ResumeIndex;
+import com.bg.resume_analyser.model.request.RankRequest;
+import com.bg.resume_analyser.repository.ResumeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks every stored resume against a job description in two stages. An HNSW index over the
+ * resume embeddings narrows the pool to the nearest candidates without any remote calls; only
+ * those candidates get the full weighted {@link MatchingService} score, which decides the order.
+ * Resumes are added to the index lazily, the first time a ranking runs after their upload.
+ */
+@Service
+public class ResumeRankingService {
+
+    private final ResumeRepository resumeRepository;
+    private final EmbeddingService embeddingService;
+    private final MatchingService matchingService;
+    private final JobDescriptionService jobDescriptionService;
+    private final ResumeIndexService resumeIndexService;
+    private final HnswIndex index;
+    private final int candidates;
+    private final int indexBatchSize;
+    private final int maxTopK;
+    private final Object indexLock = new Object();
+
+    public ResumeRankingService(ResumeRepository resumeRepository,
+                                EmbeddingService embeddingService,
+                                MatchingService matchingService,
+                                JobDescriptionService jobDescriptionService,
+                                ResumeIndexService resumeIndexService,
+                                @Value("${ranking.hnsw.m:16}") int m,
+                                @Value("${ranking.hnsw.ef-construction:100}") int efConstruction,
+                                @Value("${ranking.hnsw.ef-search:64}") int efSearch,
+                                @Value("${ranking.rerank-candidates:50}") int candidates,
+                                @Value("${ranking.index-batch-size:256}") int indexBatchSize,
+                                @Value("${ranking.max-top-k:100}") int maxTopK) {
+        this.resumeRepository = resumeRepository;
+        this.embeddingService = embeddingService;
+        this.matchingService = matchingService;
+        this.jobDescriptionService = jobDescriptionService;
+        this.resumeIndexService = resumeIndexService;
+        this.index = new HnswIndex(m, efConstruction, efSearch);
+        this.candidates = Math.max(1, candidates);
+        this.indexBatchSize = Math.max(1, indexBatchSize);
+        this.maxTopK = Math.max(1, maxTopK);
+    }
+
+    public boolean isAvailable() {
+        return embeddingService.isAvailable();
+    }
+
+    public int getMaxTopK() {
+        return maxTopK;
+    }
+
+    public Map<String, Object> rank(RankRequest request) throws IOException {
+        String jobText = resolveJobText(request);
+        int topK = Math.min(maxTopK, request.getTopK() == null || request.getTopK() <= 0 ? 10 : request.getTopK());
+
+        long start = System.nanoTime();
+        int added = syncIndex();
+        long indexed = System.nanoTime();
+
+        float[] jobVector = embeddingService.embed(jobText);
+        List<HnswIndex.Hit> hits = index.search(jobVector, Math.max(topK, candidates));
+        long searched = System.nanoTime();
+
+        Map<Long, Resume> resumes = resumeRepository.findAllById(hits.stream().map(HnswIndex.Hit::id).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Resume::getId, Function.identity()));
+        List<HnswIndex.Hit> found = hits.stream().filter(hit -> resumes.containsKey(hit.id())).collect(Collectors.toList());
+        List<ResumeIndex> indexes = found.stream().map(hit -> resumeIndexService.forResume(resumes.get(hit.id()))).collect(Collectors.toList());
+        List<Map<String, Object>> scores = matchingService.computeScores(indexes, jobText,
+                toArray(request.getRequiredTechnicalSkills()),
+                toArray(request.getRequiredSoftSkills()),
+                request.getYearsRequired() == null ? 0 : request.getYearsRequired(),
+                request.getJobPosition() == null ? "" : request.getJobPosition(),
+                toArray(request.getMainFunctions()));
+
+        List<Map<String, Object>> ranked = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            Resume resume = resumes.get(found.get(i).id());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("resumeId", resume.getId());
+            entry.put("filename", resume.getFilename());
+            entry.put("vectorSimilarity", Math.round(found.get(i).score() * 1000) / 1000.0);
+            entry.putAll(scores.get(i));
+            ranked.add(entry);
+        }
+        // Re-rank by the weighted score; vector similarity breaks ties
+        ranked.sort(Comparator.<Map<String, Object>>comparingLong(e -> ((Number) e.get("score")).longValue())
+                .thenComparingDouble(e -> (Double) e.get("vectorSimilarity"))
+                .reversed());
+        long reranked = System.nanoTime();
+
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("indexMs", (indexed - start) / 1_000_000);
+        timings.put("searchMs", (searched - indexed) / 1_000_000);
+        timings.put("rerankMs", (reranked - searched) / 1_000_000);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("results", ranked.subList(0, Math.min(topK, ranked.size())));
+        result.put("indexedResumes", index.size());
+        result.put("newlyIndexed", added);
+        result.put("candidates", found.size());
+        result.put("timings", timings);
+        System.out.println("[ResumeRankingService] Ranked " + found.size() + " of " + index.size() + " resume(s) in "
+                + (reranked - start) / 1_000_000 + " ms " + timings);
+        return result;
+    }
+
+    /**
+     * Embeds and indexes resumes saved since the last ranking. Texts already embedded in an earlier
+     * run come from the vector store, so only genuinely new resumes cost an API call.
+     */
+    private int syncIndex() throws IOException {
+        synchronized (indexLock) {
+            List<Long> missing = resumeRepository.findAllIds().stream()
+                    .filter(id -> !index.contains(id))
+                    .collect(Collectors.toList());
+            for (int from = 0; from < missing.size(); from += indexBatchSize) {
+                List<Resume> batch = resumeRepository.findAllById(missing.subList(from, Math.min(missing.size(), from + indexBatchSize)));
+                List<float[]> vectors = embeddingService.embedAll(batch.stream().map(this::textOf).collect(Collectors.toList()));
+                for (int i = 0; i < batch.size(); i++) {
+                    index.add(batch.get(i).getId(), vectors.get(i));
+                }
+            }
+            if (!missing.isEmpty()) {
+                System.out.println("[ResumeRankingService] Indexed " + missing.size() + " new resume(s); index holds " + index.size());
+            }
+            return missing.size();
+        }
+    }
+
+    private String resolveJobText(RankRequest request) throws IOException {
+        if (request.getJobDescription() != null && !request.getJobDescription().isBlank()) {
+            return request.getJobDescription();
+        }
+        if (request.getVacancyUrl() != null && !request.getVacancyUrl().isBlank()) {
+            return jobDescriptionService.getJobDescriptionFromUrl(request.getVacancyUrl());
+        }
+        throw new IllegalArgumentException("Either vacancyUrl or jobDescription is required.");
+    }
+
+    private String textOf(Resume resume) {
+        return resume.getOriginalText() == null ? "" : resume.getOriginalText();
+    }
+
+    private static String[] toArray(List<String> values) {
+        return values == null ? new String[0] : values.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bg.resume_analyser.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent calls that share a key: the first caller runs the work and every
+ * caller that arrives while it is in flight waits for and receives the same result (or
+ * exception). Once the work finishes the key is released, so later calls run again.
+ */
+public class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    public interface Work<V, E extends Exception> {
+        V call() throws E;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public <E extends Exception> V execute(K key, Work<V, E> work) throws E {
+        return execute(key, work, null);
+    }
+
+    /**
+     * @param onJoin called before waiting when this caller joins a run that is already in flight
+     */
+    public <E extends Exception> V execute(K key, Work<V, E> work, Runnable onJoin) throws E {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            if (onJoin != null) onJoin.run();
+            return await(existing);
+        }
+        try {
+            V value = work.call();
+            future.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V await(CompletableFuture<V> future) throws E {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            // Followers share the leader's call site, so the cause is the same checked type E
+            throw (E) cause;
+        }
+    }
+}
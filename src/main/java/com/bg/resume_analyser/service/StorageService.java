@@ -1,6 +1,7 @@
 package com.bg.resume_analyser.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.EditPlan;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -8,7 +9,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -25,33 +26,27 @@ public class StorageService {
         return folderPath;
     }
 
-    public void writeMetadata(Path folderPath, String company, String position, String contact, String vacancyUrl, JsonNode editPlan, JsonNode skillsToAdd) throws IOException {
+    public void writeMetadata(Path folderPath, EditPlan plan, String vacancyUrl) throws IOException {
         StringBuilder improvements = new StringBuilder();
         improvements.append("\n\n--- Improvements Made ---\n");
 
-        if (editPlan != null && editPlan.isArray() && editPlan.size() > 0) {
+        if (!plan.getEditActions().isEmpty()) {
             improvements.append("\nText Replacements:\n");
-            for (JsonNode edit : editPlan) {
-                improvements.append(String.format("  - Section: %s\n", edit.get("section").asText()));
-                improvements.append(String.format("    Original: %s\n", edit.get("original_text").asText()));
-                improvements.append(String.format("    New: %s\n\n", edit.get("new_text").asText()));
+            for (EditAction edit : plan.getEditActions()) {
+                improvements.append(String.format("  - Section: %s\n", edit.getSection()));
+                improvements.append(String.format("    Original: %s\n", edit.getOriginalText()));
+                improvements.append(String.format("    New: %s\n\n", edit.getNewText()));
             }
         }
 
-        if (skillsToAdd != null && skillsToAdd.isObject() && skillsToAdd.size() > 0) {
+        if (!plan.getSkillsToAdd().isEmpty()) {
             improvements.append("\nSkills Added:\n");
-            Iterator<Map.Entry<String, JsonNode>> fields = skillsToAdd.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> entry = fields.next();
-                String category = entry.getKey();
-                JsonNode skills = entry.getValue();
-                if (skills.isArray() && skills.size() > 0) {
-                    improvements.append(String.format("  - %s:\n", category));
-                    for (JsonNode skill : skills) {
-                        improvements.append(String.format("    - %s\n", skill.asText()));
-                    }
-                    improvements.append("\n");
+            for (Map.Entry<String, List<String>> entry : plan.getSkillsToAdd().getCategories().entrySet()) {
+                improvements.append(String.format("  - %s:\n", entry.getKey()));
+                for (String skill : entry.getValue()) {
+                    improvements.append(String.format("    - %s\n", skill));
                 }
+                improvements.append("\n");
             }
         }
 
@@ -64,7 +59,7 @@ public class StorageService {
                 Vacancy URL: %s
                 %s
                 """,
-                company, position, LocalDate.now(), contact, vacancyUrl, improvements.toString());
+                plan.getCompanyName(), plan.getPositionTitle(), LocalDate.now(), plan.getContactPerson(), vacancyUrl, improvements.toString());
         Files.write(folderPath.resolve("metadata.txt"), metadata.getBytes());
     }
 
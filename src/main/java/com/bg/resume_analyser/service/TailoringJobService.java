@@ -0,0 +1,281 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.TailoringJob;
+import com.bg.resume_analyser.model.request.TailorRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tailoring requests on a bounded background executor so that request threads
+ * are released immediately. Progress of each job is kept in memory and pushed to
+ * Server-Sent Events subscribers as the pipeline advances. Events are queued per subscriber
+ * under the job's lock and sent outside it on a sender thread, so a slow client delays only
+ * its own stream.
+ */
+@Service
+public class TailoringJobService {
+
+    private final TailoringService tailoringService;
+    private final ThreadPoolExecutor executor;
+    // One thread per subscriber with events in flight; idle threads exit after a minute
+    private final ThreadPoolExecutor senders;
+    private final long emitterTimeoutMs;
+    private final Duration retention;
+
+    private final Map<String, TailoringJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, List<Subscriber>> emitters = new ConcurrentHashMap<>();
+
+    public TailoringJobService(TailoringService tailoringService,
+                               @Value("${tailoring.executor.threads:4}") int threads,
+                               @Value("${tailoring.executor.queue-capacity:50}") int queueCapacity,
+                               @Value("${tailoring.jobs.sse-timeout-ms:600000}") long emitterTimeoutMs,
+                               @Value("${tailoring.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.tailoringService = tailoringService;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "tailoring-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "tailoring-sse-" + senderCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Queues a tailoring run and returns its job handle straight away.
+     *
+     * @throws RejectedExecutionException when the executor queue is full
+     */
+    public TailoringJob submit(Resume resume, TailorRequest tailorRequest) {
+        evictFinishedJobs();
+        TailoringJob job = new TailoringJob(UUID.randomUUID().toString(), resume.getId());
+        jobs.put(job.getId(), job);
+        publish(job, "QUEUED", "Tailoring job queued.");
+        try {
+            executor.execute(() -> run(job, resume, tailorRequest));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        System.out.println("[TailoringJobService] Job " + job.getId() + " queued. Queue depth: " + getQueueDepth());
+        return job;
+    }
+
+    public Optional<TailoringJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Opens an SSE stream for the job. Events already emitted are replayed first,
+     * and the stream completes once the job has finished.
+     */
+    public SseEmitter subscribe(TailoringJob job) {
+        SseEmitter emitter = createEmitter();
+        emitter.onCompletion(() -> unregister(job, emitter));
+        emitter.onTimeout(() -> unregister(job, emitter));
+        emitter.onError(e -> unregister(job, emitter));
+
+        // The final event and the finished status are set under the same lock, so a finished job
+        // has always recorded its last event; only unfinished jobs register for live events
+        Subscriber subscriber = new Subscriber(job, emitter);
+        synchronized (job) {
+            for (Map<String, Object> event : job.getEvents()) {
+                subscriber.enqueue(event);
+            }
+            if (job.isFinished()) {
+                subscriber.enqueueComplete();
+            } else {
+                emitters.computeIfAbsent(job.getId(), k -> new CopyOnWriteArrayList<>()).add(subscriber);
+            }
+        }
+        // The replay is sent on the subscribing request's own thread
+        subscriber.drain();
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMs);
+    }
+
+    int subscriberCount(TailoringJob job) {
+        List<Subscriber> jobEmitters = emitters.get(job.getId());
+        return jobEmitters == null ? 0 : jobEmitters.size();
+    }
+
+    private void unregister(TailoringJob job, SseEmitter emitter) {
+        synchronized (job) {
+            List<Subscriber> jobEmitters = emitters.get(job.getId());
+            if (jobEmitters == null) return;
+            jobEmitters.removeIf(subscriber -> subscriber.emitter == emitter);
+            if (jobEmitters.isEmpty()) emitters.remove(job.getId());
+        }
+    }
+
+    private void run(TailoringJob job, Resume resume, TailorRequest tailorRequest) {
+        job.setStatus(TailoringJob.Status.RUNNING);
+        publish(job, "RUNNING", "Tailoring job started.");
+        try {
+            Map<String, Object> result = tailoringService.tailor(resume, tailorRequest, message -> publish(job, "IN_PROGRESS", message));
+            job.setResult(result);
+            finish(job, TailoringJob.Status.SUCCEEDED, "Resume tailored successfully.");
+        } catch (Exception e) {
+            System.err.println("[FAIL] Tailoring job " + job.getId() + " failed: " + e.getMessage());
+            job.setError(e.getMessage());
+            finish(job, TailoringJob.Status.FAILED, "Tailoring failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the final status, publishes the final event and completes the live streams in one step.
+     */
+    private void finish(TailoringJob job, TailoringJob.Status status, String message) {
+        List<Subscriber> subscribers;
+        synchronized (job) {
+            job.setStatus(status);
+            Map<String, Object> event = job.addEvent(status.name(), message);
+            subscribers = emitters.remove(job.getId());
+            if (subscribers == null) return;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(event);
+                subscriber.enqueueComplete();
+            }
+        }
+        subscribers.forEach(this::send);
+    }
+
+    private void publish(TailoringJob job, String stage, String message) {
+        List<Subscriber> subscribers;
+        synchronized (job) {
+            Map<String, Object> event = job.addEvent(stage, message);
+            List<Subscriber> jobEmitters = emitters.get(job.getId());
+            if (jobEmitters == null) return;
+            subscribers = List.copyOf(jobEmitters);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(event);
+            }
+        }
+        subscribers.forEach(this::send);
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            senders.execute(subscriber::drain);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the stream ends with the SSE timeout
+        }
+    }
+
+    /**
+     * One SSE stream and the events queued for it, in the order they were published. Whichever
+     * thread finds the queue idle sends everything queued, so sends to one emitter never overlap.
+     */
+    private final class Subscriber {
+
+        private final TailoringJob job;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Map<String, Object>> pending = new ArrayDeque<>();
+        private boolean completeWhenSent;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(TailoringJob job, SseEmitter emitter) {
+            this.job = job;
+            this.emitter = emitter;
+        }
+
+        synchronized void enqueue(Map<String, Object> event) {
+            if (!closed) pending.add(event);
+        }
+
+        synchronized void enqueueComplete() {
+            completeWhenSent = true;
+        }
+
+        void drain() {
+            synchronized (this) {
+                if (draining || closed) return;
+                draining = true;
+            }
+            while (true) {
+                Map<String, Object> event;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null) {
+                        draining = false;
+                        if (!completeWhenSent) return;
+                        closed = true;
+                    }
+                }
+                if (event == null) {
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(eventName(event)).data(event));
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        closed = true;
+                        draining = false;
+                        pending.clear();
+                    }
+                    unregister(job, emitter);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private String eventName(Map<String, Object> event) {
+        return String.valueOf(event.get("stage")).toLowerCase();
+    }
+
+    private void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,275 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.EditPlan;
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.TemplateMap;
+import com.bg.resume_analyser.model.request.TailorRequest;
+import com.bg.resume_analyser.repository.ResumeRepository;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Runs the full tailoring pipeline for one resume and one vacancy:
+ * job description fetch, AI edit plan, metadata, DOCX rewrite and persistence.
+ * Each stage is reported through the supplied progress listener.
+ */
+@Service
+public class TailoringService {
+
+    private final ResumeRepository resumeRepository;
+    private final ImproveService improveService;
+    private final DocxService docxService;
+    private final StorageService storageService;
+    private final JobDescriptionService jobDescriptionService;
+    private final JobPostingService jobPostingService;
+    private final ResumeIndexService resumeIndexService;
+    private final boolean streamingEnabled;
+
+    private static final int FOLDER_LOCK_STRIPES = 64;
+
+    private final SingleFlight<String, Map<String, Object>> inFlight = new SingleFlight<>();
+    // A fixed set of lock stripes, so one lock per folder ever written does not accumulate
+    private final Object[] folderLocks = new Object[FOLDER_LOCK_STRIPES];
+
+    public TailoringService(ResumeRepository resumeRepository,
+                            ImproveService improveService,
+                            DocxService docxService,
+                            StorageService storageService,
+                            JobDescriptionService jobDescriptionService,
+                            JobPostingService jobPostingService,
+                            ResumeIndexService resumeIndexService,
+                            @Value("${improve.streaming.enabled:true}") boolean streamingEnabled) {
+        this.resumeRepository = resumeRepository;
+        this.improveService = improveService;
+        this.docxService = docxService;
+        this.storageService = storageService;
+        this.jobDescriptionService = jobDescriptionService;
+        this.jobPostingService = jobPostingService;
+        this.resumeIndexService = resumeIndexService;
+        this.streamingEnabled = streamingEnabled;
+        for (int i = 0; i < folderLocks.length; i++) {
+            folderLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns true when the request carries either a vacancy URL or a job description.
+     */
+    public static boolean hasJobSource(TailorRequest tailorRequest) {
+        if (tailorRequest == null) return false;
+        String vacancyUrl = tailorRequest.getVacancyUrl();
+        String jobDescription = tailorRequest.getJobDescription();
+        return (vacancyUrl != null && !vacancyUrl.isBlank()) || (jobDescription != null && !jobDescription.isBlank());
+    }
+
+    /**
+     * Tailors the resume for one vacancy. Identical requests (same resume and vacancy) that arrive
+     * while one is already running join that run and share its result instead of starting another.
+     */
+    public Map<String, Object> tailor(Resume resume, TailorRequest tailorRequest, Consumer<String> progress) throws IOException {
+        String key = ContentHash.sha256(String.valueOf(resume.getId()),
+                ContentHash.normalize(tailorRequest.getVacancyUrl()), ContentHash.normalize(tailorRequest.getJobDescription()));
+        return inFlight.execute(key, () -> runPipeline(resume, tailorRequest, progress),
+                () -> stage(progress, "Joining an identical tailoring run already in progress..."));
+    }
+
+    private Map<String, Object> runPipeline(Resume resume, TailorRequest tailorRequest, Consumer<String> progress) throws IOException {
+        stage(progress, "Starting resume tailoring...");
+        String jobText = resolveJobText(tailorRequest, progress);
+        String vacancyUrl = tailorRequest.getVacancyUrl();
+        if (vacancyUrl != null && !vacancyUrl.isBlank()) {
+            resume.setVacancyUrl(vacancyUrl);
+        }
+
+        Map<String, Object> result;
+        try {
+            result = generateAndApplyEditPlan(resume, jobText, resume.getVacancyUrl(), progress, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating the edit plan.", e);
+        }
+
+        stage(progress, "Saving tailored resume path...");
+        resume.setTailoredPath((String) result.get("tailoredPath"));
+        resumeRepository.save(resume);
+        stage(progress, "Tailored resume path saved.");
+
+        System.out.println("\u001B[1m[SUCCESS]\u001B[0m Resume tailored successfully.");
+        return result;
+    }
+
+    /**
+     * Fetches the job description from the vacancy URL, or falls back to the raw text in the request.
+     * The text is kept as a job posting so it can be ranked against other resumes later.
+     */
+    public String resolveJobText(TailorRequest tailorRequest, Consumer<String> progress) throws IOException {
+        String vacancyUrl = tailorRequest.getVacancyUrl();
+        String jobDescription = tailorRequest.getJobDescription();
+
+        String jobText;
+        if (vacancyUrl != null && !vacancyUrl.isBlank()) {
+            stage(progress, "Fetching job description from URL: " + vacancyUrl);
+            jobText = jobDescriptionService.getJobDescriptionFromUrl(vacancyUrl);
+        } else if (jobDescription != null && !jobDescription.isBlank()) {
+            stage(progress, "Using provided job description text.");
+            jobText = jobDescription;
+        } else {
+            throw new IllegalArgumentException("Either vacancyUrl or jobDescription is required.");
+        }
+
+        try {
+            jobPostingService.record(vacancyUrl, jobText);
+        } catch (RuntimeException e) {
+            System.err.println("[TailoringService] Could not record job posting: " + e.getMessage());
+        }
+        return jobText;
+    }
+
+    /**
+     * Generates the edit plan and writes the tailored output. With streaming enabled, the template is
+     * opened before the LLM call and each edit is applied as soon as it arrives, so the DOCX work
+     * overlaps generation; otherwise the plan is generated first and applied in one go.
+     *
+     * @param llmPermits optional limit on concurrent LLM calls, held only while the model is generating
+     */
+    public Map<String, Object> generateAndApplyEditPlan(Resume resume, String jobText, String vacancyUrl,
+                                                        Consumer<String> progress, Semaphore llmPermits) throws IOException, InterruptedException {
+        if (!streamingEnabled) {
+            EditPlan plan;
+            acquire(llmPermits);
+            try {
+                plan = generateEditPlan(resume, jobText, progress);
+            } finally {
+                release(llmPermits);
+            }
+            return applyEditPlan(resume, plan, vacancyUrl, progress);
+        }
+
+        try (XWPFDocument doc = docxService.openTemplate(resume.getFilename())) {
+            ParagraphIndex paragraphs = docxService.indexParagraphs(doc);
+            TemplateMap template = docxService.templateMap(resume, doc);
+            List<Map<String, Object>> editMatches = new ArrayList<>();
+            EditPlan plan;
+            acquire(llmPermits);
+            try {
+                stage(progress, "Streaming AI edit plan...");
+                plan = improveService.generateEditPlanStreaming(resumeIndexService.forResume(resume), jobText, new EditPlanListener() {
+                    @Override
+                    public void onField(String name, String value) {
+                        stage(progress, "Extracted " + name + ": " + value);
+                    }
+
+                    @Override
+                    public void onEditAction(EditAction action) {
+                        editMatches.add(docxService.applyEditAction(doc, paragraphs, template, action));
+                        stage(progress, "Applied edit to section: " + (action.getSection() != null ? action.getSection() : "Unknown"));
+                    }
+
+                    @Override
+                    public void onSkillsCategory(String category, List<String> skills) {
+                        docxService.addSkillsCategory(doc, template, category, skills);
+                        stage(progress, "Added " + skills.size() + " skill(s) to category: " + category);
+                    }
+                });
+            } finally {
+                release(llmPermits);
+            }
+
+            if (plan.isFailed()) {
+                // Edits applied before the stream failed may not match the (empty) plan, so start over from the template
+                return applyEditPlan(resume, plan, vacancyUrl, progress);
+            }
+            return writeTailoredOutput(resume, plan, vacancyUrl, progress, doc, editMatches);
+        }
+    }
+
+    public EditPlan generateEditPlan(Resume resume, String jobText, Consumer<String> progress) {
+        stage(progress, "Generating AI edit plan...");
+        EditPlan plan = improveService.generateEditPlan(resumeIndexService.forResume(resume), jobText);
+        stage(progress, "Edit plan ready: " + plan.getEditActions().size() + " edit(s), " + plan.getSkillsToAdd().size() + " skill category(ies).");
+        return plan;
+    }
+
+    /**
+     * Writes the application folder, metadata and tailored DOCX for an edit plan.
+     * The resume entity itself is not modified, so this is safe to run concurrently for one resume.
+     */
+    public Map<String, Object> applyEditPlan(Resume resume, EditPlan plan, String vacancyUrl, Consumer<String> progress) throws IOException {
+        return writeTailoredOutput(resume, plan, vacancyUrl, progress, null, new ArrayList<>());
+    }
+
+    /**
+     * The lock stripe for a folder. Writes to one folder always share a stripe; unrelated folders
+     * occasionally do too, which only serializes their writes.
+     */
+    Object folderLock(Path folder) {
+        return folderLocks[Math.floorMod(folder.toAbsolutePath().normalize().hashCode(), folderLocks.length)];
+    }
+
+    /**
+     * @param patchedDoc a template whose edits were already applied while streaming, or null to apply the whole plan now
+     * @param editMatches how each edit matched a paragraph; filled here when the plan is applied now
+     */
+    private Map<String, Object> writeTailoredOutput(Resume resume, EditPlan plan, String vacancyUrl,
+                                                    Consumer<String> progress, XWPFDocument patchedDoc,
+                                                    List<Map<String, Object>> editMatches) throws IOException {
+        String companyName = plan.getCompanyName();
+        String positionTitle = plan.getPositionTitle();
+
+        stage(progress, "Creating application-specific folder and metadata...");
+        Path appFolder = storageService.createApplicationFolder(companyName, positionTitle);
+        Path tailoredDocxPath;
+        // Vacancies that resolve to the same company/position folder write the same files, so serialize them
+        synchronized (folderLock(appFolder)) {
+            storageService.writeMetadata(appFolder, plan, vacancyUrl);
+            stage(progress, "Application folder and metadata.txt created at: " + appFolder);
+
+            if (patchedDoc != null) {
+                stage(progress, "Saving streamed DOCX edits...");
+                tailoredDocxPath = docxService.writeTailored(patchedDoc, resume, appFolder);
+            } else {
+                stage(progress, "Updating DOCX file based on the edit plan...");
+                tailoredDocxPath = docxService.updateDocx(resume, plan, appFolder, editMatches);
+            }
+            stage(progress, "DOCX file update complete.");
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Resume tailored successfully");
+        result.put("tailoredPath", tailoredDocxPath.toString());
+        result.put("company", companyName);
+        result.put("position", positionTitle);
+        result.put("editMatches", editMatches);
+        if (plan.getPromptTokens() != null) {
+            result.put("promptTokens", plan.getPromptTokens());
+            result.put("promptTokensSaved", plan.getPromptTokensSaved());
+        }
+        return result;
+    }
+
+    private void acquire(Semaphore permits) throws InterruptedException {
+        if (permits != null) permits.acquire();
+    }
+
+    private void release(Semaphore permits) {
+        if (permits != null) permits.release();
+    }
+
+    private void stage(Consumer<String> progress, String message) {
+        System.out.println("[IN-PROGRESS] " + message);
+        if (progress != null) {
+            progress.accept(message);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bg.resume_analyser.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory LRU of DOCX template files as raw package bytes, bounded by entry count and total size.
+ * Each read compares the file's modification time and size with the cached entry, so a template
+ * replaced in the JA folder is read again. Every caller parses its own document from the bytes:
+ * an {@code XWPFDocument} is mutable and has no copy cheaper than parsing, so parsed documents
+ * are never shared.
+ */
+@Service
+public class TemplateCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Entry(byte[] bytes, FileTime modified, long size) {
+    }
+
+    public TemplateCache(@Value("${docx.template-cache.enabled:true}") boolean enabled,
+                         @Value("${docx.template-cache.max-entries:32}") int maxEntries,
+                         @Value("${docx.template-cache.max-mb:64}") long maxMb) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxMb * 1024 * 1024;
+    }
+
+    /**
+     * The file's bytes, from memory when the cached copy still has the file's modification time and size.
+     * The array may be shared with other callers and must not be modified.
+     */
+    public byte[] read(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        if (enabled) {
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    if (entry.modified().equals(attributes.lastModifiedTime()) && entry.size() == attributes.size()) {
+                        hits.incrementAndGet();
+                        return entry.bytes();
+                    }
+                    stale.incrementAndGet();
+                    remove(key);
+                }
+            }
+        }
+        misses.incrementAndGet();
+        byte[] bytes = Files.readAllBytes(key);
+        // Only cache what was read if the file did not change while reading it
+        if (enabled && bytes.length <= maxBytes && bytes.length == attributes.size()) {
+            synchronized (entries) {
+                remove(key);
+                entries.put(key, new Entry(bytes, attributes.lastModifiedTime(), bytes.length));
+                totalBytes += bytes.length;
+                evict();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops the cached copy, e.g. after a template is uploaded again under the same name.
+     */
+    public void invalidate(Path path) {
+        synchronized (entries) {
+            remove(path.toAbsolutePath().normalize());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long lookups = hits.get() + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits.get() / lookups);
+        stats.put("stale", stale.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void remove(Path key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) totalBytes -= removed.bytes().length;
+    }
+
+    // Least recently used first, until both bounds hold
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            totalBytes -= eldest.next().bytes().length;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.bg.resume_analyser.service;
+
+/**
+ * Local approximation of BPE token counts, good enough for budgeting and rate limiting without
+ * shipping a tokenizer. Each run of letters or digits costs one token per four characters and
+ * every other non-whitespace character costs one token.
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        int tokens = 0;
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                run++;
+                continue;
+            }
+            tokens += (run + 3) / 4;
+            run = 0;
+            if (!Character.isWhitespace(c)) tokens++;
+        }
+        return tokens + (run + 3) / 4;
+    }
+
+    /**
+     * Cuts the text at a line boundary so that it fits within {@code maxTokens}.
+     */
+    public static String truncate(String text, int maxTokens) {
+        if (text == null || estimate(text) <= maxTokens) return text;
+        StringBuilder kept = new StringBuilder();
+        int used = 0;
+        for (String line : text.split("\n", -1)) {
+            int cost = estimate(line) + 1;
+            if (used + cost > maxTokens) break;
+            kept.append(line).append('\n');
+            used += cost;
+        }
+        return kept.toString().stripTrailing();
+    }
+}
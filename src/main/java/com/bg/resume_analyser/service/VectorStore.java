@@ -0,0 +1,330 @@
+package com.bg.resume_analyser.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only store of embedding vectors in a memory-mapped file, so vectors survive restarts and
+ * are read off-heap. Records are fixed size: a 32-byte SHA-256 key followed by the vector as
+ * float32, or as int8 with a per-vector scale. A 32-byte header holds the encoding, dimension and
+ * record count; the count is written after the record, so a torn append is simply not visible.
+ * Keys are found through an open-addressing table of slot numbers, compared against the keys in the
+ * mapped file, so the on-heap index costs a few bytes per record.
+ * The file is one mapping, so it holds at most 2 GB of records (or {@code vector-store.max-vectors});
+ * once full, new vectors are not persisted and later lookups for them are misses.
+ */
+@Service
+public class VectorStore {
+
+    private static final int MAGIC = 0x4A415653; // "JAVS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int KEY_BYTES = 32;
+    private static final int COUNT_OFFSET = 16;
+    private static final int MIN_CAPACITY = 64;
+    private static final int MIN_TABLE_SIZE = 128;
+
+    public enum Encoding { FLOAT32, INT8 }
+
+    private boolean enabled;
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // slot + 1 per used entry, 0 when empty; at most half full, probed linearly
+    private int[] table = new int[0];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int maxVectors;
+
+    private Encoding encoding;
+    private int dims;
+    private int recordBytes;
+    private int count;
+    private int capacity;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public VectorStore(@Value("${vector-store.enabled:true}") boolean enabled,
+                       @Value("${vector-store.encoding:float32}") String encoding,
+                       @Value("${vector-store.file:${user.home}/Documents/JA/.cache/vectors.bin}") String file,
+                       @Value("${vector-store.max-vectors:0}") int maxVectors) {
+        this.enabled = enabled;
+        this.maxVectors = maxVectors;
+        this.encoding = Encoding.valueOf(encoding.trim().toUpperCase(Locale.ROOT));
+        this.file = Paths.get(file);
+        if (enabled && Files.exists(this.file)) {
+            long start = System.nanoTime();
+            try {
+                open();
+                System.out.println("[VectorStore] Mapped " + count + " " + this.encoding + " vector(s) of " + dims
+                        + " dims from " + this.file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("[VectorStore] Could not open " + this.file + ", vectors will not be persisted: " + e.getMessage());
+                closeQuietly();
+                // Leave the unreadable file alone rather than truncating it on the next put
+                this.enabled = false;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a heap copy of the stored vector for a key, or null.
+     */
+    public float[] get(String key) {
+        if (!enabled) return null;
+        byte[] rawKey = HexFormat.of().parseHex(key);
+        lock.readLock().lock();
+        try {
+            int slot = buffer == null || rawKey.length != KEY_BYTES ? -1 : find(rawKey);
+            if (slot < 0) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return read(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a vector unless its key is already stored. Keys are content hashes, so an existing
+     * entry never needs replacing.
+     */
+    public void put(String key, float[] vector) {
+        if (!enabled || vector == null || vector.length == 0) return;
+        byte[] rawKey = HexFormat.of().parseHex(key);
+        if (rawKey.length != KEY_BYTES) throw new IllegalArgumentException("Vector store keys must be SHA-256 hex digests.");
+        lock.writeLock().lock();
+        try {
+            if (buffer == null) create(vector.length);
+            if (find(rawKey) >= 0) return;
+            if (vector.length != dims) {
+                System.err.println("[VectorStore] Skipping vector with " + vector.length + " dims; store holds " + dims + " dims.");
+                return;
+            }
+            if (count == capacity) {
+                int limit = maxCapacity();
+                if (capacity >= limit) {
+                    if (dropped.getAndIncrement() == 0) {
+                        System.err.println("[VectorStore] " + file + " is full at " + capacity + " vector(s); new vectors will not be persisted.");
+                    }
+                    return;
+                }
+                remap((int) Math.min(2L * capacity, limit));
+            }
+
+            int offset = offset(count);
+            buffer.put(offset, rawKey);
+            write(offset + KEY_BYTES, vector);
+            count++;
+            index(count - 1);
+            buffer.putLong(COUNT_OFFSET, count);
+            appends.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("[VectorStore] Could not append to " + file + ": " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        lock.readLock().lock();
+        try {
+            stats.put("vectors", count);
+            stats.put("dims", dims);
+            stats.put("encoding", encoding.name().toLowerCase(Locale.ROOT));
+            stats.put("fileBytes", buffer == null ? 0 : buffer.capacity());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("appends", appends.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (buffer != null) buffer.force();
+            closeQuietly();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_BYTES) throw new IllegalStateException("file is too short");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) throw new IllegalStateException("not a vector store file");
+
+        // The file's own encoding wins over the configured one
+        encoding = Encoding.values()[buffer.getInt(8)];
+        dims = buffer.getInt(12);
+        recordBytes = recordBytes(encoding, dims);
+        count = (int) buffer.getLong(COUNT_OFFSET);
+        capacity = (int) ((size - HEADER_BYTES) / recordBytes);
+        if (count > capacity) throw new IllegalStateException("record count exceeds file size");
+
+        for (int slot = 0; slot < count; slot++) index(slot);
+    }
+
+    private void create(int dims) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.dims = dims;
+        this.recordBytes = recordBytes(encoding, dims);
+        this.count = 0;
+        remap(Math.min(MIN_CAPACITY, maxCapacity()));
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, encoding.ordinal());
+        buffer.putInt(12, dims);
+        buffer.putLong(COUNT_OFFSET, 0);
+    }
+
+    /**
+     * Maps a larger region; mapping past the end of the file grows it.
+     */
+    private void remap(int newCapacity) throws IOException {
+        if (buffer != null) buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) newCapacity * recordBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = newCapacity;
+    }
+
+    /**
+     * The most records one mapping can hold, lowered to {@code vector-store.max-vectors} when set.
+     */
+    private int maxCapacity() {
+        int mappable = (Integer.MAX_VALUE - HEADER_BYTES) / recordBytes;
+        return maxVectors > 0 ? Math.min(maxVectors, mappable) : mappable;
+    }
+
+    /**
+     * The slot holding a key, or -1. Keys are SHA-256 digests, so their leading bytes are already a good hash.
+     */
+    private int find(byte[] rawKey) {
+        if (table.length == 0) return -1;
+        int mask = table.length - 1;
+        int hash = (rawKey[0] & 0xff) | (rawKey[1] & 0xff) << 8 | (rawKey[2] & 0xff) << 16 | (rawKey[3] & 0xff) << 24;
+        for (int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (keyEquals(offset(slot), rawKey)) return slot;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int offset, byte[] rawKey) {
+        for (int k = 0; k < KEY_BYTES; k++) {
+            if (buffer.get(offset + k) != rawKey[k]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds the key already written at a slot to the table, doubling the table once it is half full.
+     */
+    private void index(int slot) {
+        if (2L * count > table.length) {
+            int[] old = table;
+            table = new int[Math.max(MIN_TABLE_SIZE, Integer.highestOneBit(count) << 2)];
+            for (int entry : old) {
+                if (entry != 0) insert(entry - 1);
+            }
+        }
+        insert(slot);
+    }
+
+    private void insert(int slot) {
+        int mask = table.length - 1;
+        // The buffer is little-endian, matching the hash find() assembles from the key bytes
+        int i = buffer.getInt(offset(slot)) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = slot + 1;
+    }
+
+    private int offset(int slot) {
+        // Capacity is capped to what one mapping can address, so this never exceeds an int
+        return Math.toIntExact(HEADER_BYTES + (long) slot * recordBytes);
+    }
+
+    private static int recordBytes(Encoding encoding, int dims) {
+        return KEY_BYTES + (encoding == Encoding.INT8 ? Float.BYTES + dims : dims * Float.BYTES);
+    }
+
+    private void write(int offset, float[] vector) {
+        if (encoding == Encoding.FLOAT32) {
+            for (int i = 0; i < dims; i++) buffer.putFloat(offset + i * Float.BYTES, vector[i]);
+            return;
+        }
+        float max = 0;
+        for (float v : vector) max = Math.max(max, Math.abs(v));
+        float scale = max == 0 ? 1 : max / 127f;
+        buffer.putFloat(offset, scale);
+        for (int i = 0; i < dims; i++) buffer.put(offset + Float.BYTES + i, (byte) Math.round(vector[i] / scale));
+    }
+
+    private float[] read(int slot) {
+        int offset = offset(slot) + KEY_BYTES;
+        float[] vector = new float[dims];
+        if (encoding == Encoding.FLOAT32) {
+            for (int i = 0; i < dims; i++) vector[i] = buffer.getFloat(offset + i * Float.BYTES);
+        } else {
+            float scale = buffer.getFloat(offset);
+            for (int i = 0; i < dims; i++) vector[i] = buffer.get(offset + Float.BYTES + i) * scale;
+        }
+        return vector;
+    }
+
+    private void closeQuietly() {
+        buffer = null;
+        table = new int[0];
+        count = 0;
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,148 @@
+package com.bg.resume_analyser.benchmark;
+
+import com.bg.resume_analyser.service.DocxStructure;
+import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Structure extraction into a map per paragraph and run, as extractDocxStructure used to do it,
+ * against the typed, flyweight-backed DocxStructure. Both read the same already-parsed document.
+ * The retained* benchmarks report the heap each structure keeps alive as the retainedBytes counter,
+ * summed over the measurement iterations, so compare the two rather than read it as one structure;
+ * gc.alloc.rate.norm (from -prof gc) shows the allocation per extraction, most of it in POI getters.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=DocxStructure
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocxStructureBenchmark {
+
+	private static final int RETAINED_COPIES = 20;
+
+	@Param({"100", "1000"})
+	public int paragraphs;
+
+	private XWPFDocument doc;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		doc = new XWPFDocument();
+		for (int i = 0; i < paragraphs; i++) {
+			XWPFParagraph para = doc.createParagraph();
+			para.setAlignment(i % 10 == 0 ? ParagraphAlignment.CENTER : ParagraphAlignment.LEFT);
+			para.setSpacingAfter(120);
+			for (int r = 0; r < 4; r++) {
+				XWPFRun run = para.createRun();
+				run.setText("Run " + r + " of paragraph " + i + " describing a role. ");
+				run.setFontFamily(r == 0 ? "Georgia" : "Calibri");
+				run.setFontSize(r == 0 ? 12 : 10.5);
+				run.setBold(r == 0);
+				run.setColor("1F1F1F");
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		doc.close();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> mapPerParagraphAndRun() {
+		List<Map<String, Object>> docStructure = new ArrayList<>();
+		for (XWPFParagraph para : doc.getParagraphs()) {
+			Map<String, Object> paraInfo = new HashMap<>();
+			paraInfo.put("text", para.getText());
+			paraInfo.put("style", para.getStyle());
+			paraInfo.put("alignment", para.getAlignment());
+			paraInfo.put("spacingBefore", para.getSpacingBefore());
+			paraInfo.put("spacingAfter", para.getSpacingAfter());
+			List<Map<String, Object>> runsInfo = new ArrayList<>();
+			for (XWPFRun run : para.getRuns()) {
+				Map<String, Object> runInfo = new HashMap<>();
+				runInfo.put("text", run.text());
+				runInfo.put("fontFamily", run.getFontFamily());
+				runInfo.put("fontSize", run.getFontSizeAsDouble());
+				runInfo.put("bold", run.isBold());
+				runInfo.put("italic", run.isItalic());
+				runInfo.put("underline", run.getUnderline());
+				runInfo.put("color", run.getColor());
+				runsInfo.add(runInfo);
+			}
+			paraInfo.put("runs", runsInfo);
+			docStructure.add(paraInfo);
+		}
+		return docStructure;
+	}
+
+	@Benchmark
+	public DocxStructure typedFlyweight() {
+		return DocxStructure.extract(doc);
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+		public long retainedBytes;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+	public Object[] retainedMaps(Footprint footprint) {
+		return retain(footprint, this::mapPerParagraphAndRun);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+	public Object[] retainedTyped(Footprint footprint) {
+		return retain(footprint, this::typedFlyweight);
+	}
+
+	// Heap growth, after full collections, while holding several copies of the structure
+	private static Object[] retain(Footprint footprint, Supplier<Object> extract) {
+		Object[] copies = new Object[RETAINED_COPIES];
+		long before = usedHeap();
+		for (int i = 0; i < copies.length; i++) {
+			copies[i] = extract.get();
+		}
+		footprint.retainedBytes = (usedHeap() - before) / RETAINED_COPIES;
+		return copies;
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
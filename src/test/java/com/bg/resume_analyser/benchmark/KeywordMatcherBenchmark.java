@@ -0,0 +1,90 @@
+package com.bg.resume_analyser.benchmark;
+
+import com.bg.resume_analyser.service.KeywordMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Per-keyword regex matching, as MatchingService used to do it, against one Aho-Corasick scan.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=KeywordMatcher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+	private static final String[] VOCABULARY = {
+			"java", "spring boot", "kubernetes", "docker", "microservices", "rest", "graphql", "postgresql",
+			"kafka", "aws", "terraform", "react", "typescript", "communication", "leadership", "mentoring",
+			"ci/cd", "c++", "python", "agile", "scrum", "design reviews", "on-call", "observability",
+			"grafana", "prometheus", "redis", "elasticsearch", "oauth", "security", "testing", "junit",
+			"performance tuning", "code review", "ownership", "stakeholders", "roadmap", "hiring", "linux", "bash"
+	};
+
+	@Param({"10", "40"})
+	public int terms;
+
+	private String resume;
+	private List<String> keywords;
+	private KeywordMatcher matcher;
+
+	@Setup
+	public void setUp() {
+		StringBuilder text = new StringBuilder("Jane Doe\nSenior Software Developer, 8 years of experience\n\n");
+		for (int i = 0; i < 60; i++) {
+			text.append("- Built and operated ").append(VOCABULARY[i % VOCABULARY.length])
+					.append(" services with ").append(VOCABULARY[(i * 7) % VOCABULARY.length])
+					.append(", improving latency and reliability for millions of users.\n");
+		}
+		resume = text.toString();
+		keywords = new ArrayList<>(List.of(VOCABULARY).subList(0, terms));
+		matcher = new KeywordMatcher(keywords);
+	}
+
+	@Benchmark
+	public int regexPerKeyword() {
+		int found = 0;
+		for (String keyword : keywords) {
+			Pattern pattern = Pattern.compile("\\b" + Pattern.quote(keyword.toLowerCase()) + "\\b");
+			if (pattern.matcher(resume.toLowerCase()).find()) found++;
+		}
+		return found;
+	}
+
+	@Benchmark
+	public int ahoCorasickScan() {
+		KeywordMatcher.Hits hits = matcher.scan(resume);
+		int found = 0;
+		for (String keyword : keywords) {
+			if (hits.containsWord(keyword)) found++;
+		}
+		return found;
+	}
+
+	@Benchmark
+	public int ahoCorasickBuildAndScan() {
+		KeywordMatcher.Hits hits = new KeywordMatcher(keywords).scan(resume);
+		int found = 0;
+		for (String keyword : keywords) {
+			if (hits.containsWord(keyword)) found++;
+		}
+		return found;
+	}
+}
@@ -0,0 +1,89 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Finds a resume's tailored documents by its id, derives ETags from content and exports them as a ZIP.
+ */
+class ArtifactServiceTests {
+
+	@TempDir
+	Path base;
+
+	@Test
+	void findsDocumentsAndTagsThemByContent() throws IOException {
+		ArtifactService artifacts = new ArtifactService(base.toString());
+		Path older = write("Acme_Engineer/cv_7_tailored.docx", new byte[]{1, 2, 3}, 100);
+		Path newer = write("Globex_Developer/cv_7_tailored.docx", new byte[]{1, 2, 3}, 200);
+		write("Globex_Developer/other_7_tailored.docx", new byte[]{9}, 300);
+		// Another resume uploaded under the same name
+		write("Globex_Developer/cv_8_tailored.docx", new byte[]{9}, 300);
+		Resume resume = resume(7L);
+
+		assertEquals(List.of(newer, older), artifacts.tailoredDocuments(resume));
+		assertEquals(newer, artifacts.latestTailoredDocument(resume).orElseThrow());
+		assertEquals(older, artifacts.tailoredDocument(resume, "Acme_Engineer").orElseThrow());
+		assertTrue(artifacts.tailoredDocument(resume, "../Acme_Engineer").isEmpty());
+
+		String etag = artifacts.etag(older);
+		assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+		assertEquals(etag, artifacts.etag(newer));
+		write("Acme_Engineer/cv_7_tailored.docx", new byte[]{4, 5, 6, 7}, 400);
+		assertNotEquals(etag, artifacts.etag(older));
+	}
+
+	@Test
+	void exportsDocumentsWithTheirMetadata() throws IOException {
+		ArtifactService artifacts = new ArtifactService(base.toString());
+		write("Acme_Engineer/cv_7_tailored.docx", new byte[]{1, 2, 3}, 100);
+		write("Acme_Engineer/" + ArtifactService.METADATA, "Company: Acme".getBytes(), 100);
+		write("Globex_Developer/cv_7_tailored.docx", new byte[]{4, 5}, 200);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		artifacts.writeZip(resume(7L), out);
+
+		Map<String, byte[]> entries = new HashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) entries.put(entry.getName(), zip.readAllBytes());
+		}
+		assertEquals(3, entries.size());
+		assertArrayEquals(new byte[]{1, 2, 3}, entries.get("Acme_Engineer/cv_7_tailored.docx"));
+		assertArrayEquals("Company: Acme".getBytes(), entries.get("Acme_Engineer/metadata.txt"));
+		assertArrayEquals(new byte[]{4, 5}, entries.get("Globex_Developer/cv_7_tailored.docx"));
+	}
+
+	private static Resume resume(Long id) {
+		Resume resume = new Resume("cv.docx", "text");
+		resume.setId(id);
+		return resume;
+	}
+
+	private Path write(String name, byte[] content, long modifiedSeconds) throws IOException {
+		Path file = base.resolve(name);
+		Files.createDirectories(file.getParent());
+		Files.write(file, content);
+		Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(modifiedSeconds)));
+		return file;
+	}
+}
@@ -0,0 +1,167 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditPlan;
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.request.TailorRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs bulk tailoring against a stubbed pipeline and checks the NDJSON stream: one line per
+ * vacancy, failures reported on their own line, a closing summary and the cap on parallel LLM calls.
+ */
+class BulkTailoringServiceTests {
+
+	private static final int LLM_PERMITS = 2;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	private final TailoringService tailoringService = new TailoringService(null, null, null, null, null, null, null, false) {
+		@Override
+		public String resolveJobText(TailorRequest tailorRequest, Consumer<String> progress) {
+			if (tailorRequest.getJobDescription() == null) {
+				throw new IllegalArgumentException("Either vacancyUrl or jobDescription is required.");
+			}
+			return tailorRequest.getJobDescription();
+		}
+
+		@Override
+		public EditPlan generateEditPlan(Resume resume, String jobText, Consumer<String> progress) {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				inFlight.decrementAndGet();
+			}
+			return new EditPlan();
+		}
+
+		@Override
+		public Map<String, Object> applyEditPlan(Resume resume, EditPlan plan, String vacancyUrl, Consumer<String> progress) {
+			return Map.of("tailoredPath", "/tmp/" + vacancyUrl + ".docx");
+		}
+	};
+
+	private final RecordingEmitter emitter = new RecordingEmitter();
+
+	private final BulkTailoringService service = new BulkTailoringService(tailoringService, 8, 50, LLM_PERMITS, 100, 60_000) {
+		@Override
+		ResponseBodyEmitter createEmitter() {
+			return emitter;
+		}
+	};
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void streamsOneLinePerVacancyThenASummary() throws Exception {
+		List<TailorRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			requests.add(request("vacancy-" + i, i == 4 ? null : "Java developer " + i));
+		}
+
+		service.tailorAll(resume(), requests);
+		assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+
+		List<JsonNode> lines = new ArrayList<>();
+		for (String line : emitter.lines) {
+			assertTrue(line.endsWith("\n"));
+			lines.add(objectMapper.readTree(line));
+		}
+		assertEquals(11, lines.size());
+
+		Set<Integer> indexes = new HashSet<>();
+		for (JsonNode line : lines.subList(0, 10)) {
+			int index = line.get("index").asInt();
+			indexes.add(index);
+			assertEquals("vacancy-" + index, line.get("vacancyUrl").asText());
+			if (index == 4) {
+				assertEquals("FAILED", line.get("status").asText());
+				assertEquals("Either vacancyUrl or jobDescription is required.", line.get("error").asText());
+			} else {
+				assertEquals("SUCCEEDED", line.get("status").asText());
+				assertEquals("/tmp/vacancy-" + index + ".docx", line.get("tailoredPath").asText());
+			}
+		}
+		assertEquals(10, indexes.size());
+
+		JsonNode summary = lines.get(10);
+		assertTrue(summary.get("summary").asBoolean());
+		assertEquals(10, summary.get("total").asInt());
+		assertEquals(9, summary.get("succeeded").asInt());
+		assertEquals(1, summary.get("failed").asInt());
+	}
+
+	@Test
+	void capsParallelLlmCalls() throws Exception {
+		List<TailorRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			requests.add(request("vacancy-" + i, "Java developer " + i));
+		}
+
+		service.tailorAll(resume(), requests);
+		assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+
+		assertEquals(17, emitter.lines.size());
+		assertEquals(LLM_PERMITS, maxInFlight.get());
+	}
+
+	private static TailorRequest request(String vacancyUrl, String jobDescription) {
+		TailorRequest request = new TailorRequest();
+		request.setVacancyUrl(vacancyUrl);
+		request.setJobDescription(jobDescription);
+		return request;
+	}
+
+	private static Resume resume() {
+		Resume resume = new Resume();
+		resume.setId(3L);
+		return resume;
+	}
+
+	/**
+	 * Keeps every line sent and counts down on completion.
+	 */
+	private static class RecordingEmitter extends ResponseBodyEmitter {
+
+		final List<String> lines = new CopyOnWriteArrayList<>();
+		final CountDownLatch completed = new CountDownLatch(1);
+
+		@Override
+		public void send(Object object, MediaType mediaType) throws IOException {
+			assertEquals(BulkTailoringService.APPLICATION_NDJSON_UTF8, mediaType);
+			lines.add((String) object);
+		}
+
+		@Override
+		public void complete() {
+			completed.countDown();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.bg.resume_analyser.service;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.poi.xwpf.usermodel.Document;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Patches a template with an embedded image and checks that only the document part was rewritten.
+ */
+class DocxPatchingTests {
+
+	@Test
+	void replacesOnlyTheDocumentPart() throws Exception {
+		byte[] image = new byte[64 * 1024];
+		for (int i = 0; i < image.length; i++) image[i] = (byte) (i * 31 % 7);
+		byte[] template;
+		try (XWPFDocument doc = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			doc.createParagraph().createRun().setText("Built services for payments.");
+			doc.createParagraph().createRun().addPicture(new ByteArrayInputStream(image), Document.PICTURE_TYPE_PNG, "photo.png", 100, 100);
+			doc.write(out);
+			template = out.toByteArray();
+		}
+
+		byte[] patched;
+		try (XWPFDocument doc = new XWPFDocument(new ByteArrayInputStream(template)); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			XWPFRun run = doc.getParagraphs().get(0).getRuns().get(0);
+			run.setText("Built Kotlin services for payments.", 0);
+			run.setBold(true);
+			new DocxService(new TemplateCache(false, 0, 0), true).writePatched(doc, template, out);
+			patched = out.toByteArray();
+		}
+
+		try (XWPFDocument doc = new XWPFDocument(new ByteArrayInputStream(patched))) {
+			assertEquals("Built Kotlin services for payments.", doc.getParagraphs().get(0).getText());
+			assertTrue(doc.getParagraphs().get(0).getRuns().get(0).isBold());
+			assertArrayEquals(image, doc.getAllPictures().get(0).getData());
+		}
+		try (ZipFile before = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(template)).get();
+			 ZipFile after = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(patched)).get()) {
+			List<String> names = new ArrayList<>();
+			before.getEntriesInPhysicalOrder().asIterator().forEachRemaining(e -> names.add(e.getName()));
+			List<String> patchedNames = new ArrayList<>();
+			after.getEntriesInPhysicalOrder().asIterator().forEachRemaining(e -> patchedNames.add(e.getName()));
+			assertEquals(names, patchedNames);
+
+			for (String name : names) {
+				if (name.equals("word/document.xml")) continue;
+				ZipArchiveEntry original = before.getEntry(name);
+				ZipArchiveEntry copied = after.getEntry(name);
+				assertEquals(original.getCrc(), copied.getCrc(), name);
+				assertEquals(original.getCompressedSize(), copied.getCompressedSize(), name);
+				assertArrayEquals(before.getRawInputStream(original).readAllBytes(), after.getRawInputStream(copied).readAllBytes(), name);
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.bg.resume_analyser.service;
+
+import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that identical styles share one instance and that extracted styles apply back unchanged.
+ */
+class DocxStructureTests {
+
+	@Test
+	void sharesIdenticalStyles() throws IOException {
+		try (XWPFDocument doc = new XWPFDocument()) {
+			for (int i = 0; i < 3; i++) {
+				XWPFParagraph para = doc.createParagraph();
+				para.setAlignment(ParagraphAlignment.CENTER);
+				run(para, "Heading " + i, true);
+				run(para, "body " + i, false);
+			}
+			doc.createParagraph();
+
+			DocxStructure.StylePool pool = new DocxStructure.StylePool();
+			DocxStructure structure = DocxStructure.extract(doc, pool);
+
+			assertEquals(4, structure.paragraphCount());
+			assertEquals("Heading 1body 1", structure.paragraphText(1));
+			assertEquals("body 2", structure.runText(2, 1));
+			assertSame(structure.runStyle(0, 0), structure.runStyle(2, 0));
+			assertSame(structure.runStyle(0, 1), structure.runStyle(1, 1));
+			assertNotSame(structure.runStyle(0, 0), structure.runStyle(0, 1));
+			assertSame(structure.paragraphStyle(0), structure.paragraphStyle(2));
+			assertEquals(0, structure.runCount(3));
+			assertNull(structure.firstRunStyle(3));
+			// Two run styles and two paragraph styles (centred, and the empty default)
+			assertEquals(4, pool.size());
+		}
+	}
+
+	@Test
+	void appliesExtractedStyles() throws IOException {
+		try (XWPFDocument doc = new XWPFDocument(); XWPFDocument target = new XWPFDocument()) {
+			XWPFParagraph source = doc.createParagraph();
+			source.setAlignment(ParagraphAlignment.RIGHT);
+			source.setSpacingAfter(120);
+			run(source, "Summary", true);
+			DocxStructure structure = DocxStructure.extract(doc);
+
+			XWPFParagraph para = target.createParagraph();
+			XWPFRun run = para.createRun();
+			DocxStyleUtil.applyParagraphStyles(para, structure.paragraphStyle(0));
+			DocxStyleUtil.applyRunStyles(run, structure.firstRunStyle(0));
+
+			assertEquals(ParagraphAlignment.RIGHT, para.getAlignment());
+			assertEquals(120, para.getSpacingAfter());
+			assertEquals(-1, para.getSpacingBefore());
+			assertEquals("Georgia", run.getFontFamily());
+			assertEquals(14.0, run.getFontSizeAsDouble());
+			assertTrue(run.isBold());
+			assertEquals("1F4E79", run.getColor());
+		}
+	}
+
+	private static void run(XWPFParagraph para, String text, boolean heading) {
+		XWPFRun run = para.createRun();
+		run.setText(text);
+		run.setFontFamily(heading ? "Georgia" : "Calibri");
+		run.setFontSize(heading ? 14 : 11);
+		run.setBold(heading);
+		run.setColor(heading ? "1F4E79" : "000000");
+	}
+}
@@ -0,0 +1,126 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the memory LRU, the disk tier across restarts, TTL expiry in both tiers, pruning of the
+ * oldest files and unreadable entries.
+ */
+class EditPlanCacheTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void evictsLeastRecentlyUsedFromMemory() {
+		EditPlanCache cache = cache(2, 10, 168);
+		cache.put(key("a"), "plan a");
+		cache.put(key("b"), "plan b");
+		assertEquals(Optional.of("plan a"), cache.get(key("a")));
+		cache.put(key("c"), "plan c");
+
+		// b was used least recently, so it is only left on disk
+		assertEquals(Optional.of("plan a"), cache.get(key("a")));
+		assertEquals(Optional.of("plan b"), cache.get(key("b")));
+		assertEquals(2L, cache.getStats().get("memoryHits"));
+		assertEquals(1L, cache.getStats().get("diskHits"));
+		assertEquals(2L, cache.getStats().get("evictions"));
+	}
+
+	@Test
+	void servesEntriesFromDiskAfterRestart() {
+		cache(4, 10, 168).put(key("a"), "plan a");
+
+		EditPlanCache restarted = cache(4, 10, 168);
+		assertEquals(1, restarted.getStats().get("diskEntries"));
+		assertEquals(Optional.of("plan a"), restarted.get(key("a")));
+		assertEquals(Optional.of("plan a"), restarted.get(key("a")));
+		assertEquals(1L, restarted.getStats().get("diskHits"));
+		assertEquals(1L, restarted.getStats().get("memoryHits"));
+		assertEquals(Optional.empty(), restarted.get(key("b")));
+		assertEquals(1L, restarted.getStats().get("misses"));
+	}
+
+	@Test
+	void expiresEntriesInBothTiers() throws Exception {
+		EditPlanCache cache = cache(4, 10, 0);
+		cache.put(key("a"), "plan a");
+		Thread.sleep(5);
+
+		assertEquals(Optional.empty(), cache.get(key("a")));
+		assertEquals(2L, cache.getStats().get("expirations"));
+		assertFalse(Files.exists(file("a")));
+		assertEquals(0, cache.getStats().get("diskEntries"));
+	}
+
+	@Test
+	void expiresOldFilesOnDisk() throws IOException {
+		cache(4, 10, 168).put(key("a"), "plan a");
+		age(file("a"), 2);
+
+		EditPlanCache restarted = cache(4, 10, 1);
+		assertEquals(Optional.empty(), restarted.get(key("a")));
+		assertEquals(1L, restarted.getStats().get("expirations"));
+		assertFalse(Files.exists(file("a")));
+	}
+
+	@Test
+	void prunesOldestFilesFirst() throws IOException {
+		EditPlanCache cache = cache(4, 2, 168);
+		cache.put(key("a"), "plan a");
+		age(file("a"), 3);
+		cache.put(key("b"), "plan b");
+		age(file("b"), 2);
+		cache.put(key("c"), "plan c");
+
+		assertFalse(Files.exists(file("a")));
+		assertTrue(Files.exists(file("b")));
+		assertTrue(Files.exists(file("c")));
+		assertEquals(2, cache.getStats().get("diskEntries"));
+		assertEquals(1L, cache.getStats().get("evictions"));
+	}
+
+	@Test
+	void dropsUnreadableEntries() throws IOException {
+		Files.write(file("a"), new byte[]{(byte) 0xC3, (byte) 0x28, (byte) 0xFF});
+		Files.createDirectory(file("b"));
+		EditPlanCache cache = cache(4, 10, 168);
+
+		assertEquals(Optional.empty(), cache.get(key("a")));
+		assertEquals(Optional.empty(), cache.get(key("b")));
+		assertFalse(Files.exists(file("a")));
+		assertFalse(Files.exists(file("b")));
+		assertEquals(2L, cache.getStats().get("misses"));
+
+		cache.put(key("a"), "plan a");
+		assertEquals(Optional.of("plan a"), cache(4, 10, 168).get(key("a")));
+	}
+
+	private EditPlanCache cache(int memoryEntries, int diskEntries, long ttlHours) {
+		return new EditPlanCache(true, memoryEntries, diskEntries, ttlHours, dir.toString());
+	}
+
+	private static String key(String resume) {
+		return EditPlanCache.key(resume, "job", ImproveService.MODEL, ImproveService.PROMPT_VERSION);
+	}
+
+	private Path file(String resume) {
+		return dir.resolve(key(resume) + ".json");
+	}
+
+	private static void age(Path file, long hours) throws IOException {
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(hours * 3600)));
+	}
+}
@@ -0,0 +1,102 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EditPlanPromptBuilderTests {
+
+	private static final String RESUME = """
+			Jane Smith
+			jane@example.com | +44 7000 000000
+			Personal Summary
+			Software developer moving into backend engineering.
+			Experience
+			Acme Ltd — Developer
+			• Built REST APIs with Spring Boot.
+			Education
+			BSc Computer Science, 2019
+			Skills & Abilities
+			Languages: Java, Python
+			References
+			Available on request.
+			""";
+
+	private static final String JOB = """
+			Job Title: Java Developer
+			Company: Innovate Inc.
+
+			Responsibilities
+			Build services in Java.
+			Benefits
+			Private healthcare
+			25 days holiday
+			Requirements
+			3+ years of Java.
+			We are an equal opportunity employer and value diversity.
+			""";
+
+	@Test
+	void keepsOnlyEditableResumeSections() {
+		String sections = EditPlanPromptBuilder.extractEditableSections(RESUME);
+
+		assertTrue(sections.startsWith("Personal Summary\nSoftware developer"));
+		assertTrue(sections.contains("• Built REST APIs with Spring Boot."));
+		assertTrue(sections.contains("Skills & Abilities\nLanguages: Java, Python"));
+		assertFalse(sections.contains("jane@example.com"));
+		assertFalse(sections.contains("BSc"));
+		assertFalse(sections.contains("Available on request"));
+	}
+
+	@Test
+	void stripsJobBoilerplate() {
+		String job = EditPlanPromptBuilder.stripJobBoilerplate(JOB);
+
+		assertTrue(job.contains("Company: Innovate Inc."));
+		assertTrue(job.contains("3+ years of Java."));
+		assertFalse(job.contains("healthcare"));
+		assertFalse(job.contains("equal opportunity"));
+	}
+
+	@Test
+	void keepsInstructionsAsStablePrefixAndEnforcesBudget() {
+		EditPlanPromptBuilder builder = new EditPlanPromptBuilder(60, 12);
+		EditPlanPromptBuilder.EditPlanPrompt prompt = builder.build(RESUME, JOB + "Build services in Java.\n".repeat(200));
+
+		assertEquals(EditPlanPromptBuilder.INSTRUCTIONS, prompt.instructions());
+		assertTrue(prompt.tokensSaved() > 0);
+		assertTrue(prompt.tokens() - TokenEstimator.estimate(EditPlanPromptBuilder.INSTRUCTIONS) <= 60);
+		assertTrue(prompt.context().contains("Personal Summary"));
+	}
+
+	@Test
+	void sendsOnlyMostRelevantExperienceBullets() {
+		StringBuilder resume = new StringBuilder("Experience\nAcme Ltd — Developer\n");
+		for (int i = 0; i < 20; i++) {
+			resume.append("• Maintained internal reporting spreadsheets and weekly status updates number ").append(i).append(".\n");
+		}
+		resume.append("• Built Kafka consumers in Java with Spring Boot for payment events.\n");
+		resume.append("Skills & Abilities\nLanguages: Java\n");
+		String job = "We need a Java developer with Kafka and Spring Boot experience to build payment services.";
+
+		EditPlanPromptBuilder.EditPlanPrompt prompt = new EditPlanPromptBuilder(6000, 3).build(resume.toString(), job);
+
+		assertEquals(3, prompt.bulletsKept());
+		assertEquals(21, prompt.bulletsTotal());
+		assertTrue(prompt.context().contains("• Built Kafka consumers in Java with Spring Boot for payment events."));
+		assertTrue(prompt.context().contains("Acme Ltd — Developer"));
+		assertTrue(prompt.context().contains("less relevant bullet(s) omitted"));
+	}
+
+	@Test
+	void fingerprintChangesWithSettings() {
+		String fingerprint = new EditPlanPromptBuilder(6000, 12).fingerprint();
+
+		assertEquals(fingerprint, new EditPlanPromptBuilder(6000, 12).fingerprint());
+		assertNotEquals(fingerprint, new EditPlanPromptBuilder(3000, 12).fingerprint());
+		assertNotEquals(fingerprint, new EditPlanPromptBuilder(6000, 3).fingerprint());
+	}
+}
@@ -0,0 +1,111 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.EditPlan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EditPlanStreamParserTests {
+
+	private static final String PLAN = """
+			{
+			  "company_name": "Innovate Inc.",
+			  "position_title": "Java Developer",
+			  "contact_person": "",
+			  "edit_plan": [
+			    {"action": "REPLACE", "section": "Experience", "original_text": "• Built APIs.", "new_text": "• Built REST APIs with Spring Boot."},
+			    {"action": "REPLACE", "section": "Personal Summary", "original_text": "Developer.", "new_text": "Java developer – café-grade {braces} [brackets]."}
+			  ],
+			  "skills_to_add": {
+			    "Languages": ["TypeScript"],
+			    "Cloud & DevOps": ["Docker", "Kubernetes"]
+			  }
+			}""";
+
+	@Test
+	void emitsEachActionAndCategoryAsSoonAsItCloses() throws IOException {
+		List<String> events = new ArrayList<>();
+		EditPlanStreamParser parser = new EditPlanStreamParser(new EditPlanListener() {
+			@Override
+			public void onField(String name, String value) {
+				events.add("field:" + name);
+			}
+
+			@Override
+			public void onEditAction(EditAction action) {
+				events.add("edit:" + action.getSection());
+			}
+
+			@Override
+			public void onSkillsCategory(String category, List<String> skills) {
+				events.add("skills:" + category + ":" + skills.size());
+			}
+		});
+
+		int firstActionEnd = PLAN.indexOf('}', PLAN.indexOf("\"edit_plan\"")) + 1;
+		// Feed in tiny fragments, as SSE deltas arrive, and check nothing is emitted early
+		for (int i = 0; i < PLAN.length(); i += 3) {
+			int end = Math.min(PLAN.length(), i + 3);
+			parser.feed(PLAN.substring(i, end));
+			if (end < firstActionEnd) {
+				assertEquals(false, events.contains("edit:Experience"));
+			}
+			if (end >= firstActionEnd && end < firstActionEnd + 3) {
+				assertEquals(true, events.contains("edit:Experience"));
+			}
+		}
+		EditPlan plan = parser.finish();
+
+		assertEquals(List.of("field:company_name", "field:position_title", "field:contact_person",
+				"edit:Experience", "edit:Personal Summary", "skills:Languages:1", "skills:Cloud & DevOps:2"), events);
+		assertEquals("Java developer – café-grade {braces} [brackets].", plan.getEditActions().get(1).getNewText());
+		assertEquals("Innovate Inc.", plan.getCompanyName());
+		assertEquals(List.of("Docker", "Kubernetes"), plan.getSkillsToAdd().getCategories().get("Cloud & DevOps"));
+	}
+
+	@Test
+	void skipsInvalidEntries() throws IOException {
+		EditPlan plan = EditPlanStreamParser.parse("""
+				{
+				  "company_name": "Innovate Inc.",
+				  "edit_plan": [
+				    {"action": "REPLACE", "section": "Skills & Abilities", "original_text": "Java", "new_text": "Java, Go"},
+				    {"action": "REPLACE", "section": "Experience", "original_text": "", "new_text": "Something"},
+				    {"action": "REPLACE", "section": "Experience", "original_text": "• Built APIs.", "new_text": "• Built REST APIs.", "extra": {"nested": [1]}}
+				  ],
+				  "skills_to_add": {"Languages": ["Go", " ", "Go"], "Databases": []}
+				}""");
+
+		assertEquals(1, plan.getEditActions().size());
+		assertEquals("• Built APIs.", plan.getEditActions().get(0).getOriginalText());
+		assertEquals(List.of("Go"), plan.getSkillsToAdd().getCategories().get("Languages"));
+		assertEquals(1, plan.getSkillsToAdd().size());
+		assertEquals("", plan.getContactPerson());
+	}
+
+	@Test
+	void failsWhenStreamIsTruncated() throws IOException {
+		EditPlanStreamParser parser = new EditPlanStreamParser(null);
+		parser.feed(PLAN.substring(0, PLAN.length() / 2));
+		assertThrows(IOException.class, parser::finish);
+	}
+
+	@Test
+	void roundTripsThroughCacheJson() throws IOException {
+		EditPlan plan = EditPlanStreamParser.parse(PLAN).withPromptStats(100, 50);
+		String json = new ObjectMapper().writeValueAsString(plan);
+		EditPlan restored = EditPlanStreamParser.parse(json);
+
+		assertEquals(false, json.contains("prompt"));
+		assertEquals(plan.getEditActions().size(), restored.getEditActions().size());
+		assertEquals(plan.getSkillsToAdd().getCategories(), restored.getSkillsToAdd().getCategories());
+		assertEquals("Java Developer", restored.getPositionTitle());
+	}
+}
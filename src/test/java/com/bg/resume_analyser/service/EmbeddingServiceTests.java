@@ -0,0 +1,80 @@
+package com.bg.resume_analyser.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that uncached texts are embedded in one batched request and later lookups are served from the cache.
+ */
+class EmbeddingServiceTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+	private HttpServer server;
+
+	@BeforeEach
+	void startStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/embeddings", exchange -> {
+			JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+			JsonNode inputs = request.get("input");
+			batchSizes.add(inputs.size());
+			// Returned out of order to check that "index" is honoured; vector is (length, 1) unnormalised
+			StringBuilder body = new StringBuilder("{\"object\":\"list\",\"data\":[");
+			for (int i = inputs.size() - 1; i >= 0; i--) {
+				body.append("{\"object\":\"embedding\",\"index\":").append(i)
+						.append(",\"embedding\":[").append(inputs.get(i).asText().length()).append(",1.0]}");
+				if (i > 0) body.append(',');
+			}
+			body.append("],\"model\":\"test\"}");
+			byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void stopStubServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void batchesMissesAndCachesNormalisedVectors() throws Exception {
+		EmbeddingService embeddings = new EmbeddingService(client(), new VectorStore(false, "float32", "unused", 0), "test", 256, 100, 10000);
+
+		List<float[]> first = embeddings.embedAll(List.of("resume", "job one", "job two"));
+		assertEquals(List.of(3), batchSizes);
+		// "resume" has six characters, so its vector is (6, 1) normalised
+		assertEquals(6 / Math.sqrt(37), first.get(0)[0], 1e-6);
+		assertEquals(1.0, EmbeddingService.similarity(first.get(1), first.get(1)), 1e-6);
+
+		List<float[]> second = embeddings.embedAll(List.of("resume", "job three"));
+		assertEquals(List.of(3, 1), batchSizes);
+		assertEquals(first.get(0), second.get(0));
+		assertEquals(1L, embeddings.getStats().get("hits"));
+		assertEquals(4L, embeddings.getStats().get("misses"));
+	}
+
+	private LlmClient client() {
+		return new LlmClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(),
+				1000, 10000, 1, 10, 50, 500, 200000, 5, 60000,
+				new HedgingPolicy(false, 95, 20, 1000, 0.1, 200));
+	}
+}
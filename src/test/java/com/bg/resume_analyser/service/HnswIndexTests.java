@@ -0,0 +1,63 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares HNSW search results with an exact scan over random normalised vectors.
+ */
+class HnswIndexTests {
+
+	private static final int DIMS = 32;
+
+	@Test
+	void findsMostTrueNearestNeighbours() {
+		Random random = new Random(7);
+		float[][] vectors = new float[3000][];
+		HnswIndex index = new HnswIndex(16, 100, 64);
+		for (int i = 0; i < vectors.length; i++) {
+			vectors[i] = randomVector(random);
+			index.add(i, vectors[i]);
+		}
+		assertEquals(vectors.length, index.size());
+
+		int found = 0;
+		int queries = 50;
+		for (int q = 0; q < queries; q++) {
+			float[] query = randomVector(random);
+			Set<Long> exact = IntStream.range(0, vectors.length).boxed()
+					.sorted(Comparator.comparingDouble(i -> -EmbeddingService.similarity(query, vectors[i])))
+					.limit(10).map(Integer::longValue).collect(Collectors.toSet());
+			List<HnswIndex.Hit> hits = index.search(query, 10);
+			assertEquals(10, hits.size());
+			assertTrue(hits.get(0).score() >= hits.get(9).score());
+			Set<Long> approximate = new HashSet<>();
+			hits.forEach(hit -> approximate.add(hit.id()));
+			approximate.retainAll(exact);
+			found += approximate.size();
+		}
+		double recall = found / (queries * 10.0);
+		assertTrue(recall >= 0.9, "recall@10 was " + recall);
+	}
+
+	private static float[] randomVector(Random random) {
+		float[] v = new float[DIMS];
+		double norm = 0;
+		for (int d = 0; d < DIMS; d++) {
+			v[d] = (float) random.nextGaussian();
+			norm += v[d] * v[d];
+		}
+		for (int d = 0; d < DIMS; d++) v[d] /= (float) Math.sqrt(norm);
+		return v;
+	}
+}
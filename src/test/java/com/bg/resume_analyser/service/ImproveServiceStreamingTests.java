@@ -0,0 +1,106 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.EditPlan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the streaming edit plan call against a local stub of the OpenAI chat completions SSE endpoint.
+ */
+class ImproveServiceStreamingTests {
+
+	private static final String FIRST_HALF = "{\"company_name\":\"Innovate Inc.\",\"position_title\":\"Java Developer\",\"contact_person\":\"\","
+			+ "\"edit_plan\":[{\"action\":\"REPLACE\",\"section\":\"Experience\",\"original_text\":\"• Built APIs.\",\"new_text\":\"• Built REST APIs.\"}";
+	private static final String SECOND_HALF = ",{\"action\":\"REPLACE\",\"section\":\"Personal Summary\",\"original_text\":\"Developer.\",\"new_text\":\"Java developer.\"}],"
+			+ "\"skills_to_add\":{\"Languages\":[\"TypeScript\"]}}";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final CountDownLatch firstActionSeen = new CountDownLatch(1);
+	private volatile boolean firstActionSeenBeforeSecondHalf;
+	private HttpServer server;
+	private ImproveService improveService;
+
+	@BeforeEach
+	void startStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/chat/completions", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				for (String delta : chunk(FIRST_HALF, 7)) {
+					writeEvent(out, delta);
+				}
+				// Hold the rest of the stream until the client has reacted to the first edit action
+				try {
+					firstActionSeenBeforeSecondHalf = firstActionSeen.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (String delta : chunk(SECOND_HALF, 7)) {
+					writeEvent(out, delta);
+				}
+				out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		server.start();
+
+		LlmClient llmClient = new LlmClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(),
+				1000, 10000, 1, 10, 10, 500, 200000, 5, 30000, new HedgingPolicy(false, 95, 20, 1000, 0.1, 200));
+		improveService = new ImproveService(llmClient, new EditPlanCache(false, 0, 0, 1, "unused"), new EditPlanPromptBuilder(6000, 12), 10000);
+	}
+
+	@AfterEach
+	void stopStubServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void streamsEditActionsBeforeGenerationFinishes() {
+		List<String> sections = new CopyOnWriteArrayList<>();
+		EditPlan plan = improveService.generateEditPlanStreaming(ResumeIndexService.build("resume"), "job", new EditPlanListener() {
+			@Override
+			public void onEditAction(EditAction action) {
+				sections.add(action.getSection());
+				firstActionSeen.countDown();
+			}
+		});
+
+		assertTrue(firstActionSeenBeforeSecondHalf, "first edit action should be delivered while the stream is still open");
+		assertEquals(List.of("Experience", "Personal Summary"), sections);
+		assertEquals("Innovate Inc.", plan.getCompanyName());
+		assertEquals(2, plan.getEditActions().size());
+		assertEquals(List.of("TypeScript"), plan.getSkillsToAdd().getCategories().get("Languages"));
+	}
+
+	private void writeEvent(OutputStream out, String delta) throws IOException {
+		Map<String, Object> chunk = Map.of("choices", List.of(Map.of("index", 0, "delta", Map.of("content", delta))));
+		out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+
+	private static List<String> chunk(String text, int size) {
+		List<String> chunks = new java.util.ArrayList<>();
+		for (int i = 0; i < text.length(); i += size) {
+			chunks.add(text.substring(i, Math.min(text.length(), i + size)));
+		}
+		return chunks;
+	}
+}
@@ -0,0 +1,187 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.JobPosting;
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.ResumeIndex;
+import com.bg.resume_analyser.repository.JobPostingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that postings are stored once per normalised text, also when two requests record the same
+ * text at once, and that rankings are ordered by score, then vector similarity, and cut to topK.
+ */
+class JobPostingServiceTests {
+
+	private final Map<Long, JobPosting> rows = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+	private final AtomicInteger inserts = new AtomicInteger();
+	private final AtomicInteger ingested = new AtomicInteger();
+	private volatile CyclicBarrier lookupBarrier;
+
+	private final JobPostingRepository repository = (JobPostingRepository) Proxy.newProxyInstance(
+			JobPostingRepository.class.getClassLoader(), new Class<?>[]{JobPostingRepository.class},
+			(proxy, method, args) -> switch (method.getName()) {
+				case "findByContentHash" -> findByContentHash((String) args[0]);
+				case "save" -> save((JobPosting) args[0]);
+				case "saveAll" -> {
+					List<JobPosting> saved = new ArrayList<>();
+					for (Object posting : (Iterable<?>) args[0]) saved.add(save((JobPosting) posting));
+					yield saved;
+				}
+				case "findAllIds" -> new ArrayList<>(rows.keySet());
+				case "findAllById" -> {
+					List<JobPosting> found = new ArrayList<>();
+					for (Object id : (Iterable<?>) args[0]) {
+						if (rows.containsKey(id)) found.add(rows.get(id));
+					}
+					yield found;
+				}
+				default -> throw new UnsupportedOperationException(method.getName());
+			});
+
+	private final KeywordExtractor keywordExtractor = new KeywordExtractor(100, 1000) {
+		@Override
+		public void ingest(String jobText) {
+			ingested.incrementAndGet();
+			super.ingest(jobText);
+		}
+	};
+
+	// Posting vectors are [cos, sin] of an angle and the resume embeds to [1, 0], so similarity is the cosine
+	private final EmbeddingService embeddingService = new EmbeddingService(null, null, "test", 16, 16, 1000) {
+		@Override
+		public List<float[]> embedAll(List<String> texts) {
+			return texts.stream().map(text -> new float[]{1f, 0f}).collect(Collectors.toList());
+		}
+	};
+
+	private final Map<String, Integer> scores = Map.of("A", 90, "B", 80, "C", 80, "D", 60, "E", 40);
+
+	private final MatchingService matchingService = new MatchingService(null, embeddingService, keywordExtractor, false, 1000, 1, 1) {
+		@Override
+		public Map<String, Object> computeScore(ResumeIndex resume, double embeddingSim, List<String> topKeywords,
+											   String[] requiredTechnicalSkills, String[] requiredSoftSkills,
+											   int yearsRequired, String jobPosition, String[] mainFunctions) {
+			return Map.of("score", scores.get(jobPosition));
+		}
+	};
+
+	private final JobPostingService service = new JobPostingService(repository, embeddingService, matchingService,
+			new ResumeIndexService(null), keywordExtractor, new JobProfileExtractor(keywordExtractor), null,
+			16, 100, 64, 50, 256);
+
+	@AfterEach
+	void shutdown() {
+		matchingService.shutdown();
+	}
+
+	@Test
+	void recordsEachTextOnce() {
+		JobPosting first = service.record("https://jobs.example/1", "Java developer.\nKafka and Spring.");
+		JobPosting again = service.record("https://jobs.example/2", "  Java developer.\n\nKafka and   Spring.  ");
+		JobPosting other = service.record("https://jobs.example/3", "Python developer.");
+
+		assertEquals(first.getId(), again.getId());
+		assertEquals("https://jobs.example/1", again.getVacancyUrl());
+		assertEquals(2, rows.size());
+		assertEquals(2, ingested.get());
+		assertEquals(2L, other.getId());
+	}
+
+	@Test
+	void recordsConcurrentDuplicatesOnce() throws Exception {
+		// Both requests miss the lookup before either saves, so the second save hits the unique hash
+		lookupBarrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<JobPosting> first = executor.submit(() -> service.record("https://jobs.example/1", "Java developer."));
+			Future<JobPosting> second = executor.submit(() -> service.record("https://jobs.example/2", "Java developer."));
+
+			assertEquals(first.get(5, TimeUnit.SECONDS).getId(), second.get(5, TimeUnit.SECONDS).getId());
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, rows.size());
+		assertEquals(1, inserts.get());
+		assertEquals(1, ingested.get());
+	}
+
+	@Test
+	void ranksByScoreThenSimilarityAndKeepsTopK() throws Exception {
+		posting("A", 0.6);
+		posting("B", 0.99);
+		posting("C", 0.8);
+		posting("D", 1.0);
+		posting("E", 0.5);
+
+		Map<String, Object> result = service.rankForResume(resume(), 3);
+
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> ranked = (List<Map<String, Object>>) result.get("results");
+		assertEquals(List.of("A", "B", "C"), ranked.stream().map(e -> e.get("positionTitle")).collect(Collectors.toList()));
+		assertEquals(0.99, ranked.get(1).get("vectorSimilarity"));
+		assertEquals(5, result.get("candidates"));
+		assertEquals(5, result.get("indexedPostings"));
+		assertEquals(5, result.get("newlyIndexed"));
+
+		Map<String, Object> again = service.rankForResume(resume(), 10);
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> all = (List<Map<String, Object>>) again.get("results");
+		assertEquals(List.of("A", "B", "C", "D", "E"), all.stream().map(e -> e.get("positionTitle")).collect(Collectors.toList()));
+		assertEquals(0, again.get("newlyIndexed"));
+	}
+
+	private Optional<JobPosting> findByContentHash(String hash) throws Exception {
+		CyclicBarrier barrier = lookupBarrier;
+		if (barrier != null && !barrier.isBroken() && inserts.get() == 0) {
+			barrier.await(5, TimeUnit.SECONDS);
+		}
+		return rows.values().stream().filter(p -> hash.equals(p.getContentHash())).findFirst();
+	}
+
+	private synchronized JobPosting save(JobPosting posting) {
+		if (posting.getId() == null) {
+			boolean duplicate = rows.values().stream().anyMatch(p -> p.getContentHash().equals(posting.getContentHash()));
+			if (duplicate) throw new DataIntegrityViolationException("Unique index violated: content_hash");
+			posting.setId(ids.incrementAndGet());
+			inserts.incrementAndGet();
+		}
+		rows.put(posting.getId(), posting);
+		return posting;
+	}
+
+	private void posting(String title, double similarity) {
+		JobPosting posting = new JobPosting("https://jobs.example/" + title, "Job " + title, ContentHash.sha256(title));
+		posting.setPositionTitle(title);
+		posting.setKeywords("java");
+		posting.setTechnicalSkills("java");
+		posting.setEmbeddingVector(new float[]{(float) similarity, (float) Math.sqrt(1 - similarity * similarity)});
+		assertSame(posting, save(posting));
+	}
+
+	private static Resume resume() {
+		Resume resume = new Resume();
+		resume.setOriginalText("Experience\nJava developer building Kafka services.");
+		return resume;
+	}
+}
@@ -0,0 +1,60 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.JobPosting;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a job description's profile is derived locally from its title, skills and responsibilities.
+ */
+class JobProfileExtractorTests {
+
+	private static final String JOB = """
+			Senior Java Developer
+
+			Responsibilities:
+			- Design REST APIs and event pipelines with Kafka
+			- Review code and mentor junior developers
+			- Own deployments to Kubernetes
+
+			Requirements
+			- 5+ years of Java and Spring Boot
+			- PostgreSQL and Docker
+			- Excellent communication and teamwork
+
+			What we offer
+			Flexible hours and a learning budget.
+			""";
+
+	@Test
+	void derivesProfileFromText() {
+		JobPosting posting = new JobPosting(null, JOB, "hash");
+
+		new JobProfileExtractor(new KeywordExtractor(100, 1000)).apply(posting);
+
+		assertTrue(posting.hasRequirements());
+		assertEquals("Senior Java Developer", posting.getPositionTitle());
+		assertEquals(5, posting.getYearsRequired());
+		assertTrue(posting.getTechnicalSkillList().containsAll(List.of("java", "spring boot", "kafka", "kubernetes", "postgresql", "docker")),
+				posting.getTechnicalSkills());
+		assertEquals(List.of("communication", "teamwork"), posting.getSoftSkillList());
+		// Functions come from the responsibilities section only
+		assertTrue(posting.getMainFunctionList().contains("kafka"), posting.getMainFunctions());
+		assertFalse(posting.getMainFunctionList().contains("postgresql"), posting.getMainFunctions());
+		assertFalse(posting.getKeywordList().isEmpty());
+	}
+
+	@Test
+	void responsibilitiesEndAtNextHeading() {
+		String section = JobProfileExtractor.responsibilities(JOB);
+
+		assertTrue(section.contains("mentor junior developers"));
+		assertFalse(section.contains("Spring Boot"));
+		assertEquals("", JobProfileExtractor.responsibilities("No headings here.\nJust text."));
+	}
+}
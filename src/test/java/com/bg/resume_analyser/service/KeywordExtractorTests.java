@@ -0,0 +1,85 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that corpus statistics push shared words down, vocabulary phrases up, that results are cached
+ * until the corpus grows, and that only a bounded number of texts is remembered for deduplication.
+ */
+class KeywordExtractorTests {
+
+	private static final String JOB = """
+			Senior Backend Engineer
+			We are looking for an engineer to build Spring Boot microservices on Kubernetes.
+			You will own our Kafka pipelines and mentor other engineers. Our product serves customers worldwide.
+			""";
+
+	@Test
+	void ranksDistinctiveTermsAndVocabularyPhrases() {
+		KeywordExtractor extractor = new KeywordExtractor(100, 1000);
+		for (int i = 0; i < 20; i++) {
+			extractor.ingest("Engineer " + i + " wanted. Our product serves customers; engineers join a friendly office.");
+		}
+
+		List<String> keywords = extractor.extract(JOB, 5);
+
+		assertEquals(5, keywords.size());
+		assertTrue(keywords.containsAll(List.of("spring boot", "kafka", "kubernetes", "microservices")), keywords.toString());
+		// Part of the chosen phrase, so not repeated on its own
+		assertFalse(keywords.contains("spring"));
+		// Shared by every ingested posting
+		assertFalse(keywords.contains("engineer"));
+		assertFalse(keywords.contains("customers"));
+	}
+
+	@Test
+	void cachesByNormalisedText() {
+		KeywordExtractor extractor = new KeywordExtractor(100, 1000);
+
+		List<String> first = extractor.extract(JOB, 5);
+		List<String> second = extractor.extract(JOB.replace("\n", "\r\n  "), 5);
+
+		assertSame(first, second);
+		assertEquals(1L, extractor.getStats().get("hits"));
+		assertEquals(1, extractor.getStats().get("documents"));
+		assertEquals(List.of(), extractor.extract("  ", 5));
+	}
+
+	@Test
+	void ranksAgainOnceTheCorpusGrows() {
+		KeywordExtractor extractor = new KeywordExtractor(100, 1000);
+		List<String> first = extractor.extract(JOB, 5);
+		assertTrue(first.contains("engineer"), first.toString());
+
+		for (int i = 0; i < 20; i++) {
+			extractor.ingest("Engineer " + i + " wanted. Our product serves customers; engineers join a friendly office.");
+		}
+		List<String> second = extractor.extract(JOB, 5);
+
+		assertNotSame(first, second);
+		assertFalse(second.contains("engineer"), second.toString());
+		assertEquals(1L, extractor.getStats().get("stale"));
+		assertSame(second, extractor.extract(JOB, 5));
+	}
+
+	@Test
+	void remembersOnlyTheMostRecentTexts() {
+		KeywordExtractor extractor = new KeywordExtractor(100, 2);
+		extractor.ingest("Java developer");
+		extractor.ingest("Python developer");
+		extractor.ingest("Java developer");
+		assertEquals(2, extractor.getStats().get("documents"));
+
+		extractor.ingest("Go developer");
+		extractor.ingest("Python developer");
+		assertEquals(4, extractor.getStats().get("documents"));
+	}
+}
@@ -0,0 +1,49 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks whole-word and substring hits, overlapping terms, and agreement with the regex it replaces.
+ */
+class KeywordMatcherTests {
+
+	private static final String RESUME = """
+			Senior Java Developer with Spring Boot and JavaScript experience.
+			Led API design; wrote C++ tooling and on-call runbooks.
+			""";
+
+	@Test
+	void reportsWholeWordsAndSubstrings() {
+		KeywordMatcher matcher = new KeywordMatcher(List.of("java", "script", "spring boot", "c++", "api design", "go", "on-call"));
+		KeywordMatcher.Hits hits = matcher.scan(RESUME);
+
+		assertTrue(hits.containsWord("Java"));
+		assertTrue(hits.containsWord("spring boot"));
+		assertTrue(hits.containsWord("c++"));
+		assertTrue(hits.containsWord("API Design"));
+		assertTrue(hits.containsWord("on-call"));
+		// Inside "JavaScript": a substring hit only
+		assertFalse(hits.containsWord("script"));
+		assertTrue(hits.containsSubstring("script"));
+		assertFalse(hits.containsSubstring("go"));
+		assertFalse(hits.containsWord(null));
+	}
+
+	@Test
+	void agreesWithWordBoundaryRegex() {
+		List<String> terms = List.of("java", "javascript", "developer", "dev", "spring", "boot", "led", "tool", "runbooks", "senior java");
+		KeywordMatcher.Hits hits = new KeywordMatcher(terms).scan(RESUME);
+		for (String term : terms) {
+			boolean expected = Pattern.compile("\\b" + Pattern.quote(term) + "\\b").matcher(RESUME.toLowerCase()).find();
+			assertEquals(expected, hits.containsWord(term), term);
+			assertEquals(RESUME.toLowerCase().contains(term), hits.containsSubstring(term), term);
+		}
+	}
+}
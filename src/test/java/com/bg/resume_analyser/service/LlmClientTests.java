@@ -0,0 +1,157 @@
+package com.bg.resume_analyser.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises retries, deadlines and the circuit breaker against a local stand-in for the OpenAI API.
+ */
+class LlmClientTests {
+
+	private static final Map<String, Object> PAYLOAD = Map.of("model", "test", "max_tokens", 10);
+
+	private HttpServer server;
+	private final AtomicInteger hits = new AtomicInteger();
+
+	@BeforeEach
+	void startStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/flaky", exchange -> {
+			// Fails twice with 503, then succeeds
+			if (hits.incrementAndGet() <= 2) {
+				respond(exchange, 503, "{\"error\":\"overloaded\"}");
+			} else {
+				exchange.getResponseHeaders().add("x-ratelimit-limit-requests", "60");
+				exchange.getResponseHeaders().add("x-ratelimit-remaining-requests", "59");
+				exchange.getResponseHeaders().add("x-ratelimit-reset-requests", "1s");
+				respond(exchange, 200, "{\"ok\":true}");
+			}
+		});
+		server.createContext("/bad-request", exchange -> {
+			hits.incrementAndGet();
+			respond(exchange, 400, "{\"error\":\"bad\"}");
+		});
+		server.createContext("/down", exchange -> {
+			hits.incrementAndGet();
+			respond(exchange, 500, "{\"error\":\"down\"}");
+		});
+		server.createContext("/slow", exchange -> {
+			hits.incrementAndGet();
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			respond(exchange, 200, "{\"ok\":true}");
+		});
+		server.createContext("/tail", exchange -> {
+			// Only the second request hits the slow tail
+			if (hits.incrementAndGet() == 2) {
+				try {
+					Thread.sleep(3000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			respond(exchange, 200, "{\"ok\":true}");
+		});
+		server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	@AfterEach
+	void stopStubServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void retriesServerErrorsThenSucceeds() throws IOException {
+		LlmClient client = client(3, 5);
+		JsonNode response = client.postJson("/flaky", PAYLOAD, Duration.ofSeconds(5));
+
+		assertTrue(response.get("ok").asBoolean());
+		assertEquals(3, hits.get());
+		assertEquals(2L, client.getStats().get("retries"));
+	}
+
+	@Test
+	void doesNotRetryClientErrors() {
+		LlmClient client = client(3, 5);
+		LlmClient.LlmClientException e = assertThrows(LlmClient.LlmClientException.class,
+				() -> client.postJson("/bad-request", PAYLOAD, Duration.ofSeconds(5)));
+
+		assertEquals(400, e.getStatus());
+		assertEquals(1, hits.get());
+	}
+
+	@Test
+	void enforcesCallDeadline() {
+		LlmClient client = client(1, 5);
+		long started = System.nanoTime();
+		assertThrows(IOException.class, () -> client.postJson("/slow", PAYLOAD, Duration.ofMillis(300)));
+
+		assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 1500);
+	}
+
+	@Test
+	void opensCircuitAfterRepeatedFailures() {
+		LlmClient client = client(1, 2);
+		assertThrows(IOException.class, () -> client.postJson("/down", PAYLOAD, Duration.ofSeconds(5)));
+		assertThrows(IOException.class, () -> client.postJson("/down", PAYLOAD, Duration.ofSeconds(5)));
+		LlmClient.LlmClientException e = assertThrows(LlmClient.LlmClientException.class,
+				() -> client.postJson("/down", PAYLOAD, Duration.ofSeconds(5)));
+
+		assertTrue(e.getMessage().contains("circuit is open"));
+		assertEquals(2, hits.get());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void hedgesSlowRequest() throws IOException {
+		LlmClient client = new LlmClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(),
+				1000, 10000, 1, 10, 50, 500, 200000, 5, 60000,
+				new HedgingPolicy(true, 95, 1, 50, 1.0, 20));
+		client.postJsonHedged("tail", "/tail", PAYLOAD, Duration.ofSeconds(10));
+
+		long started = System.nanoTime();
+		JsonNode response = client.postJsonHedged("tail", "/tail", PAYLOAD, Duration.ofSeconds(10));
+
+		assertTrue(response.get("ok").asBoolean());
+		assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 2000);
+		Map<String, Object> hedging = (Map<String, Object>) client.getStats().get("hedging");
+		assertEquals(1L, hedging.get("hedgesIssued"));
+		assertEquals(1L, hedging.get("hedgesWon"));
+	}
+
+	private LlmClient client(int maxAttempts, int failureThreshold) {
+		return new LlmClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(),
+				1000, 10000, maxAttempts, 10, 50, 500, 200000, failureThreshold, 60000,
+				new HedgingPolicy(false, 95, 20, 1000, 0.1, 200));
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		exchange.getRequestBody().readAllBytes();
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
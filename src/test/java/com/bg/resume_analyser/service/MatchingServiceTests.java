@@ -0,0 +1,111 @@
+package com.bg.resume_analyser.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the embedding and keyword calls of one score overlap, that stage timings are reported,
+ * and that resume sections are read from the stored index.
+ */
+class MatchingServiceTests {
+
+	private static final long DELAY_MS = 400;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private HttpServer server;
+
+	@BeforeEach
+	void startStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/v1/embeddings", exchange -> {
+			JsonNode inputs = objectMapper.readTree(exchange.getRequestBody()).get("input");
+			StringBuilder body = new StringBuilder("{\"object\":\"list\",\"data\":[");
+			for (int i = 0; i < inputs.size(); i++) {
+				if (i > 0) body.append(',');
+				body.append("{\"object\":\"embedding\",\"index\":").append(i).append(",\"embedding\":[1.0,").append(i).append("]}");
+			}
+			respond(exchange, body.append("],\"model\":\"test\"}").toString());
+		});
+		server.createContext("/v1/chat/completions", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			respond(exchange, "{\"choices\":[{\"message\":{\"content\":\"[\\\"java\\\", \\\"kafka\\\"]\"}}]}");
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void stopStubServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void overlapsRemoteStagesAndReportsTimings() {
+		LlmClient client = new LlmClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(),
+				1000, 10000, 1, 10, 50, 500, 200000, 5, 60000,
+				new HedgingPolicy(false, 95, 20, 1000, 0.1, 200));
+		EmbeddingService embeddings = new EmbeddingService(client, new VectorStore(false, "float32", "unused", 0), "test", 256, 100, 10000);
+		MatchingService matching = new MatchingService(client, embeddings, new KeywordExtractor(100, 1000), true, 10000, 4, 10);
+
+		long start = System.nanoTime();
+		Map<String, Object> result = matching.computeScore(ResumeIndexService.build("Java developer, 5 years. Spring and Kafka."), "Java job",
+				new String[]{"spring"}, new String[0], 4, "Java Developer", new String[0]);
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+		matching.shutdown();
+
+		assertNotNull(result.get("details"), String.valueOf(result));
+		@SuppressWarnings("unchecked")
+		Map<String, Object> timings = (Map<String, Object>) ((Map<String, Object>) result.get("details")).get("timings");
+		assertTrue(((Number) timings.get("embeddingMs")).longValue() >= DELAY_MS);
+		assertTrue(((Number) timings.get("keywordsMs")).longValue() >= DELAY_MS);
+		// Sequential calls would take at least twice the delay
+		assertTrue(elapsedMs < 2 * DELAY_MS, "took " + elapsedMs + " ms");
+		assertEquals(List.of("java", "kafka"), result.get("topKeywords"));
+		assertEquals(List.of(), result.get("missingKeywords"));
+	}
+
+	@Test
+	void analysesSectionsFromTheIndex() {
+		MatchingService matching = new MatchingService(null, null, null, false, 1000, 1, 1);
+		Map<String, Object> result = matching.analyzeResumeText(ResumeIndexService.build(
+				"Jane Doe\nSummary\nBackend engineer.\nLikes Kafka.\nExperience\n- Built APIs\n\nSkills\nJava, Spring\n"));
+		matching.shutdown();
+
+		assertEquals(true, result.get("success"));
+		assertEquals("Backend engineer. Likes Kafka.", result.get("summary"));
+		assertEquals(List.of("- Built APIs"), result.get("experience"));
+		assertEquals(List.of("Java, Spring"), result.get("skills"));
+		assertEquals(false, matching.analyzeResumeText(ResumeIndexService.build("  ")).get("success"));
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		try {
+			Thread.sleep(DELAY_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.bg.resume_analyser.service;
+
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks one-to-one assignment, and that the prefilter finds the same matches as scoring every paragraph.
+ */
+class ParagraphIndexTests {
+
+	@Test
+	void assignsEachParagraphAtMostOnce() {
+		ParagraphIndex index = new ParagraphIndex(List.of(
+				"Summary",
+				"Built   Spring Boot services for payments.",
+				"Led a team of five engineers on the checkout platform."));
+
+		List<ParagraphIndex.Match> matches = index.assign(List.of(
+				"Built Spring Boot services for payments",
+				"Built Spring Boot services for payments.",
+				"Led a team of five engineers on the checkout platform.",
+				"Something that is not in the document at all"));
+
+		// The exact duplicate wins the paragraph; the near duplicate gets nothing rather than overwriting it
+		assertEquals(1, matches.get(1).paragraph());
+		assertEquals(1.0, matches.get(1).score(), 1e-9);
+		assertFalse(matches.get(0).found());
+		assertTrue(matches.get(0).score() > ParagraphIndex.THRESHOLD);
+		assertEquals(2, matches.get(2).paragraph());
+		assertFalse(matches.get(3).found());
+		// Already claimed by the batch
+		assertFalse(index.match("Led a team of five engineers on the checkout platform.").found());
+	}
+
+	@Test
+	void agreesWithScoringEveryParagraph() {
+		SplittableRandom random = new SplittableRandom(7);
+		List<String> paragraphs = new ArrayList<>();
+		for (int i = 0; i < 200; i++) paragraphs.add(sentence(random));
+		JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
+
+		for (int q = 0; q < 100; q++) {
+			String original = paragraphs.get(random.nextInt(paragraphs.size()));
+			String query = random.nextBoolean() ? typo(original, random) : sentence(random);
+			int expected = -1;
+			double best = ParagraphIndex.THRESHOLD;
+			for (int p = 0; p < paragraphs.size(); p++) {
+				double score = similarity.apply(ParagraphIndex.normalize(paragraphs.get(p)), ParagraphIndex.normalize(query));
+				if (score > best) {
+					best = score;
+					expected = p;
+				}
+			}
+			ParagraphIndex.Match match = new ParagraphIndex(paragraphs).match(query);
+			assertEquals(expected, match.paragraph(), query);
+		}
+	}
+
+	private static String sentence(SplittableRandom random) {
+		String[] words = {"built", "led", "designed", "services", "platform", "java", "kafka", "team", "payments",
+				"migrated", "reduced", "latency", "customers", "pipelines", "reporting", "cloud", "costs", "by"};
+		StringBuilder sb = new StringBuilder();
+		int n = 6 + random.nextInt(10);
+		for (int i = 0; i < n; i++) sb.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+		return sb.toString();
+	}
+
+	private static String typo(String text, SplittableRandom random) {
+		int at = random.nextInt(text.length());
+		return text.substring(0, at) + text.substring(at + 1);
+	}
+}
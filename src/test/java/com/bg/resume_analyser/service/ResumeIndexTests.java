@@ -0,0 +1,64 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.ResumeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks section tagging, bullets and years, and that the stored blob decodes to the same index.
+ */
+class ResumeIndexTests {
+
+	private static final String RESUME = "Jane Doe\r\n"
+			+ "Summary\n"
+			+ "Backend engineer with 7 years of experience.\n"
+			+ "\n"
+			+ "Experience:\n"
+			+ "Acme Corp, 2019 - present\n"
+			+ "- Built Spring Boot services handling 2 years of order data\n"
+			+ "• Migrated Kafka consumers to Kubernetes\n"
+			+ "Education\n"
+			+ "- BSc Computer Science\n";
+
+	@Test
+	void tagsSectionsBulletsAndYears() {
+		ResumeIndex index = ResumeIndexService.build(RESUME);
+
+		assertTrue(index.hasSections());
+		assertTrue(index.hasSection(ResumeIndexService.SECTIONS.indexOf(EditPlanPromptBuilder.EXPERIENCE)));
+		assertFalse(index.hasSection(ResumeIndexService.SECTIONS.indexOf(EditPlanPromptBuilder.SKILLS)));
+		assertEquals(List.of(2), index.sectionLines(ResumeIndexService.SECTIONS.indexOf(EditPlanPromptBuilder.PERSONAL_SUMMARY)));
+		assertEquals(List.of(5, 6, 7), index.sectionLines(ResumeIndexService.SECTIONS.indexOf(EditPlanPromptBuilder.EXPERIENCE)));
+		// The Education bullet is outside the Experience section
+		assertArrayEquals(new int[]{6, 7}, index.bullets());
+		assertEquals(7, index.yearsOfExperience());
+		assertTrue(index.lineTerms(7).containsAll(Set.of("kafka", "kubernetes")));
+		assertEquals(RESUME.replace("\r\n", "\n").stripTrailing(), index.text());
+	}
+
+	@Test
+	void roundTripsThroughBytes() {
+		ResumeIndex index = ResumeIndexService.build(RESUME);
+		ResumeIndex decoded = ResumeIndex.fromBytes(index.toBytes());
+
+		assertEquals(index.text(), decoded.text());
+		assertEquals(index.text().toLowerCase(Locale.ROOT), decoded.normalizedText());
+		assertEquals(index.termFrequencies(), decoded.termFrequencies());
+		assertArrayEquals(index.bullets(), decoded.bullets());
+		assertEquals(index.yearsOfExperience(), decoded.yearsOfExperience());
+		for (int i = 0; i < index.lineCount(); i++) {
+			assertEquals(index.lineSection(i), decoded.lineSection(i));
+			assertEquals(index.lineTerms(i), decoded.lineTerms(i));
+		}
+		assertNull(ResumeIndex.fromBytes(new byte[]{1, 2, 3}));
+	}
+}
@@ -0,0 +1,113 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that joiners share the leader's result or failure, that other keys run independently and
+ * that a key is released once its run finishes.
+ */
+class SingleFlightTests {
+
+	private final SingleFlight<String, String> flight = new SingleFlight<>();
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final CountDownLatch leaderStarted = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void joinersShareTheLeadersResult() throws Exception {
+		Future<String> leader = executor.submit(() -> flight.execute("plan", this::slowWork));
+		assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+		CountDownLatch joined = new CountDownLatch(2);
+		Future<String> first = executor.submit(() -> flight.execute("plan", this::slowWork, joined::countDown));
+		Future<String> second = executor.submit(() -> flight.execute("plan", this::slowWork, joined::countDown));
+		assertTrue(joined.await(5, TimeUnit.SECONDS));
+		assertEquals(1, flight.inFlightCount());
+		release.countDown();
+
+		String result = leader.get(5, TimeUnit.SECONDS);
+		assertSame(result, first.get(5, TimeUnit.SECONDS));
+		assertSame(result, second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void joinersReceiveTheLeadersFailure() throws Exception {
+		Future<String> leader = executor.submit(() -> flight.execute("plan", () -> {
+			leaderStarted.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			throw new IOException("model unavailable");
+		}));
+		assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+		CountDownLatch joined = new CountDownLatch(1);
+		Future<String> follower = executor.submit(() -> flight.execute("plan", this::slowWork, joined::countDown));
+		assertTrue(joined.await(5, TimeUnit.SECONDS));
+		release.countDown();
+
+		for (Future<String> caller : List.of(leader, follower)) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+			assertInstanceOf(IOException.class, e.getCause());
+			assertEquals("model unavailable", e.getCause().getMessage());
+		}
+		assertEquals(0, runs.get());
+		assertEquals(0, flight.inFlightCount());
+	}
+
+	@Test
+	void releasesTheKeyAfterEachRun() throws Exception {
+		release.countDown();
+		assertEquals("result 1", flight.execute("plan", this::slowWork));
+		assertEquals(0, flight.inFlightCount());
+		assertEquals("result 2", flight.execute("plan", this::slowWork));
+
+		assertThrows(IllegalStateException.class, () -> flight.execute("plan", () -> {
+			throw new IllegalStateException("bad plan");
+		}));
+		assertEquals(0, flight.inFlightCount());
+		assertEquals("result 3", flight.execute("plan", this::slowWork));
+	}
+
+	@Test
+	void runsDifferentKeysIndependently() throws Exception {
+		Future<String> leader = executor.submit(() -> flight.execute("plan", this::slowWork));
+		assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+		boolean[] joined = {false};
+		assertEquals("other", flight.execute("other", () -> "other", () -> joined[0] = true));
+		assertFalse(joined[0]);
+		release.countDown();
+		assertEquals("result 1", leader.get(5, TimeUnit.SECONDS));
+	}
+
+	private String slowWork() throws InterruptedException {
+		leaderStarted.countDown();
+		release.await(5, TimeUnit.SECONDS);
+		return "result " + runs.incrementAndGet();
+	}
+}
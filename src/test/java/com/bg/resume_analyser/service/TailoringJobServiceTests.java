@@ -0,0 +1,210 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.TailoringJob;
+import com.bg.resume_analyser.model.request.TailorRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that SSE subscribers get the replayed events, the final event and then completion,
+ * whether they subscribe while the job runs or after it has finished, and that a stalled
+ * subscriber holds up neither the job nor the other subscribers.
+ */
+class TailoringJobServiceTests {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private volatile boolean fail;
+
+	private final TailoringService tailoringService = new TailoringService(null, null, null, null, null, null, null, false) {
+		@Override
+		public Map<String, Object> tailor(Resume resume, TailorRequest tailorRequest, Consumer<String> progress) throws IOException {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			progress.accept("Editing resume.");
+			if (fail) throw new IOException("no job description");
+			return Map.of("resumeId", resume.getId());
+		}
+	};
+
+	private final List<RecordingEmitter> created = new CopyOnWriteArrayList<>();
+	private final CountDownLatch unstall = new CountDownLatch(1);
+	private volatile boolean stallNext;
+
+	private final TailoringJobService service = new TailoringJobService(tailoringService, 1, 4, 60_000, 60) {
+		@Override
+		SseEmitter createEmitter() {
+			RecordingEmitter emitter = stallNext ? new RecordingEmitter(unstall) : new RecordingEmitter();
+			stallNext = false;
+			created.add(emitter);
+			return emitter;
+		}
+	};
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		unstall.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void streamsLiveEventsAndCompletesAfterTheFinalOne() throws Exception {
+		TailoringJob job = service.submit(resume(), new TailorRequest());
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		RecordingEmitter emitter = (RecordingEmitter) service.subscribe(job);
+		assertEquals(1, service.subscriberCount(job));
+		release.countDown();
+
+		assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("QUEUED", "RUNNING", "IN_PROGRESS", "SUCCEEDED"), emitter.stages);
+		assertEquals(TailoringJob.Status.SUCCEEDED, job.getStatus());
+		assertEquals(0, service.subscriberCount(job));
+	}
+
+	@Test
+	void replaysFinishedJobsWithoutRegistering() throws Exception {
+		fail = true;
+		release.countDown();
+		TailoringJob job = service.submit(resume(), new TailorRequest());
+		awaitFinished(job);
+
+		RecordingEmitter emitter = (RecordingEmitter) service.subscribe(job);
+
+		assertEquals(0, emitter.completed.getCount());
+		assertEquals(List.of("QUEUED", "RUNNING", "IN_PROGRESS", "FAILED"), emitter.stages);
+		assertEquals("no job description", job.getError());
+		assertEquals(0, service.subscriberCount(job));
+	}
+
+	@Test
+	void everySubscriberSeesTheFinalEvent() throws Exception {
+		TailoringJob job = service.submit(resume(), new TailorRequest());
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		release.countDown();
+
+		// Subscribe repeatedly while the job finishes: each stream ends with the final event
+		while (!job.isFinished()) {
+			service.subscribe(job);
+		}
+		service.subscribe(job);
+		awaitFinished(job);
+
+		for (RecordingEmitter emitter : created) {
+			assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+			assertEquals("SUCCEEDED", emitter.stages.get(emitter.stages.size() - 1));
+		}
+		assertEquals(0, service.subscriberCount(job));
+	}
+
+	@Test
+	void aStalledSubscriberDelaysOnlyItsOwnStream() throws Exception {
+		TailoringJob job = service.submit(resume(), new TailorRequest());
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		stallNext = true;
+		RecordingEmitter stalled = (RecordingEmitter) service.subscribe(job);
+		RecordingEmitter healthy = (RecordingEmitter) service.subscribe(job);
+		release.countDown();
+
+		awaitFinished(job);
+		assertTrue(healthy.completed.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("QUEUED", "RUNNING", "IN_PROGRESS", "SUCCEEDED"), healthy.stages);
+		assertEquals(1, stalled.completed.getCount());
+
+		unstall.countDown();
+		assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("QUEUED", "RUNNING", "IN_PROGRESS", "SUCCEEDED"), stalled.stages);
+	}
+
+	@Test
+	void dropsASubscriberWhoseSendFails() throws Exception {
+		TailoringJob job = service.submit(resume(), new TailorRequest());
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		RecordingEmitter emitter = (RecordingEmitter) service.subscribe(job);
+		emitter.failing = true;
+		release.countDown();
+
+		awaitFinished(job);
+		assertEquals(List.of("QUEUED", "RUNNING"), emitter.stages);
+		assertEquals(0, service.subscriberCount(job));
+	}
+
+	private static Resume resume() {
+		Resume resume = new Resume();
+		resume.setId(7L);
+		return resume;
+	}
+
+	private static void awaitFinished(TailoringJob job) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!job.isFinished() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(job.isFinished());
+	}
+
+	/**
+	 * Records the stage of each event sent and counts down on completion. With a latch, live
+	 * events wait for it, like a client that stopped reading; when failing, every send throws.
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+
+		final List<String> stages = new CopyOnWriteArrayList<>();
+		final CountDownLatch completed = new CountDownLatch(1);
+		private final CountDownLatch stall;
+		volatile boolean failing;
+
+		RecordingEmitter() {
+			this(null);
+		}
+
+		RecordingEmitter(CountDownLatch stall) {
+			this.stall = stall;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (failing) throw new IOException("Broken pipe");
+			if (stall != null && stages.size() >= 2) {
+				try {
+					stall.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			Set<ResponseBodyEmitter.DataWithMediaType> data = builder.build();
+			for (ResponseBodyEmitter.DataWithMediaType item : data) {
+				if (item.getData() instanceof Map<?, ?> event) {
+					stages.add(String.valueOf(event.get("stage")));
+				}
+			}
+		}
+
+		@Override
+		public void complete() {
+			completed.countDown();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks hits, re-reads after a file is replaced, and eviction by total size.
+ */
+class TemplateCacheTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rereadsReplacedFiles() throws IOException {
+		TemplateCache cache = new TemplateCache(true, 8, 1);
+		Path template = Files.write(dir.resolve("cv.docx"), new byte[]{1, 2, 3});
+
+		byte[] first = cache.read(template);
+		assertSame(first, cache.read(template));
+
+		Files.write(template, new byte[]{4, 5, 6});
+		Files.setLastModifiedTime(template, FileTime.from(Instant.now().plusSeconds(60)));
+		assertArrayEquals(new byte[]{4, 5, 6}, cache.read(template));
+
+		assertEquals(1L, cache.getStats().get("hits"));
+		assertEquals(2L, cache.getStats().get("misses"));
+		assertEquals(1L, cache.getStats().get("stale"));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBeyondTheSizeBound() throws IOException {
+		TemplateCache cache = new TemplateCache(true, 8, 1);
+		byte[] large = new byte[400 * 1024];
+		Path a = Files.write(dir.resolve("a.docx"), large);
+		Path b = Files.write(dir.resolve("b.docx"), large);
+		Path c = Files.write(dir.resolve("c.docx"), large);
+
+		cache.read(a);
+		cache.read(b);
+		cache.read(a);
+		cache.read(c);
+
+		assertEquals(2, cache.getStats().get("entries"));
+		assertEquals(1L, cache.getStats().get("evictions"));
+		cache.read(a);
+		assertEquals(2L, cache.getStats().get("hits"));
+	}
+}
@@ -0,0 +1,158 @@
+package com.bg.resume_analyser.service;
+
+import com.bg.resume_analyser.model.EditAction;
+import com.bg.resume_analyser.model.Resume;
+import com.bg.resume_analyser.model.RunStyle;
+import com.bg.resume_analyser.model.TemplateMap;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compiles a small in-memory DOCX, applies edits through the map and checks that a stored map is
+ * only reused for the template file it was compiled from.
+ */
+class TemplateMapTests {
+
+	@TempDir
+	Path dir;
+
+	private final DocxService docxService = new DocxService(new TemplateCache(false, 0, 0), true);
+
+	@Test
+	void compilesSectionsAnchorsAndStyles() throws IOException {
+		try (XWPFDocument doc = resume()) {
+			TemplateMap map = TemplateMap.fromBytes(docxService.compileTemplate(doc).toBytes());
+			assertNotNull(map);
+
+			assertEquals(7, map.paragraphCount());
+			assertEquals(new TemplateMap.Section("Summary", EditPlanPromptBuilder.PERSONAL_SUMMARY, 0, 2), map.section("summary"));
+			assertEquals(new TemplateMap.Section("Experience", EditPlanPromptBuilder.EXPERIENCE, 2, 4), map.section(EditPlanPromptBuilder.EXPERIENCE));
+			assertEquals(new TemplateMap.Section("Skills & Abilities", EditPlanPromptBuilder.SKILLS, 4, 7), map.section(EditPlanPromptBuilder.SKILLS));
+			assertTrue(map.isBullet(3));
+			assertFalse(map.isBullet(1));
+			assertEquals(4, map.skillsHeading());
+			assertEquals(5, map.categoryParagraph("Languages"));
+			assertEquals(6, map.categoryParagraph("frameworks"));
+			assertEquals(-1, map.categoryParagraph("Databases"));
+
+			RunStyle last = map.lastRunStyle(5);
+			assertEquals("Arial", last.fontFamily());
+			assertEquals(10.0, last.fontSize());
+			assertTrue(last.italic());
+			assertTrue(Double.isNaN(map.firstRunStyle(0).fontSize()));
+			// The map and the document structure read run formatting into the same record
+			assertEquals(DocxStructure.extract(doc).runStyle(5, 1), last);
+		}
+	}
+
+	@Test
+	void appliesEditsAndSkillsByIndex() throws IOException {
+		try (XWPFDocument doc = resume()) {
+			TemplateMap map = docxService.compileTemplate(doc);
+			EditAction edit = new EditAction();
+			edit.setSection(EditPlanPromptBuilder.EXPERIENCE);
+			edit.setOriginalText("Built Spring Boot services for the payments platform team.");
+			edit.setNewText("Built Kotlin services for the payments platform team.");
+			List<Map<String, Object>> matches = new ArrayList<>();
+			docxService.applyEditActions(doc, docxService.indexParagraphs(doc), map, List.of(edit), matches);
+			docxService.addSkillsCategory(doc, map, "Languages", List.of("Go", "Java"));
+
+			assertEquals(3, matches.get(0).get("paragraph"));
+			assertEquals("Built Kotlin services for the payments platform team.", doc.getParagraphs().get(3).getText());
+			assertEquals("Languages: Java, Kotlin, Go", doc.getParagraphs().get(5).getText());
+			XWPFRun added = doc.getParagraphs().get(5).getRuns().get(doc.getParagraphs().get(5).getRuns().size() - 1);
+			assertEquals("Arial", added.getFontFamily());
+			assertTrue(added.isItalic());
+		}
+	}
+
+	@Test
+	void recompilesWhenTheTemplateFileChanges() throws IOException {
+		Path file = dir.resolve("cv.docx");
+		Files.write(file, bytes(resume()));
+		Resume resume = new Resume("cv.docx", "");
+		try (XWPFDocument doc = docxService.openTemplate(file)) {
+			TemplateMap compiled = docxService.compileTemplate(doc);
+			assertNotNull(compiled.sourceHash());
+			resume.setTemplateData(compiled.toBytes());
+		}
+
+		String hash = ContentHash.sha256(Files.readAllBytes(file));
+		try (XWPFDocument doc = docxService.openTemplate(file)) {
+			assertEquals(hash, docxService.templateMap(resume, doc).sourceHash());
+		}
+		// A stored map with the file's hash is reused as it is, whatever it contains
+		Resume marked = new Resume("cv.docx", "");
+		marked.setTemplateData(new TemplateMap(hash, 1, List.of(), new int[0], -1, new String[0], new int[0],
+				new RunStyle[0], new int[]{-1}, new int[]{-1}).toBytes());
+		try (XWPFDocument doc = docxService.openTemplate(file)) {
+			assertEquals(1, docxService.templateMap(marked, doc).paragraphCount());
+		}
+
+		// Same paragraph count, different skills line: a count check alone would reuse the stale map
+		XWPFDocument replaced = resume();
+		replaced.getParagraphs().get(5).getRuns().get(0).setText("Tools: ", 0);
+		Files.write(file, bytes(replaced));
+		try (XWPFDocument doc = docxService.openTemplate(file)) {
+			TemplateMap map = docxService.templateMap(resume, doc);
+			assertEquals(7, map.paragraphCount());
+			assertEquals(-1, map.categoryParagraph("Languages"));
+			assertEquals(5, map.categoryParagraph("Tools"));
+			assertNotEquals(hash, map.sourceHash());
+		}
+
+		// A document not opened from a template file has no known source, so nothing stored is trusted
+		try (XWPFDocument doc = resume()) {
+			assertNull(docxService.templateMap(resume, doc).sourceHash());
+		}
+	}
+
+	private static byte[] bytes(XWPFDocument doc) throws IOException {
+		try (doc; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			doc.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	private static XWPFDocument resume() {
+		XWPFDocument doc = new XWPFDocument();
+		addParagraph(doc, "Summary");
+		addParagraph(doc, "Backend engineer.");
+		addParagraph(doc, "Experience");
+		addParagraph(doc, "Built Spring Boot services for the payments platform team.");
+		addParagraph(doc, "Skills & Abilities");
+		XWPFParagraph languages = doc.createParagraph();
+		XWPFRun label = languages.createRun();
+		label.setText("Languages: ");
+		label.setBold(true);
+		XWPFRun values = languages.createRun();
+		values.setText("Java, Kotlin");
+		values.setFontFamily("Arial");
+		values.setFontSize(10.0);
+		values.setItalic(true);
+		addParagraph(doc, "Frameworks: Spring");
+		return doc;
+	}
+
+	private static void addParagraph(XWPFDocument doc, String text) {
+		doc.createParagraph().createRun().setText(text);
+	}
+}
@@ -0,0 +1,87 @@
+package com.bg.resume_analyser.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that vectors survive reopening the mapped file, including across a remap, in both encodings,
+ * that each key is stored once, and that a full store drops new vectors instead of failing.
+ */
+class VectorStoreTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void persistsFloatVectorsAcrossReopen() {
+		String file = dir.resolve("vectors.bin").toString();
+		VectorStore store = new VectorStore(true, "float32", file, 0);
+		// More than the initial capacity, so the file is remapped while appending
+		for (int i = 0; i < 100; i++) {
+			store.put(ContentHash.sha256("text " + i), vector(i));
+		}
+		store.close();
+
+		VectorStore reopened = new VectorStore(true, "float32", file, 0);
+		assertEquals(100, reopened.size());
+		assertArrayEquals(vector(42), reopened.get(ContentHash.sha256("text 42")));
+		assertNull(reopened.get(ContentHash.sha256("never stored")));
+		for (int i = 0; i < 100; i++) {
+			assertArrayEquals(vector(i), reopened.get(ContentHash.sha256("text " + i)));
+		}
+
+		// Appends after reopening grow the key table and stay findable
+		for (int i = 100; i < 300; i++) {
+			reopened.put(ContentHash.sha256("text " + i), vector(i));
+		}
+		reopened.put(ContentHash.sha256("text 7"), vector(8));
+		assertEquals(300, reopened.size());
+		assertArrayEquals(vector(7), reopened.get(ContentHash.sha256("text 7")));
+		assertArrayEquals(vector(250), reopened.get(ContentHash.sha256("text 250")));
+		reopened.close();
+	}
+
+	@Test
+	void quantisesToInt8() {
+		VectorStore store = new VectorStore(true, "int8", dir.resolve("int8.bin").toString(), 0);
+		String key = ContentHash.sha256("resume");
+		store.put(key, vector(3));
+		float[] restored = store.get(key);
+		for (int d = 0; d < restored.length; d++) {
+			assertEquals(vector(3)[d], restored[d], 0.01);
+		}
+		assertEquals("int8", store.getStats().get("encoding"));
+		store.close();
+	}
+
+	@Test
+	void stopsPersistingOnceFull() {
+		VectorStore store = new VectorStore(true, "float32", dir.resolve("full.bin").toString(), 100);
+		for (int i = 0; i < 150; i++) {
+			store.put(ContentHash.sha256("text " + i), vector(i));
+		}
+
+		assertEquals(100, store.size());
+		assertEquals(50L, store.getStats().get("dropped"));
+		assertArrayEquals(vector(99), store.get(ContentHash.sha256("text 99")));
+		assertNull(store.get(ContentHash.sha256("text 120")));
+		store.close();
+	}
+
+	private static float[] vector(int seed) {
+		float[] v = new float[8];
+		double norm = 0;
+		for (int d = 0; d < v.length; d++) {
+			v[d] = (float) Math.sin(seed + d);
+			norm += v[d] * v[d];
+		}
+		for (int d = 0; d < v.length; d++) v[d] /= (float) Math.sqrt(norm);
+		return v;
+	}
+}